@@ -0,0 +1,88 @@
+package au.org.nifpi.cerei;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * A synthetic set of input files for the benchmarks, written by the DatasetGenerator - a Network Tariff, Energy Usage for any number
+ * of meters, AEMO Spot Price, Energy Generated for one PV meter and Feed-in Tariff - covering the whole of 2020 at any supported
+ * interval length.  The same seed always gives the same files, so every run of a benchmark reads exactly the same data.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public final class BenchmarkData {
+
+	/** Receives the progress of a calculation and never cancels it */
+	public static final CalculationProgress NO_PROGRESS = new CalculationProgress() {
+		@Override
+		public void stageStarted(String stageName) {
+		}
+
+		@Override
+		public void rowsProcessed(int rowsProcessed, long bytesRead, long totalBytes) {
+		}
+
+		@Override
+		public boolean isCancelRequested() {
+			return false;
+		}
+	};
+
+	/** Folder holding the files */
+	public final File directory;
+	/** Input files */
+	public final File networkParameterFile, usageFile, priceFile, generatedFile, feedInFile;
+	/** Number of usage meters */
+	public final int meters;
+	/** Length of each interval in minutes */
+	public final int intervalMinutes;
+
+	/**
+	 * Write a set of input files to a new temporary folder.
+	 *
+	 * @param meters Number of usage meters.
+	 * @param intervalMinutes Length of each interval in minutes - must divide into an hour.
+	 * @param seed Seed for the random values.
+	 *
+	 * @throws Exception If the files cannot be written.
+	 */
+	public BenchmarkData(int meters, int intervalMinutes, long seed) throws Exception {
+		this.meters = meters;
+		this.intervalMinutes = intervalMinutes;
+		directory = Files.createTempDirectory("cerei-benchmark").toFile();
+		File[] files = new DatasetGenerator(meters, 1, intervalMinutes, seed).generate(directory, "Benchmark");
+		networkParameterFile = files[0];
+		usageFile = files[1];
+		priceFile = files[2];
+		generatedFile = files[3];
+		feedInFile = files[4];
+	}
+
+	/**
+	 * A new calculation of costs and PEIs for the files.
+	 *
+	 * @return Calculation that has not been run.
+	 */
+	public Calculation newCalculation() {
+		Calculation calculation = new Calculation(networkParameterFile, usageFile, priceFile, generatedFile, feedInFile, null, null);
+		calculation.setIntervalMinutes(intervalMinutes);
+		return calculation;
+	}
+
+	/**
+	 * Delete the files, including any cache or state the calculations have written next to them.
+	 *
+	 * @throws IOException If the files cannot be deleted.
+	 */
+	public void delete() throws IOException {
+		try (Stream<Path> paths = Files.walk(directory.toPath())) {
+			for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package au.org.nifpi.cerei;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the JMH benchmarks with the results written as JSON to jmh-result.json, unless the command line says otherwise.  Takes the
+ * same arguments as JMH, e.g. "IntervalProcessing -p meters=100 -p intervalMinutes=5" or "-f 1 -wi 1 -i 1" for a quick run.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class CereiBenchmarks {
+	/** Where the results go unless -rff is given */
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	/**
+	 * Run the benchmarks.
+	 *
+	 * @param args JMH command line arguments.
+	 *
+	 * @throws Exception If the benchmarks cannot be run.
+	 */
+	public static void main(String[] args) throws Exception {
+		List<String> jmhArgs = new ArrayList<String>(Arrays.asList(args));
+		if (!jmhArgs.contains("-rf")) {
+			jmhArgs.add("-rf");
+			jmhArgs.add("json");
+		}
+		if (!jmhArgs.contains("-rff")) {
+			jmhArgs.add("-rff");
+			jmhArgs.add(DEFAULT_RESULT_FILE);
+		}
+		org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+	}
+}
@@ -0,0 +1,96 @@
+package au.org.nifpi.cerei;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What compensated summation costs over plain addition.  A month of 30 minute values for 1000 meters is added to one running total
+ * per meter, in the same order as ChargeAccumulator adds them - every meter for one interval, then the next interval - once with
+ * CompensatedSums.add and once with +=.  With fewer meters the same number of values are added to fewer totals.  The time is per
+ * value added.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompensatedSumsBenchmark {
+	/** Number of values added - a 31 day month of 30 minute intervals for 1000 meters */
+	private static final int VALUES = 31 * 48 * 1000;
+
+	/** Number of meters, i.e. running totals.  Must divide into VALUES */
+	@Param({ "1", "10", "100", "1000" })
+	public int meters;
+
+	/** Values to add, one row of meters per interval */
+	private double[] values;
+	/** Running totals added up with compensated summation */
+	private CompensatedSums compensatedSums;
+	/** Running totals added up with += */
+	private double[] plainSums;
+
+	/**
+	 * Make up the values - energy in kWh of the size found in the sample data - and the totals.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(20200101L);
+		values = new double[VALUES];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextDouble() * 50;
+		}
+		compensatedSums = new CompensatedSums(meters);
+		plainSums = new double[meters];
+	}
+
+	/**
+	 * Add the month of values with compensated summation.
+	 *
+	 * @return Totals, so the work is not optimised away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(VALUES)
+	public CompensatedSums compensated() {
+		int value = 0;
+		for (int interval = VALUES / meters; interval > 0; interval--) {
+			for (int meter = 0; meter < meters; meter++) {
+				compensatedSums.add(meter, values[value++]);
+			}
+		}
+		return compensatedSums;
+	}
+
+	/**
+	 * Add the month of values with +=.
+	 *
+	 * @return Totals, so the work is not optimised away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(VALUES)
+	public double[] plain() {
+		int value = 0;
+		for (int interval = VALUES / meters; interval > 0; interval--) {
+			for (int meter = 0; meter < meters; meter++) {
+				plainSums[meter] += values[value++];
+			}
+		}
+		return plainSums;
+	}
+}
@@ -0,0 +1,122 @@
+package au.org.nifpi.cerei;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The monthly calculations done once all the intervals have been accumulated - costs, PEIs and the summaries behind the results
+ * tables and .csv files.  These only depend on the number of meters, not on the number of intervals.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CostBenchmark {
+	/** Number of usage meters */
+	@Param({ "1", "10", "100", "1000" })
+	public int meters;
+
+	/** Input files */
+	private BenchmarkData data;
+	/** Calculation that has been run, so its costs and PEIs have all their intervals accumulated */
+	private Calculation calculation;
+
+	/**
+	 * Write the input files and run the calculation.
+	 *
+	 * @throws Exception If the calculation fails.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		data = new BenchmarkData(meters, 30, 20200101L);
+		calculation = data.newCalculation();
+		calculation.calculate(BenchmarkData.NO_PROGRESS);
+	}
+
+	/**
+	 * Remove the input files.
+	 *
+	 * @throws Exception If the files cannot be deleted.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		data.delete();
+	}
+
+	/**
+	 * Monthly charges of every meter.
+	 *
+	 * @return Costs, so the work is not optimised away.
+	 *
+	 * @throws Exception If the calculation fails.
+	 */
+	@Benchmark
+	public Cost calculateCosts() throws Exception {
+		calculation.cost.calculateCosts(calculation.networkParameters);
+		return calculation.cost;
+	}
+
+	/**
+	 * Monthly, quarterly and yearly cost summaries of every meter plus the total.
+	 *
+	 * @return Costs, so the work is not optimised away.
+	 */
+	@Benchmark
+	public Cost createCostSummaries() {
+		calculation.cost.createCostSummaries();
+		return calculation.cost;
+	}
+
+	/**
+	 * Cost summaries as the table of strings written to the .csv files.
+	 *
+	 * @return Table.
+	 */
+	@Benchmark
+	public String[][] createCostSummaryOutput() {
+		return calculation.cost.createSummaryOutput(calculation.cost.allMeterCostSummaries);
+	}
+
+	/**
+	 * Monthly PEIs of every usage meter.
+	 *
+	 * @return PEIs, so the work is not optimised away.
+	 *
+	 * @throws Exception If the calculation fails.
+	 */
+	@Benchmark
+	public PEI calculatePEIs() throws Exception {
+		calculation.pei.calculatePEIs();
+		return calculation.pei;
+	}
+
+	/**
+	 * Monthly, quarterly and yearly PEI summaries, including the table of strings written to the .csv files.
+	 *
+	 * @return PEIs, so the work is not optimised away.
+	 *
+	 * @throws Exception If the summaries fail.
+	 */
+	@Benchmark
+	public PEI createPEISummaries() throws Exception {
+		calculation.pei.createPEISummaries();
+		return calculation.pei;
+	}
+}
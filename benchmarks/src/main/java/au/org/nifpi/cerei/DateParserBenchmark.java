@@ -0,0 +1,90 @@
+package au.org.nifpi.cerei;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing the timestamps of the interval files - parseDateTime, used for the first line of each file and any line the hand
+ * written parser can't handle, and parseEpochMinute, used for every line.  A day of timestamps is parsed per operation.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateParserBenchmark {
+	/** Timestamp format - numeric formats use the hand written parser, 1-Jan-20 style dates always use the formatters */
+	@Param({ "d/MM/yyyy H:mm", "d-MMM-yy H:mm" })
+	public String format;
+
+	/** A day of 30 minute timestamps */
+	private String[] timestamps;
+	/** Parser locked in to the format */
+	private DateParser dateParser;
+
+	/**
+	 * Create the timestamps and lock the parser in to their format.
+	 *
+	 * @throws Exception If the format can't be parsed.
+	 */
+	@Setup
+	public void setUp() throws Exception {
+		DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format, Locale.ENGLISH);
+		timestamps = new String[48];
+		LocalDateTime dateTime = LocalDateTime.of(2020, 3, 17, 0, 30);
+		for (int i = 0; i < timestamps.length; i++, dateTime = dateTime.plusMinutes(30)) {
+			timestamps[i] = dateTime.format(formatter);
+		}
+		dateParser = new DateParser();
+		dateParser.parseEpochMinute(timestamps[0], 0, timestamps[0].length(), "Benchmark", 1);
+	}
+
+	/**
+	 * Parse the timestamps into LocalDateTimes.
+	 *
+	 * @return Sum of the minutes, so the work is not optimised away.
+	 *
+	 * @throws Exception If a timestamp can't be parsed.
+	 */
+	@Benchmark
+	public long parseDateTime() throws Exception {
+		long sum = 0;
+		for (int i = 0; i < timestamps.length; i++) {
+			sum += dateParser.parseDateTime(timestamps[i], "Benchmark", i).getMinute();
+		}
+		return sum;
+	}
+
+	/**
+	 * Parse the timestamps into minutes since 1 Jan 1970.
+	 *
+	 * @return Sum of the minutes, so the work is not optimised away.
+	 *
+	 * @throws Exception If a timestamp can't be parsed.
+	 */
+	@Benchmark
+	public long parseEpochMinute() throws Exception {
+		long sum = 0;
+		for (int i = 0; i < timestamps.length; i++) {
+			sum += dateParser.parseEpochMinute(timestamps[i], 0, timestamps[i].length(), "Benchmark", i);
+		}
+		return sum;
+	}
+}
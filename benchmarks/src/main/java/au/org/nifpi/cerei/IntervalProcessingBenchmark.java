@@ -0,0 +1,156 @@
+package au.org.nifpi.cerei;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading and processing a year of interval data.  processUsageAndPrice is the interval by interval accumulation of the costs
+ * and PEIs (what Cost.addCharges and PEI.addCharges used to do), calculate is a whole calculation with the interval data already
+ * loaded and the read benchmarks load the interval files with and without the .cerei cache.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntervalProcessingBenchmark {
+	/** Number of usage meters */
+	@Param({ "1", "10", "100" })
+	public int meters;
+
+	/** Length of each interval in minutes */
+	@Param({ "5", "30" })
+	public int intervalMinutes;
+
+	/** Input files */
+	private BenchmarkData data;
+	/** Calculation that has been run once, so its meter names, tariff and interval data are all set up */
+	private Calculation calculation;
+
+	/**
+	 * Write the input files and run the calculation once.
+	 *
+	 * @throws Exception If the calculation fails.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		data = new BenchmarkData(meters, intervalMinutes, 20200101L);
+		calculation = data.newCalculation();
+		calculation.calculate(BenchmarkData.NO_PROGRESS);
+	}
+
+	/**
+	 * Remove the input files.
+	 *
+	 * @throws Exception If the files cannot be deleted.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		data.delete();
+	}
+
+	/**
+	 * Makes each readFiles invocation parse the interval files rather than use the cache written by the last one.
+	 */
+	@State(Scope.Thread)
+	public static class NoCache {
+		/**
+		 * Delete the cache.
+		 *
+		 * @param benchmark Benchmark whose files are about to be read.
+		 */
+		@Setup(Level.Invocation)
+		public void deleteCache(IntervalProcessingBenchmark benchmark) {
+			benchmark.calculation.intervalData.cacheFile().delete();
+		}
+	}
+
+	/**
+	 * Accumulate every interval into fresh costs and PEIs.
+	 *
+	 * @return Costs, so the work is not optimised away.
+	 *
+	 * @throws Exception If the processing fails.
+	 */
+	@Benchmark
+	public Cost processUsageAndPrice() throws Exception {
+		Calculation c = calculation;
+		c.cost = new Cost(c.meterNames, c.getReportingYear());
+		c.cost.addMonthlyParameters(c.networkParameters);
+		c.pei = new PEI(c.usageMeterNames, c.getReportingYear());
+		c.pei.addMonthlyParameters(c.networkParameters);
+		c.processUsageAndPrice(c.networkParameters, BenchmarkData.NO_PROGRESS);
+		return c.cost;
+	}
+
+	/**
+	 * A whole calculation - tariff, meter names, processing, costs, PEIs and summaries - with the interval data already loaded.
+	 *
+	 * @return Calculation, so the work is not optimised away.
+	 *
+	 * @throws Exception If the calculation fails.
+	 */
+	@Benchmark
+	public Calculation calculate() throws Exception {
+		Calculation c = data.newCalculation();
+		c.setIntervalData(calculation.intervalData);
+		c.calculate(BenchmarkData.NO_PROGRESS);
+		return c;
+	}
+
+	/**
+	 * Parse the interval files, which also writes the cache.
+	 *
+	 * @param noCache Deletes the cache before each invocation.
+	 *
+	 * @return Interval data, so the work is not optimised away.
+	 *
+	 * @throws Exception If the files cannot be read.
+	 */
+	@Benchmark
+	public IntervalData readFiles(NoCache noCache) throws Exception {
+		return load();
+	}
+
+	/**
+	 * Load the interval data from the cache written by the first calculation.
+	 *
+	 * @return Interval data, so the work is not optimised away.
+	 *
+	 * @throws Exception If the files cannot be read.
+	 */
+	@Benchmark
+	public IntervalData readCache() throws Exception {
+		return load();
+	}
+
+	/**
+	 * Load the interval data the same way a calculation does.
+	 *
+	 * @return Interval data.
+	 *
+	 * @throws Exception If the files cannot be read.
+	 */
+	private IntervalData load() throws Exception {
+		IntervalData intervalData = new IntervalData(data.usageFile, data.priceFile, data.generatedFile, data.feedInFile,
+				calculation.usageMeterNames, calculation.generatedMeterNames);
+		intervalData.load(BenchmarkData.NO_PROGRESS);
+		return intervalData;
+	}
+}
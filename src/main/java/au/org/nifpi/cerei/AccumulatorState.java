@@ -0,0 +1,154 @@
+package au.org.nifpi.cerei;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Saves the running totals of a ChargeAccumulator, with a high-water mark saying how far through the interval data they go, so that
+ * the next calculation for the same site can carry on from there.  When a day or a week of meter data is added to the end of the
+ * interval files, only the new intervals need to be accumulated before the monthly costs and PEIs are calculated again.  As the
+ * running totals are CompensatedSums and are saved exactly, carrying on gives exactly the same results as starting from the first
+ * interval.
+ * <p>
+ * The state is saved next to the Energy Usage file (or the Energy Generated file if there is no usage) with ".cerei-state" added to
+ * the name.  As well as the running totals it holds:
+ * <ul>
+ * <li>a key describing everything else the totals depend on - the Network Tariff file, meters, years and distribution of generated
+ * energy.  A state saved with a different key is ignored.
+ * <li>the size and CRC-32 of each interval file, so the state is only used if the files have not changed other than having lines
+ * added to the end.
+ * <li>the number of intervals accumulated and the timestamp of the last one - the high-water mark.
+ * </ul>
+ * A state that is missing, out of date or can't be read is simply ignored and the totals are accumulated from the first interval.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class AccumulatorState {
+	/** Added to the name of the Energy Usage (or Energy Generated) file to give the name of the state file */
+	public static final String STATE_EXTENSION = ".cerei-state";
+	/** First four bytes of a state file - "CERS" */
+	private static final int STATE_MAGIC = 0x43455253;
+	/** Layout of the state file.  Change this whenever the layout, or what the totals mean, changes so old state files are ignored */
+	private static final int STATE_VERSION = 2;
+
+	/** Where the state is saved */
+	protected File stateFile;
+	/** Describes everything other than the interval data that the running totals depend on */
+	protected String key;
+
+	/**
+	 * Set up the state for one calculation.  Nothing is read until restore is called.
+	 *
+	 * @param stateFile Where the state is saved.
+	 * @param key Describes everything other than the interval data that the running totals depend on.
+	 */
+	public AccumulatorState(File stateFile, String key) {
+		this.stateFile = stateFile;
+		this.key = key;
+	}
+
+	/**
+	 * The state file for a set of interval files - the Energy Usage file, or the Energy Generated file if there is no usage, with
+	 * ".cerei-state" added to the name.
+	 *
+	 * @param data Interval data.
+	 *
+	 * @return State file, null if there are no interval files.
+	 */
+	public static File stateFile(IntervalData data) {
+		File anchor = data.usageFile != null ? data.usageFile : data.generatedFile;
+		return anchor == null ? null : new File(anchor.getPath() + STATE_EXTENSION);
+	}
+
+	/**
+	 * Restore the running totals saved for the same key, provided the interval data starts with the intervals they were
+	 * accumulated from.
+	 *
+	 * @param data Interval data that is about to be accumulated.
+	 * @param accumulator Accumulator that has not had any intervals added.  Only changed if the saved totals can be used.
+	 *
+	 * @return Number of intervals at the start of the data that are already in the running totals, 0 if there is no usable state.
+	 */
+	public int restore(IntervalData data, ChargeAccumulator accumulator) {
+		if (stateFile == null || !stateFile.isFile()) {
+			return 0;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(stateFile.toPath())));
+			if (in.readInt() != STATE_MAGIC || in.readInt() != STATE_VERSION) {
+				return 0;
+			}
+			int keyLength = in.readInt();
+			if (keyLength < 0 || keyLength > in.available()) {
+				return 0;
+			}
+			byte[] savedKey = new byte[keyLength];
+			in.readFully(savedKey);
+			if (!key.equals(new String(savedKey, StandardCharsets.UTF_8)) || !data.startsWith(in)) {
+				return 0;
+			}
+			// High-water mark
+			int intervals = in.readInt();
+			long lastEpochMinute = in.readLong();
+			if (intervals <= 0 || intervals > data.numberOfIntervals || data.epochMinutes[intervals - 1] != lastEpochMinute) {
+				return 0;
+			}
+			accumulator.readState(in);
+			return intervals;
+		} catch (IOException e) {
+			// A state that can't be read is the same as no state.
+			return 0;
+		}
+	}
+
+	/**
+	 * Save the running totals once all the intervals of the data have been added.  The file is written under a temporary name and
+	 * then renamed, so another calculation never sees a half written state.
+	 *
+	 * @param data Interval data that has been accumulated.
+	 * @param accumulator Accumulator that all the intervals of the data have been added to.
+	 */
+	public void save(IntervalData data, ChargeAccumulator accumulator) {
+		if (stateFile == null || data.numberOfIntervals == 0) {
+			return;
+		}
+		Path tempFile = null;
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(STATE_MAGIC);
+			out.writeInt(STATE_VERSION);
+			byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(keyBytes.length);
+			out.write(keyBytes);
+			data.writeSources(out);
+			out.writeInt(data.numberOfIntervals);
+			out.writeLong(data.epochMinutes[data.numberOfIntervals - 1]);
+			accumulator.writeState(out);
+			out.flush();
+
+			tempFile = Files.createTempFile(stateFile.getAbsoluteFile().getParentFile().toPath(), stateFile.getName(), ".tmp");
+			Files.write(tempFile, bytes.toByteArray());
+			Files.move(tempFile, stateFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			tempFile = null;
+		} catch (IOException e) {
+			// The state only saves time next time - carry on without it.
+		} finally {
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException e) {
+					// Nothing more can be done
+				}
+			}
+		}
+	}
+}
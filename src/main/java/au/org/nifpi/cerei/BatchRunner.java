@@ -0,0 +1,883 @@
+package au.org.nifpi.cerei;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.text.DecimalFormat;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs the calculations for many sites without a GUI, so that they can be run on a server.  All sites are processed in the one JVM
+ * and nothing from AWT or Swing is loaded.  The results are written to the same .csv files as the "Save" buttons on the GUI.
+ * <p>
+ * Each site is either a directory laid out like the sample case studies - "Input 1 - Network Tariff...", "Input 2 - Energy Usage..."
+ * through to "Input 7 - Lifecycle Costs..." - or a line in a manifest file.  A directory that does not contain any input files is
+ * searched for sub-directories that do, so pointing the batch runner at the sample_data directory runs every case study.
+ * <p>
+ * A manifest is a .csv file with one site per line:<br>
+ * site name, network tariff, energy usage, spot price, energy generated, feed-in tariff, business as usual, lifecycle costs<br>
+ * Unused files are left blank.  Relative file names are relative to the directory containing the manifest.  Blank lines and lines
+ * starting with # are ignored.
+ * <p>
+ * Each site's results are written to a directory named after the site, so no two sites in a batch can have the same name.
+ * <p>
+ * Sites are independent of each other, so they are calculated at the same time on a pool with one thread per processor (or as set
+ * by -threads).  A problem with one site is reported and does not stop the others.  Once all the sites are done, a portfolio summary
+ * with one line per site is written to the results directory.
+ * <p>
+ * Sites that use the same Energy Usage, Spot Price, Energy Generated and Feed-in Tariff files, e.g. a manifest pricing the same
+ * usage against several tariffs, share one copy of the interval data rather than each reading the files.
+ * <p>
+ * With -tariff each site is also priced against one or more other Network Tariff files, using the interval data already loaded for
+ * the site, and a tariff comparison is written to the site's results.
+ * <p>
+ * With -distribution every site that distributes generated energy across its meters uses the named DistributionStrategy instead of
+ * the one in its Network Tariff file, so a portfolio can be run under each strategy in turn.
+ * <p>
+ * With -incremental each site saves the running totals of its costs and PEIs next to its interval files, and the next run carries on
+ * from them, only accumulating the lines added to the end of the files since - see AccumulatorState.  Sites sharing interval files
+ * with other sites are always calculated in full, as each of them would have different totals.
+ * <p>
+ * When a site's interval data covers more than one calendar year the results are for the first year, or the year given by -year,
+ * and a Rolling 12 Month Energy Bill with the bill for every 12 months in a row is also written.  Savings are only worked out when
+ * the Business as Usual bill is for the year given by -year.  With -range an Energy Bill for a range of months, e.g.
+ * -range 2020-07:2021-06 for a financial year, is written for every site, cut down to the months the site has data for.
+ * <p>
+ * The length of the intervals (e.g. 5, 15 or 30 minutes) is found from the timestamps of each site's interval files, unless it is
+ * declared with -interval.
+ * <p>
+ * With -metrics the time, rows, bytes read and memory allocated by each stage of the calculations are printed for every site as it
+ * finishes, followed by the totals for all the sites - see StageMetrics.  The same totals are available over JMX while the batch
+ * runs - see CalculationMetricsMXBean.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class BatchRunner {
+
+	/** Number of input files that make up a site */
+	private static final int NUMBER_OF_INPUTS = 7;
+
+	/** Name of the portfolio summary file written to the results directory */
+	public static final String PORTFOLIO_SUMMARY_FILE = "Portfolio Summary.csv";
+
+	/** Where the results go.  Each site gets its own sub-directory */
+	private File outputDirectory;
+
+	/** Print each stage of the calculations as it starts */
+	private boolean verbose = false;
+
+	/** Print the time, rows, bytes read and memory allocated by each stage of every site */
+	private boolean metrics = false;
+
+	/** Maximum number of sites calculated at the same time */
+	private int threads;
+
+	/** Network Tariff files to compare against each site's own tariff - empty if there is no comparison */
+	private List<File> comparisonTariffs = new ArrayList<File>();
+
+	/** Name of the DistributionStrategy to use for every site - null to use each site's Network Tariff file */
+	private String distributionStrategyName = null;
+
+	/** Carry on from the running totals saved by the last run of each site */
+	private boolean incremental = false;
+
+	/** Year the results of every site are for - -1 for the first year of each site's data */
+	private int reportingYear = -1;
+
+	/** Length of the intervals of every site in minutes - 0 to find it from each site's timestamps */
+	private int intervalMinutes = 0;
+
+	/** First month of the Energy Bill for a range of months - null if there is no range */
+	private YearMonth rangeStart = null;
+
+	/** Last month of the Energy Bill for a range of months - null if there is no range */
+	private YearMonth rangeEnd = null;
+
+	/** Interval files used by more than one site - see intervalFilesKey */
+	private Set<String> sharedIntervalFiles = new HashSet<String>();
+
+	/** Interval data already loaded for the shared interval files.  The data is read-only once loaded so can be used by any thread */
+	private Map<String, IntervalData> intervalDataCache = new ConcurrentHashMap<String, IntervalData>();
+
+	/**
+	 * One set of input files to be processed.
+	 */
+	private static class Site {
+		/** Name of the site - used as the name of the output directory */
+		String name;
+		/** Where the site came from, e.g. its directory or the line of the manifest, for any error */
+		String source;
+		/** Input files in the order Network Tariff, Energy Usage, Spot Price, Energy Generated, Feed-in Tariff, Business as Usual,
+		 * Lifecycle Costs.  null if not used */
+		File[] inputs = new File[NUMBER_OF_INPUTS];
+	}
+
+	/**
+	 * Outcome of the calculations for one site - used for the portfolio summary.  Also receives the progress of the site's 
+	 * calculations, so each site running at the same time reports under its own name.
+	 */
+	private static class SiteResult implements CalculationProgress {
+		/** The site */
+		Site site;
+		/** Print each stage of the calculations as it starts */
+		boolean verbose;
+		/** true if the calculations were completed and all the result files written */
+		boolean succeeded = false;
+		/** Every problem reported for the site */
+		List<String> messages = new ArrayList<String>();
+		/** Year of the data, blank if unknown */
+		String year = "";
+		/** Name of the tariff, blank if unknown */
+		String tariffName = "";
+		/** Grand total of the Energy Bill for the year, NaN if not calculated */
+		double annualCost = Double.NaN;
+		/** Total saving over the Business as Usual bill for the year, NaN if not calculated */
+		double annualSaving = Double.NaN;
+		/** Net Present Value of the investment, NaN if not calculated */
+		double npv = Double.NaN;
+		/** Time taken to calculate the site and write its results */
+		long elapsed;
+
+		/**
+		 * Print the stage if running verbose.
+		 *
+		 * @param stageName Description of the stage, e.g. "Calculating costs".
+		 */
+		@Override
+		public void stageStarted(String stageName) {
+			if (verbose) {
+				System.out.println(site.name + ": " + stageName);
+			}
+		}
+
+		/**
+		 * Progress through the files is not reported in batch mode.
+		 *
+		 * @param rowsProcessed Number of lines processed so far.
+		 * @param bytesRead Number of bytes of the (first) file processed so far.
+		 * @param totalBytes Size of the (first) file.
+		 */
+		@Override
+		public void rowsProcessed(int rowsProcessed, long bytesRead, long totalBytes) {
+		}
+
+		/**
+		 * Batch calculations are never cancelled.
+		 *
+		 * @return false.
+		 */
+		@Override
+		public boolean isCancelRequested() {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes one of the result files.
+	 */
+	private interface ResultFile {
+		/**
+		 * Write the results.
+		 *
+		 * @param fw Where to write the results.
+		 *
+		 * @throws IOException If there is a problem writing the file.
+		 */
+		void write(BufferedWriter fw) throws IOException;
+	}
+
+	/**
+	 * Entry point for batch processing.
+	 *
+	 * @param args [-out results directory] [-threads number of threads] [-tariff network tariff file]... [-distribution strategy]
+	 * [-incremental] [-year yyyy] [-range yyyy-mm:yyyy-mm] [-interval minutes] [-metrics] [-verbose] followed by any number of case study
+	 * directories or manifest files.
+	 */
+	public static void main(String[] args) {
+		// Make sure nothing tries to open a window.
+		System.setProperty("java.awt.headless", "true");
+
+		File outputDirectory = new File("CEREI Results");
+		boolean verbose = false;
+		boolean metrics = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<String> sources = new ArrayList<String>();
+		List<File> comparisonTariffs = new ArrayList<File>();
+		String distributionStrategyName = null;
+		boolean incremental = false;
+		int reportingYear = -1;
+		int intervalMinutes = 0;
+		YearMonth rangeStart = null, rangeEnd = null;
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-out") && i + 1 < args.length) {
+				outputDirectory = new File(args[++i]);
+			} else if (args[i].equals("-threads") && i + 1 < args.length) {
+				try {
+					threads = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					threads = 0;
+				}
+				if (threads < 1) {
+					usage();
+					System.exit(2);
+				}
+			} else if (args[i].equals("-tariff") && i + 1 < args.length) {
+				File tariffFile = new File(args[++i]);
+				if (!tariffFile.isFile()) {
+					System.err.println("Cannot find Network Tariff file " + tariffFile);
+					System.exit(2);
+				}
+				comparisonTariffs.add(tariffFile);
+			} else if (args[i].equals("-distribution") && i + 1 < args.length) {
+				try {
+					distributionStrategyName = DistributionStrategy.forName(args[++i]).getName();
+				} catch (Exception e) {
+					System.err.println(e.getMessage());
+					System.exit(2);
+				}
+			} else if (args[i].equals("-incremental")) {
+				incremental = true;
+			} else if (args[i].equals("-year") && i + 1 < args.length) {
+				try {
+					reportingYear = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					usage();
+					System.exit(2);
+				}
+			} else if (args[i].equals("-interval") && i + 1 < args.length) {
+				try {
+					intervalMinutes = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					intervalMinutes = 0;
+				}
+				if (!CompiledTariff.isSupportedInterval(intervalMinutes)) {
+					System.err.println("Invalid interval " + args[i] + " - must be a number of minutes that divides into an hour");
+					System.exit(2);
+				}
+			} else if (args[i].equals("-range") && i + 1 < args.length) {
+				String[] range = args[++i].split(":");
+				try {
+					rangeStart = YearMonth.parse(range[0].trim());
+					rangeEnd = YearMonth.parse(range[range.length - 1].trim());
+				} catch (DateTimeParseException e) {
+					System.err.println("Invalid range " + args[i] + " - expected yyyy-mm:yyyy-mm");
+					System.exit(2);
+				}
+				if (range.length != 2 || rangeEnd.isBefore(rangeStart)) {
+					System.err.println("Invalid range " + args[i] + " - expected yyyy-mm:yyyy-mm");
+					System.exit(2);
+				}
+			} else if (args[i].equals("-metrics")) {
+				metrics = true;
+			} else if (args[i].equals("-verbose")) {
+				verbose = true;
+			} else if (args[i].startsWith("-")) {
+				usage();
+				System.exit(2);
+			} else {
+				sources.add(args[i]);
+			}
+		}
+		if (sources.isEmpty()) {
+			usage();
+			System.exit(2);
+		}
+
+		// Find all the sites before starting so that a bad manifest is reported straight away.
+		List<Site> sites = new ArrayList<Site>();
+		try {
+			for (String source : sources) {
+				sites.addAll(findSites(new File(source)));
+			}
+			checkUniqueNames(sites);
+		} catch (Exception e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+		}
+
+		BatchRunner runner = new BatchRunner(outputDirectory, verbose, threads);
+		runner.setComparisonTariffs(comparisonTariffs);
+		runner.setDistributionStrategyName(distributionStrategyName);
+		runner.setIncremental(incremental);
+		runner.setReportingYear(reportingYear);
+		runner.setRange(rangeStart, rangeEnd);
+		runner.setIntervalMinutes(intervalMinutes);
+		runner.setMetrics(metrics);
+		long start = System.nanoTime();
+		List<SiteResult> results = runner.runAll(sites);
+		long elapsed = (System.nanoTime() - start) / 1000000;
+
+		int failures = 0;
+		for (SiteResult result : results) {
+			if (!result.succeeded) {
+				failures++;
+			}
+		}
+		boolean summaryWritten = runner.writePortfolioSummary(results);
+
+		if (metrics) {
+			System.out.print(StageMetrics.summary("All sites", CalculationMetrics.getInstance().getStageTotals()));
+		}
+
+		System.out.println("Processed " + sites.size() + " sites in " + elapsed + " ms on " + threads + " threads: "
+				+ (sites.size() - failures) + " succeeded, " + failures + " failed");
+		System.exit(failures == 0 && summaryWritten ? 0 : 1);
+	}
+
+	/**
+	 * Explain how to use the batch runner.
+	 */
+	private static void usage() {
+		System.err.println("Usage: BatchRunner [-out <results directory>] [-threads <n>] [-tariff <network tariff.csv>]... [-distribution Greedy|ProRata|HighestTariff] [-incremental] [-year <yyyy>] [-range <yyyy-mm:yyyy-mm>] [-interval 5|15|30] [-metrics] [-verbose] <case study directory | manifest.csv> ...");
+	}
+
+	/**
+	 * Set up the batch runner.
+	 *
+	 * @param outputDirectory Where the results go.  Each site gets its own sub-directory.
+	 * @param verbose Print each stage of the calculations as it starts.
+	 * @param threads Maximum number of sites calculated at the same time.
+	 */
+	public BatchRunner(File outputDirectory, boolean verbose, int threads) {
+		this.outputDirectory = outputDirectory;
+		this.verbose = verbose;
+		this.threads = threads;
+	}
+
+	/**
+	 * Price every site against other tariffs as well as its own.
+	 *
+	 * @param comparisonTariffs Network Tariff files to compare against each site's own tariff.  Empty for no comparison.
+	 */
+	public void setComparisonTariffs(List<File> comparisonTariffs) {
+		this.comparisonTariffs = comparisonTariffs;
+	}
+
+	/**
+	 * Share generated energy across the distribution meters of every site with the same strategy.
+	 *
+	 * @param distributionStrategyName Name of a DistributionStrategy, null to use each site's Network Tariff file.
+	 */
+	public void setDistributionStrategyName(String distributionStrategyName) {
+		this.distributionStrategyName = distributionStrategyName;
+	}
+
+	/**
+	 * Choose whether each site carries on from the running totals saved by its last run.
+	 *
+	 * @param incremental true to save and carry on from the running totals, false to always calculate every interval.
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Choose the year the results of every site are for when the interval data covers more than one calendar year.
+	 *
+	 * @param reportingYear Calendar year, -1 for the first year of each site's data.
+	 */
+	public void setReportingYear(int reportingYear) {
+		this.reportingYear = reportingYear;
+	}
+
+	/**
+	 * Declare the length of the intervals of every site rather than finding it from the timestamps.
+	 *
+	 * @param intervalMinutes Length of the intervals in minutes, 0 to find it from each site's timestamps.
+	 */
+	public void setIntervalMinutes(int intervalMinutes) {
+		this.intervalMinutes = intervalMinutes;
+	}
+
+	/**
+	 * Choose whether the time, rows, bytes read and memory allocated by each stage are printed for every site.
+	 *
+	 * @param metrics true to print each site's stages as it finishes.
+	 */
+	public void setMetrics(boolean metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Write an Energy Bill for a range of months for every site.
+	 *
+	 * @param rangeStart First month of the range, null for no range.
+	 * @param rangeEnd Last month of the range, null for no range.
+	 */
+	public void setRange(YearMonth rangeStart, YearMonth rangeEnd) {
+		this.rangeStart = rangeStart;
+		this.rangeEnd = rangeEnd;
+	}
+
+	/**
+	 * Calculate all the sites, several at a time.  Each site has its own Calculation, so nothing is shared between the threads
+	 * apart from the results directory and the (read-only) interval data of sites using the same interval files.
+	 *
+	 * @param sites Sites to calculate.
+	 *
+	 * @return Outcome for each site, in the same order as the sites.
+	 */
+	private List<SiteResult> runAll(List<Site> sites) {
+		// Only keep interval data that will be used again, so a large batch doesn't hold every site in memory.
+		Map<String, Integer> intervalFilesCount = new HashMap<String, Integer>();
+		for (Site site : sites) {
+			String key = intervalFilesKey(site);
+			if (intervalFilesCount.merge(key, 1, Integer::sum) > 1) {
+				sharedIntervalFiles.add(key);
+			}
+		}
+
+		List<SiteResult> results = new ArrayList<SiteResult>();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			List<ForkJoinTask<SiteResult>> tasks = new ArrayList<ForkJoinTask<SiteResult>>();
+			for (Site site : sites) {
+				tasks.add(pool.submit(() -> run(site)));
+			}
+			for (ForkJoinTask<SiteResult> task : tasks) {
+				results.add(task.join());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		return results;
+	}
+
+	/**
+	 * Identify the interval files used by a site.
+	 *
+	 * @param site Input files for the site.
+	 *
+	 * @return The Energy Usage, Spot Price, Energy Generated and Feed-in Tariff file names.
+	 */
+	private static String intervalFilesKey(Site site) {
+		StringBuilder key = new StringBuilder();
+		for (int i = 1; i <= 4; i++) {
+			key.append(site.inputs[i] == null ? "" : site.inputs[i].getAbsolutePath()).append('\n');
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Find all the sites in a case study directory, a directory of case study directories or a manifest.
+	 *
+	 * @param source Directory or manifest file.
+	 *
+	 * @throws Exception If the source does not exist, contains no sites or the manifest cannot be read.
+	 *
+	 * @return Sites found.
+	 */
+	private static List<Site> findSites(File source) throws Exception {
+		List<Site> sites = new ArrayList<Site>();
+
+		if (source.isFile()) {
+			sites.addAll(readManifest(source));
+		} else if (source.isDirectory()) {
+			Site site = siteFromDirectory(source);
+			if (site != null) {
+				sites.add(site);
+			} else {
+				// Not a case study itself - try the sub-directories.
+				File[] subDirectories = source.listFiles(File::isDirectory);
+				Arrays.sort(subDirectories);
+				for (File subDirectory : subDirectories) {
+					site = siteFromDirectory(subDirectory);
+					if (site != null) {
+						sites.add(site);
+					}
+				}
+			}
+		} else {
+			throw new Exception(source + " does not exist");
+		}
+
+		if (sites.isEmpty()) {
+			throw new Exception("No input files found in " + source);
+		}
+		return sites;
+	}
+
+	/**
+	 * Make sure no two sites have the same name.  Each site's results are written to a directory named after it, so two sites with
+	 * the same name would write over each other's results.  Names are compared ignoring case, as they are on Windows.
+	 *
+	 * @param sites Every site in the batch.
+	 *
+	 * @throws Exception If two sites have the same name.
+	 */
+	private static void checkUniqueNames(List<Site> sites) throws Exception {
+		Map<String, Site> names = new HashMap<String, Site>();
+		for (Site site : sites) {
+			Site other = names.putIfAbsent(site.name.toLowerCase(Locale.ENGLISH), site);
+			if (other != null) {
+				throw new Exception("Site name " + site.name + " is used by both " + other.source + " and " + site.source
+						+ " - each site needs a different name as its results are written to a directory of that name");
+			}
+		}
+	}
+
+	/**
+	 * Pick out the input files in a case study directory by their "Input N" prefix.
+	 *
+	 * @param directory Case study directory.
+	 *
+	 * @throws Exception If there is more than one file for the same input.
+	 *
+	 * @return The site, null if there are no input files in the directory.
+	 */
+	private static Site siteFromDirectory(File directory) throws Exception {
+		Site site = new Site();
+		boolean found = false;
+
+		File[] files = directory.listFiles(File::isFile);
+		Arrays.sort(files);
+		for (File file : files) {
+			String name = file.getName().toLowerCase(Locale.ENGLISH);
+			if (!name.endsWith(".csv")) {
+				continue;
+			}
+			for (int i = 0; i < NUMBER_OF_INPUTS; i++) {
+				if (name.startsWith("input " + (i + 1) + " ")) {
+					if (site.inputs[i] != null) {
+						throw new Exception("More than one Input " + (i + 1) + " file in " + directory);
+					}
+					site.inputs[i] = file;
+					found = true;
+				}
+			}
+		}
+		if (!found) {
+			return null;
+		}
+		site.name = directory.getName();
+		site.source = directory.toString();
+		return site;
+	}
+
+	/**
+	 * Read the sites from a manifest file.
+	 *
+	 * @param manifest Manifest file - one site per line.
+	 *
+	 * @throws Exception If the manifest cannot be read, a line has too many entries or a named file does not exist.
+	 *
+	 * @return Sites in the manifest.
+	 */
+	private static List<Site> readManifest(File manifest) throws Exception {
+		List<Site> sites = new ArrayList<Site>();
+		File baseDirectory = manifest.getAbsoluteFile().getParentFile();
+		String lineFromFile;
+		int lineNumber = 0;
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifest)), 16384)) {
+			while ((lineFromFile = reader.readLine()) != null) {
+				lineNumber++;
+				if (lineFromFile.isBlank() || lineFromFile.trim().startsWith("#")) {
+					continue;
+				}
+				String st[] = lineFromFile.split(",");
+				if (st.length > NUMBER_OF_INPUTS + 1) {
+					throw new Exception("Extra Data on line " + lineNumber + " of " + manifest.getName());
+				}
+				Site site = new Site();
+				site.name = st[0].trim();
+				if (site.name.isEmpty()) {
+					throw new Exception("Missing site name on line " + lineNumber + " of " + manifest.getName());
+				}
+				site.source = "line " + lineNumber + " of " + manifest.getName();
+				for (int i = 1; i < st.length; i++) {
+					String fileName = st[i].trim();
+					if (fileName.isEmpty()) {
+						continue;
+					}
+					File file = new File(fileName);
+					if (!file.isAbsolute()) {
+						file = new File(baseDirectory, fileName);
+					}
+					if (!file.isFile()) {
+						throw new Exception(fileName + " on line " + lineNumber + " of " + manifest.getName() + " does not exist");
+					}
+					site.inputs[i - 1] = file;
+				}
+				sites.add(site);
+			}
+		}
+		return sites;
+	}
+
+	/**
+	 * Do the calculations for one site and write the results.  Any problem is reported and the site is skipped so that one bad
+	 * site does not stop the rest of the batch.
+	 *
+	 * @param site Input files for the site.
+	 *
+	 * @return Outcome for the site.  Succeeded if the calculations were completed and the results written, even if there were 
+	 * errors in the Savings or Lifecycle calculations.
+	 */
+	private SiteResult run(Site site) {
+		SiteResult result = new SiteResult();
+		result.site = site;
+		result.verbose = verbose;
+		StageMetrics stageMetrics = new StageMetrics(result);
+		long start = System.nanoTime();
+		try {
+			result.succeeded = calculate(site, result, stageMetrics);
+		} catch (Exception e) {
+			// Anything unexpected stays with this site.
+			report(result, "Error", String.valueOf(e));
+		} finally {
+			stageMetrics.finish();
+		}
+		result.elapsed = (System.nanoTime() - start) / 1000000;
+		if (metrics) {
+			// Printed in one go so the tables of sites finishing at the same time don't get mixed up.
+			System.out.print(stageMetrics.summary(site.name + ": " + result.elapsed + " ms"));
+		}
+		return result;
+	}
+
+	/**
+	 * Do the calculations for one site and write the results.
+	 *
+	 * @param site Input files for the site.
+	 * @param result Outcome for the site - filled in as the calculations progress.
+	 * @param stageMetrics Times the stages of the calculations and the writing of the results, passing the progress on to result.
+	 *
+	 * @return true if the calculations were completed and the results written, even if there were errors in the Savings or 
+	 * Lifecycle calculations.
+	 */
+	private boolean calculate(Site site, SiteResult result, StageMetrics stageMetrics) {
+		Calculation calculation = new Calculation(site.inputs[0], site.inputs[1], site.inputs[2], site.inputs[3], site.inputs[4],
+				site.inputs[5], site.inputs[6]);
+		calculation.setDistributionStrategyName(distributionStrategyName);
+
+		String inputError = calculation.checkInputFiles();
+		if (inputError != null) {
+			report(result, "Error", inputError.trim());
+			return false;
+		}
+
+		String intervalFiles = intervalFilesKey(site);
+		boolean shared = sharedIntervalFiles.contains(intervalFiles);
+		if (shared) {
+			calculation.setIntervalData(intervalDataCache.get(intervalFiles));
+		}
+		calculation.setIncremental(incremental && !shared);
+		calculation.setReportingYear(reportingYear);
+		calculation.setIntervalMinutes(intervalMinutes);
+
+		try {
+			calculation.calculate(stageMetrics);
+		} catch (Exception e) {
+			report(result, calculation.errorTitle == null ? "Error" : calculation.errorTitle, e.getMessage());
+			return false;
+		} finally {
+			if (shared && calculation.intervalData != null) {
+				intervalDataCache.putIfAbsent(intervalFiles, calculation.intervalData);
+			}
+		}
+
+		if (calculation.missingLinesWarning != null) {
+			report(result, "Possible missing lines in input files", calculation.missingLinesWarning.trim());
+		}
+
+		File siteDirectory = new File(outputDirectory, site.name);
+		if (!siteDirectory.isDirectory() && !siteDirectory.mkdirs()) {
+			report(result, "Error", "Unable to create " + siteDirectory);
+			return false;
+		}
+
+		stageMetrics.stageStarted("Writing results");
+		boolean written = true;
+		Cost cost = calculation.cost;
+		PEI pei = calculation.pei;
+		BusinessAsUsual bau = calculation.bau;
+		LifecycleCostAnalysis lifecycle = calculation.lifecycle;
+		NetworkParameter networkParameters = calculation.networkParameters;
+
+		if (networkParameters != null) {
+			result.tariffName = networkParameters.tariffName;
+		}
+		if (cost != null) {
+			result.year = Integer.toString(cost.costsPerMonth[0][0].year);
+			// Last summary is the grand total
+			MeterSummary total = cost.allMeterCostSummaries.get(cost.allMeterCostSummaries.size() - 1);
+			if (total != null) {
+				result.annualCost = total.yearly;
+			}
+			written &= write(result, siteDirectory, ResultWriter.costSummaryFileName(cost, networkParameters),
+					fw -> ResultWriter.writeCostSummary(fw, cost, networkParameters));
+			written &= write(result, siteDirectory, ResultWriter.costDetailsFileName(cost, networkParameters),
+					fw -> ResultWriter.writeCostDetails(fw, cost, networkParameters));
+			if (cost.getNumberOfPeriods() > 12) {
+				written &= write(result, siteDirectory, ResultWriter.rollingCostsFileName(networkParameters),
+						fw -> ResultWriter.writeRollingCosts(fw, cost, networkParameters));
+			}
+			if (rangeStart != null) {
+				// Only the months of the range with data are written.  A range without any data is skipped, and the site's other
+				// results are still written.
+				int firstPeriod = Math.max(cost.getPeriod(rangeStart), cost.firstDataPeriod);
+				int lastPeriod = Math.min(cost.getPeriod(rangeEnd), cost.lastDataPeriod);
+				if (firstPeriod > lastPeriod) {
+					report(result, "Warning", "There is no interval data for " + rangeStart + " to " + rangeEnd
+							+ " so the Energy Bill for the range was not written");
+				} else {
+					if (firstPeriod != cost.getPeriod(rangeStart) || lastPeriod != cost.getPeriod(rangeEnd)) {
+						report(result, "Warning", "There is only interval data for " + cost.getPeriodName(firstPeriod) + " to "
+								+ cost.getPeriodName(lastPeriod) + " of " + rangeStart + " to " + rangeEnd);
+					}
+					written &= write(result, siteDirectory,
+							ResultWriter.rangeCostsFileName(cost, networkParameters, firstPeriod, lastPeriod),
+							fw -> ResultWriter.writeRangeCosts(fw, cost, networkParameters, firstPeriod, lastPeriod));
+				}
+			}
+		}
+		if (pei != null) {
+			written &= write(result, siteDirectory, ResultWriter.peiSummaryFileName(cost, networkParameters),
+					fw -> ResultWriter.writePeiSummary(fw, cost, pei, networkParameters));
+		}
+		if (calculation.bauFile != null) {
+			if (calculation.bauErrorMessage != null) {
+				report(result, "Error while creating Cost Savings", calculation.bauErrorMessage);
+			} else {
+				result.year = Integer.toString(bau.year);
+				result.annualSaving = bau.totalsavingsMeter.yearly;
+				written &= write(result, siteDirectory, ResultWriter.savingsSummaryFileName(bau, networkParameters),
+						fw -> ResultWriter.writeSavingsSummary(fw, cost, bau, networkParameters));
+			}
+		}
+		if (calculation.lifecycleFile != null) {
+			if (calculation.lifecycleErrorMessage != null) {
+				report(result, "Error while Calculating Lifecycle Costs", calculation.lifecycleErrorMessage);
+			} else {
+				result.npv = lifecycle.npvCost + lifecycle.npvRevenue;
+				String name = ResultWriter.lifecycleName(lifecycle, networkParameters, bau, cost);
+				written &= write(result, siteDirectory, name + " summary.csv",
+						fw -> ResultWriter.writeLifecycleSummary(fw, lifecycle, name));
+				written &= write(result, siteDirectory, name + " details.csv",
+						fw -> ResultWriter.writeLifecycleDetails(fw, lifecycle, name));
+			}
+		}
+		if (cost != null && !comparisonTariffs.isEmpty()) {
+			TariffComparison comparison = new TariffComparison(calculation, comparisonTariffs);
+			try {
+				comparison.compare(stageMetrics);
+				stageMetrics.stageStarted("Writing results");
+				written &= write(result, siteDirectory, ResultWriter.tariffComparisonFileName(comparison),
+						fw -> ResultWriter.writeTariffComparison(fw, comparison));
+				// A tariff that doesn't suit the site is listed in the comparison, and doesn't fail the site.
+				for (Map.Entry<String, String> failure : comparison.failures.entrySet()) {
+					report(result, "Tariff " + failure.getKey() + " not compared", failure.getValue());
+				}
+			} catch (Exception e) {
+				report(result, "Error while comparing tariffs", e.getMessage());
+				written = false;
+			}
+		}
+		return written;
+	}
+
+	/**
+	 * Write one of the result files, reporting any problem.
+	 *
+	 * @param result Outcome for the site - receives any problem.
+	 * @param siteDirectory Directory for this site's results.
+	 * @param fileName Name of the result file.
+	 * @param resultFile Writes the results.
+	 *
+	 * @return true if the file was written.
+	 */
+	private boolean write(SiteResult result, File siteDirectory, String fileName, ResultFile resultFile) {
+		try (BufferedWriter fw = new BufferedWriter(new FileWriter(new File(siteDirectory, fileName)))) {
+			resultFile.write(fw);
+			return true;
+		} catch (Exception e) {
+			report(result, "Error saving " + fileName, String.valueOf(e.getMessage()));
+			return false;
+		}
+	}
+
+	/**
+	 * Report a problem with a site.  The problem is printed straight away and kept for the portfolio summary.
+	 *
+	 * @param result Outcome for the site.
+	 * @param title What went wrong.
+	 * @param message Details.
+	 */
+	private void report(SiteResult result, String title, String message) {
+		result.messages.add(title + ": " + message);
+		System.err.println(result.site.name + ": " + title + ": " + message);
+	}
+
+	/**
+	 * Write the portfolio summary - one line per site with the outcome and the headline figures, followed by the totals across
+	 * all the sites.
+	 *
+	 * @param results Outcome for each site.
+	 *
+	 * @return true if the summary was written.
+	 */
+	private boolean writePortfolioSummary(List<SiteResult> results) {
+		DecimalFormat df2 = new DecimalFormat("0.00");
+		double totalCost = 0, totalSaving = 0, totalNpv = 0;
+
+		if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+			System.err.println("Unable to create " + outputDirectory);
+			return false;
+		}
+		File summaryFile = new File(outputDirectory, PORTFOLIO_SUMMARY_FILE);
+		try (BufferedWriter fw = new BufferedWriter(new FileWriter(summaryFile))) {
+			fw.write("Portfolio Summary for " + results.size() + " sites");
+			fw.newLine();
+			fw.newLine();
+			fw.write("Site,Status,Year,Tariff,Energy Bill ($),Potential Saving ($),Net Present Value (NPV) ($),Time (ms),Messages");
+			fw.newLine();
+			for (SiteResult result : results) {
+				// Remove any extraneous ","'s
+				fw.write(result.site.name.replaceAll(",", "") + ",");
+				fw.write((result.succeeded ? "OK" : "Failed") + ",");
+				fw.write(result.year + ",");
+				fw.write(result.tariffName.replaceAll(",", "") + ",");
+				fw.write((Double.isNaN(result.annualCost) ? "" : df2.format(result.annualCost)) + ",");
+				fw.write((Double.isNaN(result.annualSaving) ? "" : df2.format(result.annualSaving)) + ",");
+				fw.write((Double.isNaN(result.npv) ? "" : df2.format(result.npv)) + ",");
+				fw.write(result.elapsed + ",");
+				fw.write(String.join(" / ", result.messages).replaceAll("[,\\r\\n\\t]+", " "));
+				fw.newLine();
+
+				if (!Double.isNaN(result.annualCost)) {
+					totalCost += result.annualCost;
+				}
+				if (!Double.isNaN(result.annualSaving)) {
+					totalSaving += result.annualSaving;
+				}
+				if (!Double.isNaN(result.npv)) {
+					totalNpv += result.npv;
+				}
+			}
+			fw.write("Portfolio Total,,,," + df2.format(totalCost) + "," + df2.format(totalSaving) + "," + df2.format(totalNpv) + ",,");
+			fw.newLine();
+		} catch (Exception e) {
+			System.err.println("Error saving " + summaryFile + ": " + e.getMessage());
+			return false;
+		}
+		return true;
+	}
+}
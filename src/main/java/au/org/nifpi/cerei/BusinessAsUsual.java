@@ -1,8 +1,10 @@
 package au.org.nifpi.cerei;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
+import java.io.LineNumberReader;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -16,7 +18,7 @@ import java.util.List;
 public class BusinessAsUsual {
 
 	/** Generates a String with two decimal places and commas. Minimum of one whole number and two decimal places. */
-	private static final DecimalFormat df = new DecimalFormat("#,##0.00");
+	private final DecimalFormat df = new DecimalFormat("#,##0.00");
 
 	/** Months of the year for output of summary information. */
 	public static final String[] MONTH_NAMES = { "January", "February", "March", "April", "May", "June", "July",
@@ -48,10 +50,25 @@ public class BusinessAsUsual {
 	 * @throws Exception If there is a problem opening or reading the file.
 	 */
 	public BusinessAsUsual(InputFile bauFile) throws Exception {
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(bauFile.inputFile)),
+		this(bauFile.inputFile);
+	}
+
+	/**
+	 * Loads the business as usual costs from the "Business as Usual" bill.  Used when there is no GUI.
+	 * 
+	 * @param bauFile "Business as Usual" file to read.
+	 * 
+	 * @throws Exception If there is a problem opening or reading the file.
+	 */
+	public BusinessAsUsual(File bauFile) throws Exception {
+		InputFileReadEvent event = new InputFileReadEvent("Business as Usual", bauFile);
+		event.begin();
+		try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(new FileInputStream(bauFile)),
 				16384)) {
-			loadbau(reader, bauFile.inputFile.getName());
+			loadbau(reader, bauFile.getName());
+			event.rows = reader.getLineNumber();
 		}
+		event.commit();
 	}
 
 	/**
@@ -254,6 +271,19 @@ public class BusinessAsUsual {
 	 * @return Table model containing Potential savings
 	 */
 	public CEREITableModel createSavingCostTableModel(Cost cost) {
+		calculateSavings(cost);
+
+		return (createSummaryTableModel(allbauSavings));
+
+	}
+
+	/**
+	 * Work out the savings meter by meter - the difference between the business as usual costs and the calculated costs - 
+	 * plus the total saving, without creating a table model.  The cost summaries must already have been created.
+	 * 
+	 * @param cost Costs All the cost information from meters and generators. 
+	 */
+	public void calculateSavings(Cost cost) {
 		List<MeterSummary> bauMeterSummaryList = new ArrayList<MeterSummary>();
 		MeterSummary[] savings;
 		if (cost == null) {
@@ -317,9 +347,6 @@ public class BusinessAsUsual {
 
 		// Add the total cost Meter to the end of the bauSavings.
 		allbauSavings.add(totalsavingsMeter);
-
-		return (createSummaryTableModel(allbauSavings));
-
 	}
 
 	/**
@@ -0,0 +1,860 @@
+package au.org.nifpi.cerei;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A single set of calculations - costs, price efficiency indexes, savings and return on investment - for one set of input files.
+ * Does not use any GUI components so that it can be used both behind the GUI and by the batch runner on a server.
+ * 
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class Calculation {
+
+	/** Input files - null if not used */
+	protected File networkParameterFile, usageFile, priceFile, generatedFile, feedInFile, bauFile, lifecycleFile;
+
+	/**
+	 * General Parameters - Holds all parameters gathered from Input files, except
+	 * interval spot prices and usages
+	 */
+	protected NetworkParameter networkParameters = null;
+
+	/** Cost information for all meters and all months. */
+	protected Cost cost = null;
+
+	/** PEI information for all meters and all months. */
+	protected PEI pei = null;
+
+	/** Savings information for all meters and all months */
+	protected BusinessAsUsual bau = null;
+
+	/** Lifecycle Cost Analysis information for all meters and all months */
+	protected LifecycleCostAnalysis lifecycle = null;
+
+	/**
+	 * The year for which the data is valid - obtained from the first date in the
+	 * usage file.
+	 */
+	private int year = -1;
+
+	/**
+	 * The year the results are reported for when the data covers more than one year - -1 for the year of the first date in the
+	 * usage file.
+	 */
+	protected int reportingYear = -1;
+
+	/** Length of each interval of the usage and generation data in minutes - 0 to find it from the timestamps */
+	protected int intervalMinutes = 0;
+
+	/**
+	 * The list of meterNames in the order they appear in the usage file followed by
+	 * unknown meters in the generated file (in that order)
+	 */
+	List<String> meterNames = null;
+	
+	/** The list of meterNames in the order they appear in the usage file. */
+	List<String> usageMeterNames = null;
+
+	/** The list of meterNames in the order they appear in the generated file. */
+	List<String> generatedMeterNames = null;
+
+	/** Maps the generated energy meter index to the usage meter index */
+	private HashMap<Integer, Integer> generatedMeterMap = null;
+	/** Energy Used input file, opened once for the meter names, the year and the intervals - null when not open */
+	private IntervalFileHandle usageHandle = null;
+	/** Energy Generated input file, opened once for the meter names, the year and the intervals - null when not open */
+	private IntervalFileHandle generatedHandle = null;
+
+	/** Parse the many and varied date time formats */
+	private DateParser dateParser = new DateParser();
+
+	/** Describes the stage that failed if the calculations fail - null if they did not fail */
+	protected String errorTitle = null;
+	/** Error from the Savings calculations - null if there was no error */
+	protected String bauErrorMessage = null;
+	/** Error from the Lifecycle Cost Analysis - null if there was no error */
+	protected String lifecycleErrorMessage = null;
+	/** Warning that the interval files did not all end on the same line - null if they did */
+	protected String missingLinesWarning = null;
+	/** Time, rows, bytes read and memory allocated by each stage of the last calculation - null until calculate is called */
+	protected StageMetrics stageMetrics = null;
+
+	/** Energy usage and generation data from the interval files - loaded during the calculations unless already supplied */
+	protected IntervalData intervalData = null;
+
+	/** Name of the DistributionStrategy to use instead of the one in the Network Tariff file - null to use the file's */
+	protected String distributionStrategyName = null;
+	/** Shares generated energy across the distribution meters - null if generated energy is not being distributed */
+	private DistributionStrategy distributionStrategy = null;
+
+	/** true to carry on from the running totals saved by the last calculation of the same interval files - see AccumulatorState */
+	protected boolean incremental = false;
+
+	/**
+	 * Set up the calculations for one set of input files.  Nothing is read until calculate is called.
+	 * 
+	 * @param networkParameterFile Network Tariff
+	 * @param usageFile Energy Usage
+	 * @param priceFile AEMO Spot Price
+	 * @param generatedFile Energy Generated
+	 * @param feedInFile Feed-In Tariff
+	 * @param bauFile Business as Usual
+	 * @param lifecycleFile Lifecycle Cost Parameters
+	 */
+	public Calculation(File networkParameterFile, File usageFile, File priceFile, File generatedFile, File feedInFile,
+			File bauFile, File lifecycleFile) {
+		this.networkParameterFile = networkParameterFile;
+		this.usageFile = usageFile;
+		this.priceFile = priceFile;
+		this.generatedFile = generatedFile;
+		this.feedInFile = feedInFile;
+		this.bauFile = bauFile;
+		this.lifecycleFile = lifecycleFile;
+	}
+
+	/**
+	 * Supply interval data loaded by an earlier calculation so the same files don't need to be read again, e.g. when the same
+	 * usage is calculated against a different tariff.  The data is only used if it came from the same files and they have not
+	 * changed since, otherwise the files are read as usual.
+	 * 
+	 * @param intervalData Previously loaded interval data, null to always read the files.
+	 */
+	public void setIntervalData(IntervalData intervalData) {
+		this.intervalData = intervalData;
+	}
+
+	/**
+	 * Choose how generated energy is shared across the distribution meters, overriding the "Distribution" line of the Network
+	 * Tariff file.  Only used if the Network Tariff file distributes generated energy.
+	 * 
+	 * @param distributionStrategyName Name of a DistributionStrategy, null to use the Network Tariff file's.
+	 */
+	public void setDistributionStrategyName(String distributionStrategyName) {
+		this.distributionStrategyName = distributionStrategyName;
+	}
+
+	/**
+	 * Choose whether to carry on from the running totals saved by the last calculation of the same interval files, so that only lines
+	 * added to the end of the files since then are accumulated.  The running totals are saved at the end of each incremental
+	 * calculation.  Only used if the Network Tariff file, meters and distribution of generated energy are the same as last time.
+	 * 
+	 * @param incremental true to save and carry on from the running totals, false to always accumulate every interval.
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Choose the year the monthly results, summaries and savings are for when the usage and generation data covers more than one
+	 * calendar year.  The costs of every month of every year are still worked out, see Cost.costsPerPeriod.  Savings are only
+	 * calculated if the Business as Usual bill is for the same year - otherwise bauErrorMessage says why not.
+	 * 
+	 * @param reportingYear Calendar year, -1 for the year of the first line of the data.
+	 */
+	public void setReportingYear(int reportingYear) {
+		this.reportingYear = reportingYear;
+	}
+
+	/**
+	 * Declare the length of the intervals of the usage and generation data rather than finding it from the timestamps.
+	 * 
+	 * @param intervalMinutes Length of each interval in minutes, e.g. 5, 15 or 30.  0 to find it from the timestamps.
+	 */
+	public void setIntervalMinutes(int intervalMinutes) {
+		this.intervalMinutes = intervalMinutes;
+	}
+
+	/**
+	 * The year the monthly results, summaries and savings are for.
+	 * 
+	 * @return The year chosen with setReportingYear, otherwise the year of the first line of the data.
+	 */
+	public int getReportingYear() {
+		return reportingYear != -1 ? reportingYear : year;
+	}
+
+	/**
+	 * Make some sense of the various input combinations before starting the calculations.
+	 * 
+	 * @return Description of everything that is wrong with the combination of input files, null if there is nothing wrong.
+	 */
+	public String checkInputFiles() {
+		String errorString = "";
+		
+		//If there are no files selected, warn the user
+		if (usageFile==null && priceFile==null
+				&& generatedFile==null && feedInFile==null
+				&& bauFile == null && lifecycleFile == null ) {
+			errorString = errorString.concat("Please select some files to use in calculations");
+		}
+		
+		//If any one of usage, spot price, generated or feed-in tarrif file name is set, make sure the network parameter is also set  
+		if ((usageFile!=null || priceFile!=null || generatedFile!=null && feedInFile!=null) 
+				&& networkParameterFile == null) {
+			errorString = errorString.concat("Please select a Network Parameter File\n");
+		}
+
+		// Make sure we have pairs, alert the user if there are no pairs.
+		if (usageFile!=null && priceFile==null) {
+			errorString = errorString.concat("Please select an AEMO Spot Price file\n");
+		}
+		if (usageFile==null && priceFile!=null) {
+			errorString = errorString.concat("Please select an Energy Usage file\n");
+		}
+		if (generatedFile!=null && feedInFile==null) {
+			errorString = errorString.concat("Please select an Feed-in Tariff file\n");
+		}
+		if (generatedFile==null && feedInFile!=null) {
+			errorString = errorString.concat("Please select an Generated Energy file\n");
+		}
+		
+		return errorString.isEmpty() ? null : errorString;
+	}
+
+	/**
+	 * Give up on the calculations if the user has cancelled them.
+	 * 
+	 * @param progress Where the cancel request comes from.
+	 * 
+	 * @throws Exception If the user has cancelled the calculations.
+	 */
+	static void checkCancelled(CalculationProgress progress) throws Exception {
+		if (progress.isCancelRequested()) {
+			throw new Exception("Calculations cancelled");
+		}
+	}
+
+	/**
+	 * Calculate costs, price efficiency indexes, savings and return on investment.  Does not touch any GUI components, so can be run
+	 * on a background thread or without a GUI at all.  Errors in the Savings and Lifecycle calculations are recorded so they can be 
+	 * reported with the other results.  Any other error stops the calculations.  Every error is also recorded as a
+	 * ValidationFailureEvent when Java Flight Recorder is running.
+	 * 
+	 * @param progress Receives the progress of the calculations and can cancel them.
+	 * 
+	 * @throws Exception If the calculations cannot be completed or are cancelled.  errorTitle describes what went wrong.
+	 */
+	public void calculate(CalculationProgress progress) throws Exception {
+		// Time each stage, unless whoever is running the calculation is already timing it along with other work.
+		boolean ownMetrics = !(progress instanceof StageMetrics);
+		stageMetrics = ownMetrics ? new StageMetrics(progress) : (StageMetrics) progress;
+		try {
+			calculateStages(stageMetrics);
+		} catch (Exception e) {
+			if (!progress.isCancelRequested()) {
+				ValidationFailureEvent.report(errorTitle == null ? "Error" : errorTitle, e.getMessage());
+			}
+			throw e;
+		} finally {
+			closeIntervalFiles();
+			if (ownMetrics) {
+				stageMetrics.finish();
+			}
+		}
+	}
+
+	/**
+	 * Set up the costs of this calculation's interval data under a different Network Tariff, for a TariffComparison.  The meter
+	 * names, year and interval data, and the Business as Usual bill used to order the distribution meters, are all taken from this
+	 * calculation, which must have completed.  Nothing is calculated until calculateCosts is called.
+	 * 
+	 * @param tariffFile Network Tariff to price the interval data against.
+	 * 
+	 * @return New calculation for the tariff.
+	 */
+	public Calculation forTariff(File tariffFile) {
+		Calculation calculation = new Calculation(tariffFile, usageFile, priceFile, generatedFile, feedInFile, bauFile, null);
+		calculation.intervalData = intervalData;
+		calculation.distributionStrategyName = distributionStrategyName;
+		calculation.reportingYear = reportingYear;
+		calculation.intervalMinutes = intervalMinutes;
+		calculation.year = year;
+		calculation.usageMeterNames = usageMeterNames;
+		calculation.generatedMeterNames = generatedMeterNames;
+		calculation.bau = bau;
+		return calculation;
+	}
+
+	/**
+	 * Work out the costs only - no PEIs, savings or lifecycle costs - for a calculation set up by forTariff.  Only the Network
+	 * Tariff file is read; everything else comes from the calculation it was set up from, which is only read, so several tariffs
+	 * can be calculated at the same time.
+	 * 
+	 * @param progress Can cancel the calculation.  Nothing else is reported to it, so it can be shared by calculations running at
+	 * the same time.
+	 * 
+	 * @throws Exception If the costs cannot be calculated for the tariff, e.g. it is missing a meter, or the calculation is
+	 * cancelled.  errorTitle describes what went wrong.
+	 */
+	public void calculateCosts(CalculationProgress progress) throws Exception {
+		try {
+			networkParameters = new NetworkParameter(networkParameterFile);
+		} catch (Exception e) {
+			errorTitle = "Error reading Network Parameter file";
+			throw e;
+		}
+		checkCancelled(progress);
+
+		// The same meters as a full calculation with this tariff would have.
+		boolean distribute = usageFile != null && priceFile != null && generatedFile != null && feedInFile != null
+				&& networkParameters.distributeGeneration;
+		meterNames = usageMeterNames != null ? new ArrayList<String>(usageMeterNames) : new ArrayList<String>();
+		if (distribute) {
+			setUpDistribution(progress);
+		} else if (generatedMeterNames != null) {
+			addGeneratedMeters(meterNames, generatedMeterNames);
+		}
+		try {
+			cost = new Cost(meterNames, getReportingYear());
+			cost.addMonthlyParameters(networkParameters);
+			processUsageAndPrice(networkParameters, progress);
+			cost.calculateCosts(networkParameters);
+			cost.createCostSummaries();
+		} catch (Exception e) {
+			errorTitle = "Error while calculating Costs";
+			throw e;
+		}
+	}
+
+	/**
+	 * Run each stage of the calculations in turn - see calculate.
+	 * 
+	 * TO DO - This is now way to long.  Needs some serious refactoring 
+	 * 
+	 * @param progress Receives the progress of the calculations and can cancel them.
+	 * 
+	 * @throws Exception If the calculations cannot be completed or are cancelled.  errorTitle describes what went wrong.
+	 */
+	private void calculateStages(CalculationProgress progress) throws Exception {
+		// First try block is about reading in the network parameters and making sure
+		// that they are good
+		if (networkParameterFile != null) {
+			progress.stageStarted("Reading Network Tariff");
+			try {
+				networkParameters = new NetworkParameter(networkParameterFile);
+				progress.bytesRead(networkParameterFile.length());
+			} catch (Exception e) {
+				errorTitle = "Error reading Network Parameter file";
+				throw e;
+			}
+		}
+		checkCancelled(progress);
+		
+		// Added this section of code to distribute generation acrosss usage meters.  Done this way to avoid confusing hacks to previous blocks - even though
+		// there is some code duplication
+		// Preconditions for distributing energy:  there *must* be usage files, there *must* be generation files and "distribute energy" from Parameter file must be true.
+		if (usageFile != null && priceFile != null && generatedFile != null
+				&& feedInFile != null && networkParameters.distributeGeneration) {
+			progress.stageStarted("Reading meter names");
+			try {
+				usageHandle = openIntervalFile(usageFile, "Energy Usage header", progress);
+				generatedHandle = openIntervalFile(generatedFile, "Energy Generated header", progress);
+				usageMeterNames = getUsageMeterNames(usageHandle);
+				meterNames = new ArrayList<String>(usageMeterNames);
+				generatedMeterNames = getGeneratedMeterNames(generatedHandle);
+			} catch (Exception e) {
+				errorTitle = "Error reading meter names";
+				throw e;
+			}
+			setUpDistribution(progress);
+			checkCancelled(progress);
+			try {
+
+				// create the cost data structures and load with information from usage and
+				// generated files
+				cost = new Cost(meterNames, getReportingYear());
+				// add in the monthly meter costs from the parameter data structure
+				cost.addMonthlyParameters(networkParameters);
+
+				// If we have usage file we need to calculate PEIs.
+				if (usageFile != null && priceFile != null) {
+					pei = new PEI(meterNames, getReportingYear());
+					pei.addMonthlyParameters(networkParameters);
+				}
+
+				// Interval by interval accumulation of usage, price and PEI data
+				loadIntervalData(progress);
+				progress.stageStarted("Processing Energy Usage and Generation");
+				processUsageAndPrice(networkParameters, progress);
+
+				// Calculate monthly results once all data is processed.
+				progress.stageStarted("Calculating costs");
+				cost.calculateCosts(networkParameters);
+				if (pei != null) {
+					progress.stageStarted("Calculating PEIs");
+					pei.calculatePEIs();
+				}
+
+				// Summarise the results.  The savings calculations need the cost summaries.
+				cost.createCostSummaries();
+				if (pei != null) {
+					pei.createPEISummaries();
+				}
+			} catch (Exception e) {
+				errorTitle = "Error while calculating Costs and PEIs";
+				throw e;
+			}
+		} 
+		else {
+			// End of added code - back to no distribution of generated energy across
+			// multiple meters.
+
+			// Process costs and PEIs provided that we have loaded Network Parameters and that there is
+			// at least one pair of usage and price files
+			if (networkParameters != null && (usageFile != null && priceFile != null)
+					|| (generatedFile != null && feedInFile != null)) {
+
+				// Process costs an PEIs. If something goes wrong don't show the output.
+				// network parameters OK. Now try to get some sensible meter names.
+				progress.stageStarted("Reading meter names");
+				try {
+					usageHandle = openIntervalFile(usageFile, "Energy Usage header", progress);
+					generatedHandle = openIntervalFile(generatedFile, "Energy Generated header", progress);
+					meterNames = getMeterNames(usageHandle, generatedHandle);
+					if (usageFile != null && priceFile != null) {
+						usageMeterNames = getUsageMeterNames(usageHandle);
+					}
+					if (generatedFile != null && feedInFile != null) {
+						generatedMeterNames = getGeneratedMeterNames(generatedHandle);
+					}
+
+				} catch (Exception e) {
+					errorTitle = "Error reconciling meter names";
+					throw e;
+				}
+				checkCancelled(progress);
+				try {
+
+					// create the cost data structures and load with information from usage and
+					// generated files
+					cost = new Cost(meterNames, getReportingYear());
+					// add in the monthly meter costs from the parameter data structure
+					cost.addMonthlyParameters(networkParameters);
+
+					// If we have usage file we need to calculate PEIs.
+					if (usageFile != null && priceFile != null) {
+						pei = new PEI(usageMeterNames, getReportingYear());
+						pei.addMonthlyParameters(networkParameters);
+					}
+
+					// Interval by interval accumulation of usage, price and PEI data
+					loadIntervalData(progress);
+					progress.stageStarted("Processing Energy Usage and Generation");
+					processUsageAndPrice(networkParameters, progress);
+
+					// Calculate monthly results once all data is processed.
+					progress.stageStarted("Calculating costs");
+					cost.calculateCosts(networkParameters);
+					if (pei != null) {
+						progress.stageStarted("Calculating PEIs");
+						pei.calculatePEIs();
+					}
+
+					// Summarise the results.  The savings calculations need the cost summaries.
+					cost.createCostSummaries();
+					if (pei != null) {
+						pei.createPEISummaries();
+					}
+				} catch (Exception e) {
+					errorTitle = "Error while calculating Costs and PEIs";
+					throw e;
+				}
+			}
+		}
+		checkCancelled(progress);
+		
+		// If there is a previous bill file opened then process it.  The savings have to be worked out before the lifecycle costs.
+		if (bauFile != null) {
+			progress.stageStarted("Calculating Savings");
+			try {
+				BusinessAsUsual bill = new BusinessAsUsual(bauFile);
+				progress.bytesRead(bauFile.length());
+				// A year chosen with setReportingYear must be the year of the bill, or the savings would compare different years.
+				if (reportingYear != -1 && cost != null && bill.year != cost.year) {
+					bau = null;
+					throw new Exception("The Business as Usual bill is for " + bill.year + " but the results are for " + cost.year
+							+ ".  Savings can only be calculated for the year of the bill");
+				}
+				bau = bill;
+				bau.calculateSavings(cost);
+			} catch (Exception e) {
+				// When something goes wrong - most likely a missing or poorly formatted file.
+				bauErrorMessage = e.getMessage();
+				ValidationFailureEvent.report("Error while creating Cost Savings", bauErrorMessage);
+			}
+		}
+		checkCancelled(progress);
+
+		// If there is a lifecycle cost analysis input file set up then process it.
+		if (lifecycleFile != null) {
+			progress.stageStarted("Calculating Lifecycle Costs");
+			try {
+				lifecycle = new LifecycleCostAnalysis(lifecycleFile);
+				progress.bytesRead(lifecycleFile.length());
+				lifecycle.calculate(bau, cost);
+			} catch (Exception e) {
+				// When something goes wrong - most likely a missing or poorly formatted file.
+				lifecycleErrorMessage = e.getMessage();
+				ValidationFailureEvent.report("Error while Calculating Lifecycle Costs", lifecycleErrorMessage);
+			}
+		}
+		progress.stageStarted("Calculations complete");
+	}
+
+	/**
+	 * Get ready to distribute generated energy across the usage meters: check the distribution meters named in the Network Tariff
+	 * file exist (or use every meter if none are named), put them in order of their Business as Usual bill if the order isn't
+	 * given, and choose the DistributionStrategy.
+	 * 
+	 * @param progress Receives the bytes read from the Business as Usual file.
+	 * 
+	 * @throws Exception If a distribution meter doesn't exist, the Business as Usual file cannot be read or the strategy is unknown.
+	 * errorTitle describes what went wrong.
+	 */
+	private void setUpDistribution(CalculationProgress progress) throws Exception {
+		// if distribution meters weren't named in network parameter file then distribution meters will consist of all meters.
+		if (networkParameters.distributionMeters.size() == 0) {
+			for (int i=0; i<meterNames.size(); i++) {
+				networkParameters.distributionMeters.add(meterNames.get(i));
+			}
+		}
+		// If there was a list in the network parameter file, validate that list against actual usage meters.
+		else {
+			for (int i = 0; i < networkParameters.distributionMeters.size(); i++) {
+				if (!meterNames.contains(networkParameters.distributionMeters.get(i))) {
+					errorTitle = "Energy Distribution across multiple meters";
+					throw new Exception("Not all named energy distribtuion meters in Tariff Parameter File exist");
+				}
+			}
+		}
+		// if there is a bau file and we don't have a specified list of distribution meters then we need to reorder our distribution meters so they run from most costly to least costly.
+		if (bauFile != null && !networkParameters.isSpecifiedDistributionList()) {
+			// Load up the bau object from the file, unless it has been already.  Yes - this is duplicated!
+			if (bau == null) {
+				try {
+					bau = new BusinessAsUsual(bauFile);
+					progress.bytesRead(bauFile.length());
+				}
+				catch (Exception e) {
+					errorTitle = "Error while reading Business as Usual File";
+					throw e;
+				}
+			}
+
+			networkParameters.orderDistributionMeters(bau);
+		}
+		try {
+			distributionStrategy = DistributionStrategy.forName(distributionStrategyName != null ? distributionStrategyName
+					: networkParameters.distributionStrategyName);
+		} catch (Exception e) {
+			errorTitle = "Energy Distribution across multiple meters";
+			throw e;
+		}
+	}
+
+	/**
+	 * Load the energy used and energy generated input files into memory, unless the data already loaded came from the same files
+	 * and they have not changed since.
+	 * 
+	 * @param progress Receives the number of lines read and can cancel the reading.
+	 * 
+	 * @throws Exception If one of the files in the pairs of "Energy Used" or  "Energy Generated" input files are empty or the reading is cancelled.
+	 *  Rethrows an exception from any called method. 
+	 */
+	private void loadIntervalData(CalculationProgress progress) throws Exception {
+		if (intervalData == null || !intervalData.isCurrent(usageFile, priceFile, generatedFile, feedInFile)) {
+			progress.stageStarted("Reading Energy Usage and Generation");
+			IntervalData data = new IntervalData(usageFile, priceFile, generatedFile, feedInFile,
+					usageMeterNames, generatedMeterNames);
+			data.setOpenFiles(usageHandle, generatedHandle);
+			data.load(progress);
+			// Only keep the data once it has all been read
+			intervalData = data;
+		}
+		missingLinesWarning = intervalData.missingLinesWarning;
+	}
+
+	/**
+	 * Go through the loaded energy used and energy generated data interval by interval and accumulate all the relevant data in the Cost and PEI objects   
+	 * @param networkParameters Energy charge, Network charge, Spot Energy, Market charge and Other Charge Loss ratios and pricing. 
+	 * @param progress Receives the number of intervals processed and can cancel the processing.
+	 * 
+	 * @throws Exception If the calculations are cancelled.  Rethrows an exception from any called method. 
+	 */
+	void processUsageAndPrice(NetworkParameter networkParameters, CalculationProgress progress) throws Exception {
+		IntervalData data = intervalData;
+		boolean hasUsage = data.usage != null;
+		boolean hasGenerated = data.generated != null;
+		// One row of values per interval, reused for every interval
+		double[] usageRow = hasUsage ? new double[data.usage.length] : null;
+		double[] generatedRow = hasGenerated ? new double[data.generated.length] : null;
+		// The length of the intervals, as declared or as found from the timestamps
+		int intervalMinutes = this.intervalMinutes > 0 ? this.intervalMinutes : data.detectIntervalMinutes();
+		if (!CompiledTariff.isSupportedInterval(intervalMinutes)) {
+			throw new Exception(intervalMinutes + " minute intervals are not supported.  The interval length must divide into an hour");
+		}
+		// Find the years and months covered by the data.  Subtract the interval length from the time in the input files as the period
+		// refers to the previous interval.
+		int reportingYear = getReportingYear();
+		long firstMinute = LocalDate.of(reportingYear, 1, 1).toEpochDay() * 24 * 60;
+		long lastMinute = firstMinute;
+		if (data.numberOfIntervals > 0) {
+			firstMinute = Long.MAX_VALUE;
+			lastMinute = Long.MIN_VALUE;
+			for (int interval = 0; interval < data.numberOfIntervals; interval++) {
+				firstMinute = Math.min(firstMinute, data.epochMinutes[interval] - intervalMinutes);
+				lastMinute = Math.max(lastMinute, data.epochMinutes[interval] - intervalMinutes);
+			}
+		}
+		int firstYear = CompiledTariff.calculateYear(firstMinute);
+		int numberOfYears = CompiledTariff.calculateYear(lastMinute) - firstYear + 1;
+		if (reportingYear < firstYear || reportingYear >= firstYear + numberOfYears) {
+			throw new Exception("There is no interval data for " + reportingYear);
+		}
+		// Peak, Shoulder and Offpeak times and months worked out once for every interval of the years
+		CompiledTariff tariff = new CompiledTariff(networkParameters, firstYear, numberOfYears, intervalMinutes);
+		cost.createPeriods(firstYear, numberOfYears, tariff.calculatePeriod(firstMinute), tariff.calculatePeriod(lastMinute));
+		// Costs and PEIs are accumulated together
+		ChargeAccumulator accumulator = new ChargeAccumulator(networkParameters, cost, pei, generatedMeterMap,
+				distributionStrategy, intervalMinutes);
+		// Carry on from the running totals saved last time, if they are for the start of this data
+		AccumulatorState state = null;
+		int firstInterval = 0;
+		if (incremental) {
+			state = new AccumulatorState(AccumulatorState.stateFile(data), getStateKey(intervalMinutes));
+			firstInterval = state.restore(data, accumulator);
+		}
+
+		for (int interval = firstInterval; interval < data.numberOfIntervals; interval++) {
+			progress.rowsProcessed(interval + 1 - firstInterval, interval + 1, data.numberOfIntervals);
+			checkCancelled(progress);
+
+			// Subtract the interval length from the time in the input files as the period refers to
+			// the previous interval
+			long recordMinute = data.epochMinutes[interval] - intervalMinutes;
+			int period, usageType;
+			int tariffInterval = tariff.getInterval(recordMinute);
+			if (tariffInterval >= 0) {
+				period = tariff.periods[tariffInterval];
+				usageType = tariff.usageTypes[tariffInterval];
+			} else {
+				period = tariff.calculatePeriod(recordMinute);
+				usageType = tariff.calculateUsageType(recordMinute);
+			}
+
+			// Accumulate usage and charges for cost and PEI calculations
+			if (hasUsage) {
+				data.getUsage(interval, usageRow);
+			}
+			if (hasGenerated) {
+				data.getGenerated(interval, generatedRow);
+			}
+			accumulator.addInterval(period, usageType, usageRow, hasUsage ? data.price[interval] : 0.0, generatedRow,
+					hasGenerated ? data.feedIn[interval] : 0.0);
+		}
+		if (state != null && firstInterval < data.numberOfIntervals) {
+			state.save(data, accumulator);
+		}
+		accumulator.finish();
+	}
+
+	/**
+	 * Describe everything other than the interval data that the running totals of the costs and PEIs depend on, so that saved
+	 * running totals are only used by a calculation that would have accumulated exactly the same totals.
+	 * 
+	 * @param intervalMinutes Length of each interval in minutes.
+	 * 
+	 * @throws IOException If the Network Tariff file cannot be read.
+	 * 
+	 * @return Description of the Network Tariff file, years, interval length, meters and distribution of generated energy.
+	 */
+	private String getStateKey(int intervalMinutes) throws IOException {
+		StringBuilder key = new StringBuilder();
+		key.append("Network Tariff: ");
+		if (networkParameterFile != null) {
+			key.append(networkParameterFile.getName()).append(' ').append(networkParameterFile.length()).append(' ')
+					.append(IntervalData.checksum(networkParameterFile, Long.MAX_VALUE));
+		}
+		key.append("\nYears: ").append(cost.firstYear).append(" - ").append(cost.firstYear + cost.getNumberOfPeriods() / 12 - 1);
+		key.append("\nReporting year: ").append(cost.year);
+		key.append("\nInterval: ").append(intervalMinutes);
+		key.append("\nMeters: ").append(meterNames);
+		key.append("\nUsage meters: ").append(usageMeterNames);
+		key.append("\nGenerated meters: ").append(generatedMeterNames);
+		key.append("\nDistribution: ");
+		if (distributionStrategy != null) {
+			key.append(distributionStrategy.getName()).append(' ').append(networkParameters.distributionMeters);
+		}
+		return key.toString();
+	}
+	
+	/**
+	 * Open one of the interval files for the rest of the calculation, reading its header line and first line of data.  The same open
+	 * file is used for the meter names, the year and reading the intervals - see IntervalFileHandle.
+	 * 
+	 * @param file Energy Used or Energy Generated input file, null if not used.
+	 * @param input Which of the inputs the file is, for the Flight Recorder event.
+	 * @param progress Receives the bytes read.
+	 * 
+	 * @throws IOException If the file cannot be opened or read.
+	 * 
+	 * @return The open file, null if the file is not used.
+	 */
+	private IntervalFileHandle openIntervalFile(File file, String input, CalculationProgress progress) throws IOException {
+		if (file == null) {
+			return null;
+		}
+		InputFileReadEvent event = new InputFileReadEvent(input, file);
+		event.begin();
+		IntervalFileHandle handle = new IntervalFileHandle(file);
+		event.rows = handle.getHeader() == null ? 0 : handle.getFirstLine() == null ? 1 : 2;
+		event.commit();
+		progress.bytesRead(handle.getHeaderBytes());
+		return handle;
+	}
+
+	/**
+	 * Close the interval files opened for the calculation.
+	 */
+	private void closeIntervalFiles() {
+		for (IntervalFileHandle handle : new IntervalFileHandle[] { usageHandle, generatedHandle }) {
+			if (handle != null) {
+				try {
+					handle.close();
+				} catch (IOException e) {
+					// Only being read, so nothing is lost
+				}
+			}
+		}
+		usageHandle = null;
+		generatedHandle = null;
+	}
+
+	/**
+	 * Get all the unique meter names that appear in the Energy Used and Energy Generated input files.
+	 * 
+	 * @param usageHandle Energy Used input file, null if not used.
+	 * @param generatedHandle Energy Generated input file, null if not used.
+	 * 
+	 * @throws Exception If "Energy Used" and "Energy Generated" input files are empty.  Rethrows an exception from any called method.
+	 *  
+	 * @return List of unique names of all the meters in the "Energy Used" and "Energy Generated" input files.
+	 */
+	private List<String> getMeterNames(IntervalFileHandle usageHandle, IntervalFileHandle generatedHandle) throws Exception {
+		List<String> meterNames = new ArrayList<String>();
+		int usageYear = -1, generatedYear = -1;
+
+		// If there are no input files set then throw an error
+		if (usageHandle == null && generatedHandle == null) {
+			throw new Exception("No Usage File and no Generated File present");
+		}
+		if (usageHandle != null) {
+			meterNames.addAll(usageHandle.getMeterNames());
+			// The first line of the usage file gives the start date.
+			LocalDateTime dateTime = usageHandle.getFirstDateTime(dateParser, "Energy Usage File");
+			if (dateTime == null) {
+				throw new Exception("Usage Energy file contains no valid data");
+			}
+			usageYear = dateTime.getYear();
+		}
+		if (generatedHandle != null) {
+			addGeneratedMeters(meterNames, generatedHandle.getMeterNames());
+
+			// The first line of the generated file gives the start date.
+			LocalDateTime dateTime = generatedHandle.getFirstDateTime(dateParser, "Energy Generated File");
+			if (dateTime == null) {
+				throw new Exception("Generated Energy file contains no valid data");
+			}
+			generatedYear = dateTime.getYear();
+		}
+
+		if (usageHandle != null && generatedHandle != null && usageYear != generatedYear) {
+			throw new Exception("Energy Usage file and Generated Energy file are for different years");
+		}
+		this.year = usageHandle != null ? usageYear : generatedYear;
+
+		return meterNames;
+	}
+
+	/**
+	 * Add the meters in the Energy Generated file to the list of meters and map each of them to its place in the list.
+	 * 
+	 * @param meterNames Names of the meters in the Energy Usage file, if there is one.  Any generated meter not already in the list
+	 * is added to the end.
+	 * @param generatedNames Names of the meters in the Energy Generated file.
+	 */
+	private void addGeneratedMeters(List<String> meterNames, List<String> generatedNames) {
+		generatedMeterMap = new HashMap<>(meterNames.size() + generatedNames.size() + 2);
+		for (int i = 0; i < generatedNames.size(); i++) {
+			String meterName = generatedNames.get(i);
+			// If this meter name isn't already in the list of meter names then add it.
+			// Ideally, this code will never run.
+			// THIS IS WHERE WE MAP THE LOCATION OF THE METER IN THE GENERATED FILE TO THE
+			// LOCATION OF THE
+			// METER NAME IN THE USAGE FILE.
+			if (!meterNames.contains(meterName)) {
+				meterNames.add(meterName);
+			}
+			int index = meterNames.indexOf(meterName);
+			generatedMeterMap.put(index, i);
+		}
+	}
+
+	/**
+	 * Read the names of the meters from the "Energy Used" input file.
+	 * 
+	 * @param usageHandle Energy Used.
+	 * 
+	 * @throws Exception If "Energy Used" input file is empty.Rethrows an exception from any called method.
+	 *  
+	 * @return Names of all the meters in the "Energy Used" input file.
+	 */
+	private List<String> getUsageMeterNames(IntervalFileHandle usageHandle) throws Exception {
+		// If there is no usage file set then throw an error
+		if (usageHandle == null) {
+			throw new Exception("No Usage File present");
+		}
+		List<String> meterNames = usageHandle.getMeterNames();
+		// The first line of the usage file gives the start date.
+		LocalDateTime dateTime = usageHandle.getFirstDateTime(dateParser, "Energy Usage File");
+		if (dateTime == null) {
+			throw new Exception("Usage Energy file contains no valid data");
+		}
+		if (this.year == -1) {
+			this.year = dateTime.getYear();
+		}
+		return meterNames;
+	}
+	
+	/**
+	 * Read the names of the meters from the "Energy Generated" input file.
+	 * 
+	 * @param generatedHandle Energy Generated.
+	 * 
+	 * @throws Exception If "Energy Generated" input file is empty.Rethrows an exception from any called method.
+	 *  
+	 * @return Names of all the meters in the "Energy Generated" input file.
+	 */
+	private List<String> getGeneratedMeterNames(IntervalFileHandle generatedHandle) throws Exception {
+		// If there is no generated file set then throw an error
+		if (generatedHandle == null) {
+			throw new Exception("No Generated File present");
+		}
+		List<String> meterNames = generatedHandle.getMeterNames();
+		// The first line of the generated file gives the start date.
+		LocalDateTime dateTime = generatedHandle.getFirstDateTime(dateParser, "Energy Generated File");
+		if (dateTime == null) {
+			throw new Exception("Generated Energy file contains no valid data");
+		}
+		if (this.year == -1) {
+			this.year = dateTime.getYear();
+		}
+		return meterNames;
+	}
+}
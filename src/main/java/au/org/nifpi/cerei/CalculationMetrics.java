@@ -0,0 +1,108 @@
+package au.org.nifpi.cerei;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Totals of the stage timings of every calculation run in the JVM, published over JMX - see CalculationMetricsMXBean.  Each
+ * StageMetrics adds its stages once it is finished.  Calculations on different threads, e.g. the sites of a batch, can finish
+ * at the same time, so everything is synchronized.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class CalculationMetrics implements CalculationMetricsMXBean {
+	/** Name the metrics are registered under */
+	public static final String OBJECT_NAME = "au.org.nifpi.cerei:type=CalculationMetrics";
+
+	/** The metrics for the JVM, registered the first time they are needed */
+	private static CalculationMetrics instance = null;
+
+	/** Number of calculations finished */
+	private long calculations = 0;
+	/** Every run of every stage */
+	private List<StageStatistics> stageTotals = new ArrayList<StageStatistics>();
+	/** Stages of the last calculation to finish */
+	private List<StageStatistics> lastCalculation = new ArrayList<StageStatistics>();
+
+	/**
+	 * Only created by getInstance, so there is one set of totals for the JVM.
+	 */
+	private CalculationMetrics() {
+		
+	}
+
+	/**
+	 * The metrics for the JVM.  Registered with the platform MBean server the first time, unless that fails (e.g. something else
+	 * has already registered the name) in which case the totals are still kept.
+	 *
+	 * @return The metrics.
+	 */
+	public static synchronized CalculationMetrics getInstance() {
+		if (instance == null) {
+			instance = new CalculationMetrics();
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(OBJECT_NAME));
+			} catch (JMException e) {
+				// Not available over JMX, but the totals are still there for the batch runner.
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Add the stages of a finished calculation to the totals.
+	 *
+	 * @param metrics Stages of the calculation.
+	 */
+	public synchronized void record(StageMetrics metrics) {
+		calculations++;
+		List<StageStatistics> stages = new ArrayList<StageStatistics>(stageTotals);
+		stages.addAll(metrics.getStages());
+		stageTotals = StageMetrics.totals(stages);
+		lastCalculation = metrics.getTotals();
+	}
+
+	/**
+	 * How many calculations have been timed.
+	 *
+	 * @return Number of calculations finished since the JVM started or the totals were reset.
+	 */
+	@Override
+	public synchronized long getCalculations() {
+		return calculations;
+	}
+
+	/**
+	 * The stages of every calculation timed, with the runs of each stage combined.
+	 *
+	 * @return Copy of the totals of every run of each stage.
+	 */
+	@Override
+	public synchronized List<StageStatistics> getStageTotals() {
+		return StageMetrics.totals(stageTotals);
+	}
+
+	/**
+	 * The stages of the most recent calculation.
+	 *
+	 * @return Copy of the stages of the last calculation to finish.
+	 */
+	@Override
+	public synchronized List<StageStatistics> getLastCalculation() {
+		return StageMetrics.totals(lastCalculation);
+	}
+
+	/**
+	 * Clear the totals and the last calculation.
+	 */
+	@Override
+	public synchronized void reset() {
+		calculations = 0;
+		stageTotals = new ArrayList<StageStatistics>();
+		lastCalculation = new ArrayList<StageStatistics>();
+	}
+}
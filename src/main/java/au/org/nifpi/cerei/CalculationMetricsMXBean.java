@@ -0,0 +1,39 @@
+package au.org.nifpi.cerei;
+
+import java.util.List;
+
+/**
+ * Management interface of CalculationMetrics, registered with the platform MBean server as
+ * au.org.nifpi.cerei:type=CalculationMetrics so the stage timings can be watched with JConsole, VisualVM or any other JMX client
+ * while the GUI or a batch is running.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public interface CalculationMetricsMXBean {
+
+	/**
+	 * How many calculations have been timed.
+	 *
+	 * @return Number of calculations finished (or given up on) since the JVM started or the totals were reset.
+	 */
+	public long getCalculations();
+
+	/**
+	 * The stages of every calculation timed, with the runs of each stage combined.
+	 *
+	 * @return Totals of every run of each stage, in the order each stage first started.
+	 */
+	public List<StageStatistics> getStageTotals();
+
+	/**
+	 * The stages of the most recent calculation.
+	 *
+	 * @return Each stage of the last calculation to finish, with the runs of each stage combined.
+	 */
+	public List<StageStatistics> getLastCalculation();
+
+	/**
+	 * Clear the totals and the last calculation.
+	 */
+	public void reset();
+}
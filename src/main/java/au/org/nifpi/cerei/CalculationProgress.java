@@ -0,0 +1,46 @@
+package au.org.nifpi.cerei;
+
+/**
+ * Receives progress reports from a calculation and lets the calculation know whether it should give up early.
+ * Implemented by whatever is running the calculation, e.g. the background worker behind the "Calculate" button.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public interface CalculationProgress {
+
+	/**
+	 * Called at the start of each stage of the calculation.
+	 *
+	 * @param stageName Description of the stage, e.g. "Calculating costs".
+	 */
+	public void stageStarted(String stageName);
+
+	/**
+	 * Called periodically while the Energy Usage, Spot Price, Energy Generated and Feed-in Tariff files are being read, and again
+	 * while the loaded intervals are being processed.
+	 *
+	 * @param rowsProcessed Number of lines (or intervals) processed so far, not counting the header line, the lines already
+	 *  loaded from the cache when reading lines added to the files since, or any intervals an incremental calculation carried on
+	 *  from.
+	 * @param bytesRead Number of bytes of the (first) file read so far, or the number of intervals up to and including the one
+	 *  being processed.
+	 * @param totalBytes Size of the (first) file, or the total number of intervals.
+	 */
+	public void rowsProcessed(int rowsProcessed, long bytesRead, long totalBytes);
+
+	/**
+	 * Called after reading from an input file, or the interval data cache, so the bytes read by each stage can be measured - see
+	 * StageMetrics.  Ignored unless overridden.
+	 *
+	 * @param bytes Number of bytes read.
+	 */
+	public default void bytesRead(long bytes) {
+	}
+
+	/**
+	 * Checked by the calculation between stages and while processing lines.
+	 *
+	 * @return true if the calculation should stop as soon as possible.
+	 */
+	public boolean isCancelRequested();
+}
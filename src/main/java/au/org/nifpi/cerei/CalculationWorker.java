@@ -0,0 +1,111 @@
+package au.org.nifpi.cerei;
+
+import java.util.List;
+import javax.swing.SwingWorker;
+
+/**
+ * Runs the calculations in the background so that the GUI stays responsive.  Reports progress to the progress bar on the GUI and
+ * puts the results into the result panels once the calculations are complete.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class CalculationWorker extends SwingWorker<Void, String> implements CalculationProgress {
+
+	/** Link back to the overall UI to do the calculations and display the results. */
+	private CostEffectiveRenewableEnergyInvestments UI;
+
+	/** Set when the user clicks "Cancel".  The calculations check this and stop as soon as they can. */
+	private volatile boolean cancelRequested = false;
+
+	/** Only report every so many lines to avoid flooding the event thread with updates */
+	private static final int ROWS_PER_REPORT = 500;
+
+	/**
+	 * Create the worker.  Nothing happens until execute() is called.
+	 *
+	 * @param _UI Link back to the overall UI to do the calculations and display the results.
+	 */
+	public CalculationWorker(CostEffectiveRenewableEnergyInvestments _UI) {
+		UI = _UI;
+	}
+
+	/**
+	 * Do the calculations.  Runs on a background thread.
+	 *
+	 * @throws Exception Rethrows any exception from the calculations - picked up in done().
+	 */
+	@Override
+	protected Void doInBackground() throws Exception {
+		UI.calculateResults(this);
+		return null;
+	}
+
+	/**
+	 * Show the latest stage on the GUI.  Runs on the event thread.
+	 *
+	 * @param stages Stages published since the last call - only the last one matters.
+	 */
+	@Override
+	protected void process(List<String> stages) {
+		UI.progressText.setText(stages.get(stages.size() - 1));
+	}
+
+	/**
+	 * Display the results (or the error) once the calculations are finished.  Runs on the event thread.
+	 */
+	@Override
+	protected void done() {
+		Exception error = null;
+		try {
+			get();
+		} catch (Exception e) {
+			// get() wraps the exception thrown by doInBackground()
+			error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+		UI.displayResults(error, cancelRequested);
+	}
+
+	/**
+	 * Publish the name of the stage and reset the progress bar.
+	 *
+	 * @param stageName Description of the stage, e.g. "Calculating costs".
+	 */
+	@Override
+	public void stageStarted(String stageName) {
+		setProgress(0);
+		publish(stageName);
+	}
+
+	/**
+	 * Move the progress bar on based on how much of the file has been read.
+	 *
+	 * @param rowsProcessed Number of lines processed so far.
+	 * @param bytesRead Number of bytes of the (first) file processed so far.
+	 * @param totalBytes Size of the (first) file.
+	 */
+	@Override
+	public void rowsProcessed(int rowsProcessed, long bytesRead, long totalBytes) {
+		if (rowsProcessed % ROWS_PER_REPORT == 0 && totalBytes > 0) {
+			setProgress((int) Math.min(100, bytesRead * 100 / totalBytes));
+			publish("Processing line " + rowsProcessed);
+		}
+	}
+
+	/**
+	 * Ask the calculations to stop.  Unlike cancel(), the background thread is allowed to finish before done() is called, so
+	 * the results are never displayed while they are still being changed.
+	 */
+	public void requestCancel() {
+		cancelRequested = true;
+	}
+
+	/**
+	 * Whether the calculation should stop.
+	 *
+	 * @return true if the user has clicked "Cancel".
+	 */
+	@Override
+	public boolean isCancelRequested() {
+		return cancelRequested;
+	}
+}
@@ -0,0 +1,49 @@
+package au.org.nifpi.cerei;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+
+/**
+ * Simple button that cancels a calculation that is running in the background.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class CancelButton extends JButton implements ActionListener {
+	/** Serialised Version ID.  For if this class ever needs to be serialised - unlikely*/
+	private static final long serialVersionUID = 2023062301L;
+
+	/** Link back to the overall UI to get some titles and centre any warnings. */
+	private CostEffectiveRenewableEnergyInvestments UI;
+
+	/**
+	 * Constructor sets up the preferred button size.  Button is disabled until a calculation starts.
+	 *
+	 * @param _UI Link back to the overall UI to get some titles and centre any warnings.
+	 */
+	public CancelButton(CostEffectiveRenewableEnergyInvestments _UI) {
+		UI = _UI;
+		setText("Cancel");
+		setFont(new Font(Font.SANS_SERIF,Font.PLAIN,16));
+		setPreferredSize(new Dimension(CostEffectiveRenewableEnergyInvestments.BUTTON_WIDTH/2,CostEffectiveRenewableEnergyInvestments.BUTTON_HEIGHT*2));
+		setBorder(BorderFactory.createLineBorder(Color.GRAY,1));
+		addActionListener(this);
+		this.setEnabled(false);
+	}
+
+	/**
+	 * Cancel the calculation when button is clicked.
+	 *
+	 * @param e Button click.
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		setEnabled(false);
+		UI.cancelCalculation();
+	}
+
+}
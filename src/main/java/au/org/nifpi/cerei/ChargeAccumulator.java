@@ -0,0 +1,488 @@
+package au.org.nifpi.cerei;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Allocates the energy used and generated in each interval to each meter and month, and accumulates both the cost and
+ * the PEI data for that meter and month in the one pass.  Months are periods - the number of months since January of the first
+ * year of the data - so readings from different years are kept apart.  The costs are accumulated for every period in
+ * Cost.costsPerPeriod; the PEI and the total demand and generation only for the reporting year of the Cost.  The distribution of generated energy across meters, the net usage and
+ * the Peak, Shoulder or Offpeak rate are worked out once per interval and shared by the cost and PEI calculations.
+ * <p>
+ * The intervals can be any length that divides into an hour, e.g. 5, 15 or 30 minutes.  The Energy Generated values are power (kW)
+ * so are multiplied by the length of the interval in hours.  The PEI charges keep the client's "divide by 2" whatever the length of
+ * the interval, as the PEI is a ratio of charges per kWh - the same usage read every 5 minutes or every 30 minutes gives the same
+ * PEI.  With 30 minute intervals the results are exactly as they always were.
+ * <p>
+ * The PEI only covers the meters in the Energy Usage file.  These are always the first meters of the cost, so meter i of the PEI
+ * is meter i of the cost.
+ * <p>
+ * While the intervals are being added, the running totals are held as one array per quantity rather than in the CostPerMonth and
+ * PEIPerMonth objects.  Each array has one entry per meter per period, with all the meters of a period next to each other, so the
+ * meter loop for an interval runs straight along the arrays.  finish copies the totals into the CostPerMonth and PEIPerMonth
+ * objects, which are used for the monthly charges, summaries and reports as before.
+ * <p>
+ * The running totals are CompensatedSums, so they don't lose accuracy over thousands of intervals.  They can be saved with writeState
+ * and restored with readState, so that a later calculation can carry on from the last interval added rather than starting again -
+ * see AccumulatorState.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class ChargeAccumulator {
+	/** Energy charge, Network charge, Spot Energy, Market charge and Other Charge Loss ratios and pricing */
+	private NetworkParameter networkParameters;
+	/** Costs being accumulated */
+	private Cost cost;
+	/** PEIs being accumulated - null if there is no Energy Usage */
+	private PEI pei;
+	/** Maps each meter to its value in the Energy Generated line - null if there is no Energy Generated file */
+	private HashMap<Integer, Integer> generatedMeterMap;
+	/** Number of meters in the cost */
+	private int numberOfMeters;
+	/** Number of meters in the PEI - 0 if there is no PEI */
+	private int numberOfPeiMeters;
+	/** Length of an interval in hours - 0.5 for 30 minute intervals */
+	private double hoursPerInterval;
+	/** Number of periods the costs are accumulated for */
+	private int numberOfPeriods;
+	/** Period of January of the reporting year */
+	private int reportingPeriod;
+	/** Index of each of the distribution meters that is a meter of the cost, in distribution order */
+	private int[] distributionOrder;
+	/** Shares generated energy across the distribution meters - null if generated energy is not being distributed */
+	private DistributionStrategy distributionStrategy;
+	/** Index of the first distribution meter, which gets any generated energy left over after distribution */
+	private int firstDistributionMeter;
+	/** Usage of each meter after generated energy has been distributed - reused for every interval */
+	private double[] adjustedUsage;
+	/** Generated energy of each meter after distribution - reused for every interval, and all 0 between intervals */
+	private double[] adjustedGenerated;
+
+	/** Total energy used by all the meters before any deductions for generated energy in the reporting year - see Cost */
+	private CompensatedSums totalDemand = new CompensatedSums(1);
+	/** Total energy generated in the reporting year - see Cost */
+	private CompensatedSums totalGenerated = new CompensatedSums(1);
+
+	// Cost rates - indexed by month * numberOfMeters + meter - and running totals - indexed by period * numberOfMeters + meter.  See
+	// CostPerMonth for what each one is.
+	/** Spot Price Loss ratio per meter per month */
+	private double[] spotPriceLossRatio;
+	/** Feed in tariff Loss ratio per meter per month */
+	private double[] feedInLossRatio;
+	/** Accumulate interval power generated for the month in kWh */
+	private CompensatedSums monthlyGenerated;
+	/** Accumulate interval actual net energy used from the grid for the month in kWh */
+	private CompensatedSums monthlyNettGridUsed;
+	/** Accumulate interval actual net energy exported to the grid for the month in kWh - will be negative! */
+	private CompensatedSums monthlyNettExported;
+	/** Pool Pass Through Charge */
+	private CompensatedSums poolPassThroughCharge;
+	/** Feed In Charge - typically negative */
+	private CompensatedSums feedInCharge;
+	/** Peak energy used from the grid over the month */
+	private CompensatedSums peakUsage;
+	/** Shoulder energy used from the grid over the month */
+	private CompensatedSums shoulderUsage;
+	/** OffPeak energy used from the grid over the month */
+	private CompensatedSums offpeakUsage;
+
+	// PEI rates and running totals for the reporting year - indexed by month * numberOfPeiMeters + meter.  See PEIPerMonth for what
+	// each one is.
+	/** Spot Price Loss ratio per meter per month */
+	private double[] peiSpotPriceLossRatio;
+	/** Sum of the 30 minute market charges */
+	private double[] marketCharge30min;
+	/** Peak 30 minute charge */
+	private double[] peakCharge30min;
+	/** Shoulder 30 minute charge */
+	private double[] shoulderCharge30min;
+	/** Offpeak 30 minute charge */
+	private double[] offpeakCharge30min;
+	/** Accumulate power use for the month in kWh */
+	private CompensatedSums peiMonthlyUsage;
+	/** Accumulate power generated for the month in kWh */
+	private CompensatedSums peiMonthlyGenerated;
+	/** Accumulate net power used for the month in kWh */
+	private CompensatedSums peiMonthlyNett;
+	/** Peak power used over the month */
+	private CompensatedSums peiPeakUsage;
+	/** Shoulder power used over the month */
+	private CompensatedSums peiShoulderUsage;
+	/** OffPeak power used over the month */
+	private CompensatedSums peiOffpeakUsage;
+	/** Rolling accumulation of the total price of each interval */
+	private CompensatedSums sumMonthlyTotalCharge;
+	/** Rolling accumulation of the total price of each interval multiplied by the usage in the interval */
+	private CompensatedSums sumMonthlyTotalChargeUsage;
+	/** Number of readings for the month */
+	private int[] numberOfMeasurements;
+
+	/**
+	 * Set up the accumulation of costs and PEIs.  The monthly parameters must already have been added to the cost and PEI, as the
+	 * loss ratios and PEI rates are taken from the CostPerMonth and PEIPerMonth objects, and the periods must have been created
+	 * with Cost.createPeriods.
+	 *
+	 * @param networkParameters Energy charge, Network charge, Spot Energy, Market charge and Other Charge Loss ratios and pricing.
+	 * @param cost Costs for every meter and month.
+	 * @param pei PEIs for every usage meter and month, null if there is no Energy Usage.
+	 * @param generatedMeterMap Maps the meter to the right value of the Energy Generated line, null if there is no Energy Generated
+	 * file.
+	 * @param distributionStrategy Shares generated energy across the distribution meters, null if the Network Tariff file does not
+	 * distribute generated energy.
+	 * @param intervalMinutes Length of each interval in minutes.
+	 */
+	public ChargeAccumulator(NetworkParameter networkParameters, Cost cost, PEI pei,
+			HashMap<Integer, Integer> generatedMeterMap, DistributionStrategy distributionStrategy, int intervalMinutes) {
+		this.networkParameters = networkParameters;
+		this.cost = cost;
+		this.pei = pei;
+		this.generatedMeterMap = generatedMeterMap;
+		numberOfMeters = cost.meterNames.size();
+		numberOfPeiMeters = pei == null ? 0 : pei.meterNames.size();
+		hoursPerInterval = intervalMinutes / 60.0;
+
+		// Look up the distribution meters once rather than for every interval
+		if (networkParameters.distributeGeneration && distributionStrategy != null) {
+			this.distributionStrategy = distributionStrategy;
+			int[] order = new int[networkParameters.distributionMeters.size()];
+			int count = 0;
+			for (String meterName : networkParameters.distributionMeters) {
+				int meterNameIndex = cost.meterNames.indexOf(meterName);
+				if (meterNameIndex != -1) {
+					order[count++] = meterNameIndex;
+				}
+			}
+			distributionOrder = Arrays.copyOf(order, count);
+			firstDistributionMeter = networkParameters.distributionMeters.isEmpty() ? -1
+					: cost.meterNames.indexOf(networkParameters.distributionMeters.get(0));
+		}
+
+		numberOfPeriods = cost.getNumberOfPeriods();
+		reportingPeriod = (cost.year - cost.firstYear) * 12;
+		int size = numberOfMeters * numberOfPeriods;
+		spotPriceLossRatio = new double[numberOfMeters * 12];
+		feedInLossRatio = new double[numberOfMeters * 12];
+		monthlyGenerated = new CompensatedSums(size);
+		monthlyNettGridUsed = new CompensatedSums(size);
+		monthlyNettExported = new CompensatedSums(size);
+		poolPassThroughCharge = new CompensatedSums(size);
+		feedInCharge = new CompensatedSums(size);
+		peakUsage = new CompensatedSums(size);
+		shoulderUsage = new CompensatedSums(size);
+		offpeakUsage = new CompensatedSums(size);
+		for (int month = 0; month < 12; month++) {
+			for (int meter = 0; meter < numberOfMeters; meter++) {
+				CostPerMonth costPerMonth = cost.costsPerMonth[meter][month];
+				spotPriceLossRatio[month * numberOfMeters + meter] = costPerMonth.spotPriceLossRatio;
+				feedInLossRatio[month * numberOfMeters + meter] = costPerMonth.feedInLossRatio;
+			}
+		}
+		if (this.distributionStrategy != null) {
+			this.distributionStrategy.setUp(distributionOrder, numberOfMeters, spotPriceLossRatio);
+		}
+
+		int peiSize = numberOfPeiMeters * 12;
+		peiSpotPriceLossRatio = new double[peiSize];
+		marketCharge30min = new double[peiSize];
+		peakCharge30min = new double[peiSize];
+		shoulderCharge30min = new double[peiSize];
+		offpeakCharge30min = new double[peiSize];
+		peiMonthlyUsage = new CompensatedSums(peiSize);
+		peiMonthlyGenerated = new CompensatedSums(peiSize);
+		peiMonthlyNett = new CompensatedSums(peiSize);
+		peiPeakUsage = new CompensatedSums(peiSize);
+		peiShoulderUsage = new CompensatedSums(peiSize);
+		peiOffpeakUsage = new CompensatedSums(peiSize);
+		sumMonthlyTotalCharge = new CompensatedSums(peiSize);
+		sumMonthlyTotalChargeUsage = new CompensatedSums(peiSize);
+		numberOfMeasurements = new int[peiSize];
+		for (int month = 0; month < 12; month++) {
+			for (int meter = 0; meter < numberOfPeiMeters; meter++) {
+				PEIPerMonth peiPerMonth = pei.peisPerMonth[meter][month];
+				int index = month * numberOfPeiMeters + meter;
+				peiSpotPriceLossRatio[index] = peiPerMonth.spotPriceLossRatio;
+				marketCharge30min[index] = peiPerMonth.marketCharge30min;
+				peakCharge30min[index] = peiPerMonth.peakCharge30min;
+				shoulderCharge30min[index] = peiPerMonth.shoulderCharge30min;
+				offpeakCharge30min[index] = peiPerMonth.offpeakCharge30min;
+			}
+		}
+	}
+
+	/**
+	 * Allocate usage energy and generation power contained in a single line (and matched) line of the Energy Usage, Spot Price,
+	 * Energy Generated and Feed-in Tarrif files to each meter and month, then add them to the costs and PEIs.
+	 *
+	 * @param period Period of the lines - months since January of the first year of the data, see CompiledTariff.
+	 * @param usageType PEAK, SHOULDER or OFFPEAK rate that applies to the lines - see CompiledTariff.
+	 * @param usage Meter values from the line of the Energy Usage file, null if there is no Energy Usage file.
+	 * @param spotPrice Spot price from the line of the Spot Price file, 0 if there is no Spot Price file.
+	 * @param generated Meter values from the line of the Energy Generated file, null if there is no Energy Generated file.
+	 * @param feedInTariff Feed-in tariff from the line of the Feed-in Tariff file, 0 if there is no Feed-in Tariff file.
+	 */
+	public void addInterval(int period, int usageType, double[] usage, double spotPrice, double[] generated,
+			double feedInTariff) {
+		double usedEnergy = 0, generatedEnergy = 0;
+		int month = period % 12;
+		boolean reportingYear = period >= reportingPeriod && period < reportingPeriod + 12;
+
+		// If we are redistributing generated energy charges across mulitple meters we have to make adjustments to usage and generated
+		if (distributionStrategy != null && usage != null && generated != null) {
+			if (adjustedUsage == null || adjustedUsage.length != usage.length) {
+				adjustedUsage = new double[usage.length];
+				adjustedGenerated = new double[usage.length];
+			}
+			// Load adjustedUsage[] from usage.  Needs to be done so that when generatedEnergy is exhausted,
+			// meters that have not been adjusted still have their initial values.
+			for (int i = 0; i < usage.length; i++) {
+				adjustedUsage[i] = usage[i];
+				if (reportingYear) {
+					totalDemand.add(0, adjustedUsage[i]); // Accumulate total grid used before any deductions from generated energy
+				}
+			}
+			// first determine the total amount of generated energy to distributed
+			for (int i = 0; i < generated.length; i++) {
+				generatedEnergy += generated[i] * hoursPerInterval; // Divide by 2 (for 30 minutes) contentious, should not be divide by 2 if generated energy is kWh.
+			}
+
+			if (reportingYear) {
+				totalGenerated.add(0, generatedEnergy);
+			}
+			// Share the generated energy across the distribution meters, adjusting their usage
+			generatedEnergy = distributionStrategy.distribute(month, usageType, spotPrice, usage, generatedEnergy, adjustedUsage);
+
+			//If there is any generated energy left add it to the adjustedGenerated of the first meter in the network Parameters distribution list
+			if (generatedEnergy > 0) {
+				adjustedGenerated[firstDistributionMeter] += generatedEnergy;
+			}
+			// Now add each meter's share to its costs and PEIs.
+			for (int i = 0; i < numberOfMeters; i++) {
+				addMeter(i, period, usageType, adjustedUsage[i], spotPrice, adjustedGenerated[i], feedInTariff);
+			}
+			// Only the first distribution meter can have been given any generated energy - clear it ready for the next interval.
+			if (generatedEnergy > 0) {
+				adjustedGenerated[firstDistributionMeter] = 0;
+			}
+		} else { // No distribution over multiple meters.
+			// Now process each meter in turn.
+			for (int i = 0; i < numberOfMeters; i++) {
+				// If the meter index (i) is bigger than the number of meter values in used
+				// energy array, it means
+				// that this meter does not have a corresponding usage meter, so usage is zero.
+				if (usage == null || i >= usage.length) {
+					usedEnergy = 0;
+				} else {
+					usedEnergy = usage[i];
+					if (reportingYear) {
+						totalDemand.add(0, usedEnergy);
+					}
+				}
+				// Find the relevant generated energy meter reading (if any) for this meter
+				// If this meter has a generated energy component
+				if (generated != null && generatedMeterMap != null && generatedMeterMap.containsKey(i)) {
+					int index = generatedMeterMap.get(i);
+					generatedEnergy = generated[index] * hoursPerInterval; // Divide by 2 (for 30 minutes) contentious, should not be divide by 2 if generated energy is kWh.
+					if (reportingYear) {
+						totalGenerated.add(0, generatedEnergy);
+					}
+				} else { // the generated energy will be zero
+					generatedEnergy = 0;
+				}
+				addMeter(i, period, usageType, usedEnergy, spotPrice, generatedEnergy, feedInTariff);
+			}
+		}
+	}
+
+	/**
+	 * Add one meter's energy for one interval to its cost and, if it is a usage meter in the reporting year, its PEI.
+	 *
+	 * @param meter Index of the meter.
+	 * @param period Period of the interval.
+	 * @param usageType PEAK, SHOULDER or OFFPEAK rate that applies to the interval.
+	 * @param usage Energy used by the meter.
+	 * @param spotPrice Spot price for the interval.
+	 * @param generated Energy generated for the meter.
+	 * @param feedInTariff Feed-in tariff for the interval.
+	 */
+	private void addMeter(int meter, int period, int usageType, double usage, double spotPrice, double generated,
+			double feedInTariff) {
+		// Net usage is the same for the cost and the PEI, except the PEI doesn't count exports.
+		double nett = usage - generated;
+		int month = period % 12;
+
+		// Cost
+		int index = period * numberOfMeters + meter;
+		int rateIndex = month * numberOfMeters + meter;
+		double spotPriceIncLoss, feedInTariffIncLoss;
+		double gridUsed = 0;
+
+		//Accumulate monthly usages
+		monthlyGenerated.add(index, generated);
+		if (nett > 0) {
+			gridUsed = nett;
+			monthlyNettGridUsed.add(index, nett);
+		}
+		else {
+			monthlyNettExported.add(index, nett);
+		}
+
+		spotPriceIncLoss = spotPrice + (spotPrice * spotPriceLossRatio[rateIndex]); // EQ1
+		feedInTariffIncLoss = feedInTariff + (feedInTariff * feedInLossRatio[rateIndex]); // EQ1
+
+		if (nett > 0) {
+			poolPassThroughCharge.add(index, spotPriceIncLoss*nett); // EQ2
+		}
+		else {
+			feedInCharge.add(index, feedInTariffIncLoss*nett); //EQ3
+		}
+
+		// Accumulate the PEAK, SHOULDER or OFFPEAK as appropriate
+		switch (usageType) {
+		case NetworkParameter.PEAK:
+			peakUsage.add(index, gridUsed);  // In preparation for EQ5
+			break;
+		case NetworkParameter.SHOULDER:
+			shoulderUsage.add(index, gridUsed); // In preparation for EQ5
+			break;
+		default:
+			offpeakUsage.add(index, gridUsed); // In preparation for EQ5
+		}
+
+		// PEI
+		if (meter < numberOfPeiMeters && period >= reportingPeriod && period < reportingPeriod + 12) {
+			index = month * numberOfPeiMeters + meter;
+			double peiNett = nett < 0 ? 0 : nett;
+			peiMonthlyUsage.add(index, usage);
+			peiMonthlyGenerated.add(index, generated);
+			peiMonthlyNett.add(index, peiNett);
+
+			// The market charges and Peak, Shoulder and Offpeak charges were worked out by PEIPerMonth.calculateRates - only the spot
+			// price changes from reading to reading.  All have the client's "divide by 2", whatever the length of the interval - see
+			// PEIPerMonth.
+			double spotPriceIncLossCharge30min = spotPrice + (spotPrice * peiSpotPriceLossRatio[index]/2);
+			double totalCharge30min = marketCharge30min[index] + spotPriceIncLossCharge30min;  //EQ 23
+
+			// Accumulate the PEAK, SHOULDER or OFFPEAK as appropriate and also add charge to EEI
+			switch (usageType) {
+			case NetworkParameter.PEAK:
+				peiPeakUsage.add(index, peiNett);
+				totalCharge30min += peakCharge30min[index];
+				break;
+			case NetworkParameter.SHOULDER:
+				peiShoulderUsage.add(index, peiNett);
+				totalCharge30min += shoulderCharge30min[index];
+				break;
+			default:
+				peiOffpeakUsage.add(index, peiNett);
+				totalCharge30min += offpeakCharge30min[index];
+			}
+
+			//Accumulate (totalcharge30min and (totalcharge30min x usage) for each interval in preparation for EQ24, EQ25 and EQ26.
+			sumMonthlyTotalCharge.add(index, totalCharge30min);
+			sumMonthlyTotalChargeUsage.add(index, totalCharge30min*peiNett);
+			numberOfMeasurements[index]++;
+		}
+	}
+
+	/**
+	 * All the running totals, in the order they are saved by writeState.
+	 *
+	 * @return Running totals.
+	 */
+	private CompensatedSums[] runningTotals() {
+		return new CompensatedSums[] { totalDemand, totalGenerated, monthlyGenerated, monthlyNettGridUsed, monthlyNettExported,
+				poolPassThroughCharge, feedInCharge, peakUsage, shoulderUsage, offpeakUsage, peiMonthlyUsage, peiMonthlyGenerated,
+				peiMonthlyNett, peiPeakUsage, peiShoulderUsage, peiOffpeakUsage, sumMonthlyTotalCharge, sumMonthlyTotalChargeUsage };
+	}
+
+	/**
+	 * Save the running totals so far.  The rates are not saved, as they come from the Network Tariff file.
+	 *
+	 * @param out Where to save the running totals.
+	 *
+	 * @throws IOException If the running totals cannot be written.
+	 */
+	public void writeState(DataOutputStream out) throws IOException {
+		for (CompensatedSums totals : runningTotals()) {
+			totals.write(out);
+		}
+		out.writeInt(numberOfMeasurements.length);
+		for (int i = 0; i < numberOfMeasurements.length; i++) {
+			out.writeInt(numberOfMeasurements[i]);
+		}
+	}
+
+	/**
+	 * Replace the running totals with ones saved by writeState, so that adding more intervals carries on where the saved
+	 * accumulation left off.  The saved totals must be for the same meters.  Nothing is changed unless all the totals can be read.
+	 *
+	 * @param in Where to read the running totals from.
+	 *
+	 * @throws IOException If the running totals cannot be read or are for a different number of meters.
+	 */
+	public void readState(DataInputStream in) throws IOException {
+		CompensatedSums[] totals = runningTotals();
+		CompensatedSums[] savedTotals = new CompensatedSums[totals.length];
+		for (int i = 0; i < totals.length; i++) {
+			savedTotals[i] = CompensatedSums.read(in);
+			if (savedTotals[i].size() != totals[i].size()) {
+				throw new IOException("Saved totals are for a different number of meters");
+			}
+		}
+		if (in.readInt() != numberOfMeasurements.length) {
+			throw new IOException("Saved totals are for a different number of meters");
+		}
+		int[] savedMeasurements = new int[numberOfMeasurements.length];
+		for (int i = 0; i < savedMeasurements.length; i++) {
+			savedMeasurements[i] = in.readInt();
+		}
+
+		// Everything has been read
+		for (int i = 0; i < totals.length; i++) {
+			totals[i].set(savedTotals[i]);
+		}
+		numberOfMeasurements = savedMeasurements;
+	}
+
+	/**
+	 * Copy the running totals into the CostPerMonth and PEIPerMonth objects once all the intervals have been added, ready for the
+	 * monthly charges and PEIs to be calculated.
+	 */
+	public void finish() {
+		cost.totalDemand = totalDemand.get(0);
+		cost.totalGenerated = totalGenerated.get(0);
+		for (int period = 0; period < numberOfPeriods; period++) {
+			for (int meter = 0; meter < numberOfMeters; meter++) {
+				CostPerMonth costPerMonth = cost.costsPerPeriod[meter][period];
+				int index = period * numberOfMeters + meter;
+				costPerMonth.monthlyGenerated = monthlyGenerated.get(index);
+				costPerMonth.monthlyNettGridUsed = monthlyNettGridUsed.get(index);
+				costPerMonth.monthlyNettExported = monthlyNettExported.get(index);
+				costPerMonth.poolPassThroughCharge = poolPassThroughCharge.get(index);
+				costPerMonth.feedInCharge = feedInCharge.get(index);
+				costPerMonth.peakUsage = peakUsage.get(index);
+				costPerMonth.shoulderUsage = shoulderUsage.get(index);
+				costPerMonth.offpeakUsage = offpeakUsage.get(index);
+			}
+		}
+		for (int month = 0; month < 12; month++) {
+			for (int meter = 0; meter < numberOfPeiMeters; meter++) {
+				PEIPerMonth peiPerMonth = pei.peisPerMonth[meter][month];
+				int index = month * numberOfPeiMeters + meter;
+				peiPerMonth.monthlyUsage = peiMonthlyUsage.get(index);
+				peiPerMonth.monthlyGenerated = peiMonthlyGenerated.get(index);
+				peiPerMonth.monthlyNett = peiMonthlyNett.get(index);
+				peiPerMonth.peakUsage = peiPeakUsage.get(index);
+				peiPerMonth.shoulderUsage = peiShoulderUsage.get(index);
+				peiPerMonth.offpeakUsage = peiOffpeakUsage.get(index);
+				peiPerMonth.sumMonthlyTotalCharge = sumMonthlyTotalCharge.get(index);
+				peiPerMonth.sumMonthlyTotalChargeUsage = sumMonthlyTotalChargeUsage.get(index);
+				peiPerMonth.numberOfMeasurements = numberOfMeasurements[index];
+			}
+		}
+	}
+}
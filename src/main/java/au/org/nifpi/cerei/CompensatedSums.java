@@ -0,0 +1,119 @@
+package au.org.nifpi.cerei;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A set of running totals added up with Neumaier's compensated summation.  Adding thousands of small 30 minute values to a large
+ * monthly or yearly total one at a time loses the low order bits of each value; compensated summation keeps track of what was lost
+ * and adds it back, so each total is as accurate as if it had been added up exactly and rounded once, whatever the number of
+ * intervals.  The totals no longer drift with the length of the data, e.g. a year of 5 minute readings gives the same monthly
+ * totals as the equivalent 30 minute readings.
+ * <p>
+ * The values are always added in file order, so the totals are the same from run to run however the files are read.  The totals can
+ * be written out, compensations and all, and read back in to carry on adding later with exactly the same results.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class CompensatedSums {
+	/** Running totals */
+	private double[] sums;
+	/** Low order bits lost from each running total so far */
+	private double[] compensations;
+
+	/**
+	 * Create a set of totals, all starting at 0.
+	 *
+	 * @param size Number of totals.
+	 */
+	public CompensatedSums(int size) {
+		sums = new double[size];
+		compensations = new double[size];
+	}
+
+	/**
+	 * Add a value to one of the totals.
+	 *
+	 * @param index Which total.
+	 * @param value Value to add.
+	 */
+	public void add(int index, double value) {
+		double sum = sums[index];
+		double total = sum + value;
+		if (Math.abs(sum) >= Math.abs(value)) {
+			compensations[index] += (sum - total) + value;
+		}
+		else {
+			compensations[index] += (value - total) + sum;
+		}
+		sums[index] = total;
+	}
+
+	/**
+	 * One of the totals.
+	 *
+	 * @param index Which total.
+	 *
+	 * @return The total, including the compensation.
+	 */
+	public double get(int index) {
+		return sums[index] + compensations[index];
+	}
+
+	/**
+	 * Number of totals.
+	 *
+	 * @return Number of totals.
+	 */
+	public int size() {
+		return sums.length;
+	}
+
+	/**
+	 * Replace these totals with a copy of another set of the same size.
+	 *
+	 * @param other Totals to copy.
+	 */
+	public void set(CompensatedSums other) {
+		System.arraycopy(other.sums, 0, sums, 0, sums.length);
+		System.arraycopy(other.compensations, 0, compensations, 0, compensations.length);
+	}
+
+	/**
+	 * Write the totals and their compensations.
+	 *
+	 * @param out Where to write the totals.
+	 *
+	 * @throws IOException If the totals cannot be written.
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(sums.length);
+		for (int i = 0; i < sums.length; i++) {
+			out.writeDouble(sums[i]);
+			out.writeDouble(compensations[i]);
+		}
+	}
+
+	/**
+	 * Read totals written by write.
+	 *
+	 * @param in Where to read the totals from.
+	 *
+	 * @throws IOException If the totals cannot be read.
+	 *
+	 * @return The totals.
+	 */
+	public static CompensatedSums read(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		if (size < 0 || size > in.available() / 16) {
+			throw new IOException("Invalid number of totals");
+		}
+		CompensatedSums totals = new CompensatedSums(size);
+		for (int i = 0; i < size; i++) {
+			totals.sums[i] = in.readDouble();
+			totals.compensations[i] = in.readDouble();
+		}
+		return totals;
+	}
+}
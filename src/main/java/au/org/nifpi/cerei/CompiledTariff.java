@@ -0,0 +1,127 @@
+package au.org.nifpi.cerei;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The Peak, Shoulder and Offpeak times of a Network Tariff laid out for every interval (e.g. 5, 15 or 30 minutes) of one or more
+ * calendar years, along with the year and month of each interval.  Working out the day of the week, hour and minute of every reading is done once
+ * here, so the cost and PEI calculations only need to look up the interval in two arrays.
+ * <p>
+ * The year and month of an interval are a "period" - the number of months since January of the first year - so that readings from
+ * different years are kept apart.
+ * <p>
+ * Readings outside the years (e.g. a file that runs over into the next year) are still handled by working out the rate from the date
+ * in the same way as the Network Tariff rate table, just more slowly.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class CompiledTariff {
+	/** Length of an interval in minutes */
+	protected int intervalMinutes;
+	/** First calendar year the tariff is laid out for */
+	protected int firstYear;
+	/** Start of the first year as minutes since 1 Jan 1970 */
+	private long startEpochMinute;
+	/** PEAK, SHOULDER or OFFPEAK for each interval of the years */
+	protected byte[] usageTypes;
+	/** Period (months since January of the first year) of each interval of the years */
+	protected short[] periods;
+	/** Network Tariff rate table - 7 days * 1440 minutes - used for readings outside the years */
+	private int[][] rate;
+
+	/**
+	 * Lay out a tariff's Peak, Shoulder and Offpeak times for one or more calendar years.
+	 *
+	 * @param networkParameters Network Tariff with the rate table to lay out.
+	 * @param firstYear First calendar year of the usage and generation data.
+	 * @param numberOfYears Number of calendar years covered by the usage and generation data.
+	 * @param intervalMinutes Length of each interval of the usage and generation data in minutes - must divide into an hour.
+	 */
+	public CompiledTariff(NetworkParameter networkParameters, int firstYear, int numberOfYears, int intervalMinutes) {
+		this.firstYear = firstYear;
+		this.intervalMinutes = intervalMinutes;
+		this.rate = networkParameters.rate;
+		int intervalsPerDay = NetworkParameter.MINUTES_PER_DAY / intervalMinutes;
+		LocalDate day = LocalDate.of(firstYear, 1, 1);
+		startEpochMinute = day.toEpochDay() * 24 * 60;
+		int days = (int) (LocalDate.of(firstYear + numberOfYears, 1, 1).toEpochDay() - day.toEpochDay());
+		usageTypes = new byte[days * intervalsPerDay];
+		periods = new short[days * intervalsPerDay];
+		for (int i = 0; i < days; i++, day = day.plusDays(1)) {
+			int dayOfWeek = day.getDayOfWeek().getValue() - 1; //Minus 1 to turn day into our array index
+			short period = (short) ((day.getYear() - firstYear) * 12 + day.getMonthValue() - 1); //Minus 1 to turn month into our array index
+			for (int j = 0; j < intervalsPerDay; j++) {
+				// The rate at the start of the interval applies to the whole interval
+				usageTypes[i * intervalsPerDay + j] = (byte) rate[dayOfWeek][j * intervalMinutes];
+				periods[i * intervalsPerDay + j] = period;
+			}
+		}
+	}
+
+	/**
+	 * Find the interval of the years that a reading belongs to.
+	 *
+	 * @param epochMinute Start of the reading as minutes since 1 Jan 1970.
+	 *
+	 * @return Index into usageTypes and periods, -1 if the reading is not in the years.
+	 */
+	public int getInterval(long epochMinute) {
+		long minuteOfYear = epochMinute - startEpochMinute;
+		if (minuteOfYear < 0 || minuteOfYear >= (long) usageTypes.length * intervalMinutes) {
+			return -1;
+		}
+		return (int) (minuteOfYear / intervalMinutes);
+	}
+
+	/**
+	 * Period of a reading outside the years.
+	 *
+	 * @param epochMinute Start of the reading as minutes since 1 Jan 1970.
+	 *
+	 * @return Months since January of the first year - negative if the reading is before the first year.
+	 */
+	public int calculatePeriod(long epochMinute) {
+		LocalDateTime recordDateTime = LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+		return (recordDateTime.getYear() - firstYear) * 12 + recordDateTime.getMonthValue() - 1; //Minus 1 to turn month into our array index
+	}
+
+	/**
+	 * Year of a reading as a number of minutes since 1 Jan 1970.
+	 *
+	 * @param epochMinute Start of the reading as minutes since 1 Jan 1970.
+	 *
+	 * @return Calendar year.
+	 */
+	public static int calculateYear(long epochMinute) {
+		return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC).getYear();
+	}
+
+	/**
+	 * Check that data with a given interval length can be laid out - the intervals have to fit exactly into an hour so that each
+	 * one starts on the same minutes every hour and day.
+	 *
+	 * @param intervalMinutes Length of an interval in minutes.
+	 *
+	 * @return true for 1, 2, 3, 4, 5, 6, 10, 12, 15, 20, 30 and 60 minute intervals.
+	 */
+	public static boolean isSupportedInterval(int intervalMinutes) {
+		return intervalMinutes > 0 && 60 % intervalMinutes == 0;
+	}
+
+	/**
+	 * Peak, Shoulder or Offpeak for a reading outside the years.
+	 *
+	 * @param epochMinute Start of the reading as minutes since 1 Jan 1970.
+	 *
+	 * @return PEAK, SHOULDER or OFFPEAK.
+	 */
+	public int calculateUsageType(long epochMinute) {
+		LocalDateTime recordDateTime = LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+		int hour = recordDateTime.getHour(); //Already in the range 0 - 23
+		int minute = recordDateTime.getMinute(); // In the range 0 - 59
+		int dayOfWeek = recordDateTime.getDayOfWeek().getValue()-1; //Minus 1 to turn day into our array index
+		return rate[dayOfWeek][60*hour + minute];
+	}
+}
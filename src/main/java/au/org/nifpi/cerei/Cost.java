@@ -1,14 +1,17 @@
 package au.org.nifpi.cerei;
 
 import java.text.DecimalFormat;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 /**
  * Calculates and Summarises Cost data from the Source Usage and Spot Price .csv files
  * TO DO - Refactor. Contains a lot of duplicated code here and also in PEI.  
+ * <p>
+ * The summaries and reports are for one calendar year - the reporting year.  When the usage and generation data covers more than one
+ * year, every month of every year is also kept in costsPerPeriod, so the energy bill can be worked out for any range of months, e.g.
+ * rolling 12 month windows, without processing the data again.
  * 
  * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
  */
@@ -16,6 +19,19 @@ public class Cost {
 
 	/** An array that contains the costs for each meter for each month */
 	protected CostPerMonth costsPerMonth[][]; //Costs are done per meter per month
+	/** Year the costs in costsPerMonth are for */
+	protected int year;
+	/**
+	 * Costs for each meter for every month of every year of the data - indexed by meter and then by period, the number of months since
+	 * January of firstYear.  The months of the reporting year are the same objects as costsPerMonth.  null until createPeriods.
+	 */
+	protected CostPerMonth costsPerPeriod[][] = null;
+	/** First calendar year of costsPerPeriod */
+	protected int firstYear;
+	/** First period with usage or generation data */
+	protected int firstDataPeriod;
+	/** Last period with usage or generation data */
+	protected int lastDataPeriod;
 	/** A list of meter names that is the "source of truth" for the calculator */
 	protected List<String> meterNames;
 	
@@ -35,7 +51,7 @@ public class Cost {
 	protected double totalDemand=0;
 
 	/** Generates a String with two decimal places and commas. Minimum of one whole number and two decimal places. */
-	private static final DecimalFormat df = new DecimalFormat("#,###.00");  // Number of decimal places in summary tabs.
+	private final DecimalFormat df = new DecimalFormat("#,###.00");  // Number of decimal places in summary tabs.
 
 	/** Months of the year for output of summary information */
 	public static final String[] MONTH_NAMES = {"January","February","March","April","May","June",
@@ -50,6 +66,7 @@ public class Cost {
 	 */
 	public Cost(List<String> meterNames, int year) {
 		this.meterNames = meterNames;
+		this.year = year;
 		
 		//Initialise the array
 		costsPerMonth = new CostPerMonth[meterNames.size()][12];
@@ -103,115 +120,128 @@ public class Cost {
 	}
 	
 	/**
-	 * Allocate usage energy and generation power contained in a single line (and matched) line of the Energy Usage, Spot Price, Energy Generated 
-	 * and Feed-in Tarrif files to each meter and month. 
-	 * TO DO - Refactor.  Has grown to be difficult to follow with repeated code.
+	 * Set up the costs for every month of every year of the usage and generation data.  The months of the reporting year are the
+	 * existing costsPerMonth objects, the other months get the same monthly parameters for their month of the year.  Must be called
+	 * after addMonthlyParameters.
 	 * 
-	 * @param networkParameters Energy charge, Network charge, Spot Energy, Market charge and Other Charge Loss ratios and pricing.
-	 * @param recordDateTime Date and Time of the lines in the Energy Usage, Spot Price, Energy Generated and Feed-in Tarrif files.
-	 * @param usageSt Line from the Energy Usage file.
-	 * @param priceSt Line from the Spot Price file.
-	 * @param generatedSt Line from the Energy Generated file.
-	 * @param feedInSt Line from the Feed-in Tariff file.
-	 * @param generatedMeterMap Maps the column in the Energy Generated file to the right column of the Energy Usage file.
+	 * @param firstYear First calendar year of the data.
+	 * @param numberOfYears Number of calendar years covered by the data - must include the reporting year.
+	 * @param firstDataPeriod First month with data, as the number of months since January of firstYear.
+	 * @param lastDataPeriod Last month with data, as the number of months since January of firstYear.
 	 */
-	public void addCharges(NetworkParameter networkParameters, LocalDateTime recordDateTime, String[] usageSt,
-			String[] priceSt, String[] generatedSt, String[] feedInSt,
-			HashMap<Integer,Integer> generatedMeterMap) {
-
-		double usedEnergy=0, generatedEnergy=0;
-		// Get the month the usage date stamp.
-		int month = recordDateTime.getMonthValue() - 1; //Minus 1 to turn month into our array index
-
-		// If we are redistributing generated energy charges across mulitple meters we have to make adjustments to usageSt and generatedSt
-		if(networkParameters.distributeGeneration && usageSt!=null && generatedSt!=null) {
-			double adjustedUsageSt[] = new double[usageSt.length-1]; // -1 because usageSt has an additional datestamp at the start.
-			// Load adjustedUsageSt[] from usageSt.  Needs to be done so that when generatedEnergy is exhausted,
-			// meters that have not been adjusted still have their initial values.
-			for (int i=0; i<usageSt.length-1; i++) {
-				adjustedUsageSt[i] = Double.parseDouble(usageSt[i+1]);   // +1 as first entry in usageSt is the datestamp
-				totalDemand += adjustedUsageSt[i]; // Accumulate total grid used before any deductions from generated energy
-			}
-			double adjustedGeneratedSt[] = new double[usageSt.length-1]; // -1 because usageSt has an additional datestamp at the start.
-			// first determine the total amount of generated energy to distributed
-			for (int i=1; i<generatedSt.length; i++) { // i=1 as first entry in generatedSt is the datestamp
-				generatedEnergy += Double.parseDouble(generatedSt[i])/2; // Divide by 2 contentious, should not be divide by 2 if generated energy is kWh.
-			}
-
-			totalGenerated += generatedEnergy;
-			// Use the list of distribution meters to adjust that meter's usageSt
-			for(int i=0; i<networkParameters.distributionMeters.size(); i++) {
-				// find the index of the usageSt meter
-				int meterNameIndex = meterNames.indexOf(networkParameters.distributionMeters.get(i));
-				if (meterNameIndex != -1) {
-					double initialUsage = Double.parseDouble(usageSt[meterNameIndex+1]);   // +1 as first entry in generatedSt is the datestamp
-					double deduction = Math.min(generatedEnergy,initialUsage);
-					// overwrite original usageSt value. 
-					adjustedUsageSt[meterNameIndex] = initialUsage - deduction;
-					generatedEnergy -= deduction;
-					if (generatedEnergy <= 0) {
-						break; // break out of for loop - we've used up all the generated energy
-					}
-				}
-			}
-			
-			//If there is any generated energy left add it to the adjustedGeneratedSt of the first meter in the network Parameters distribution list
-			if (generatedEnergy >0) {
-				adjustedGeneratedSt[meterNames.indexOf(networkParameters.distributionMeters.get(0))] += generatedEnergy;
-			}
-			// Now iterate over meters calling costsPerMonth[i][month].addUnitOfCharges.
-			for (int i = 0; i < meterNames.size(); i++) {
-				costsPerMonth[i][month].addUnitOfCharges(networkParameters, recordDateTime, adjustedUsageSt[i],
-						priceSt == null ? 0.0 : Double.parseDouble(priceSt[1]), adjustedGeneratedSt[i],
-						feedInSt == null ? 0.0 : Double.parseDouble(feedInSt[1]));
-			}
-		}
-		else { // No distribution over multiple meters.
-			// Now process each meter in turn.
-			for (int i = 0; i < meterNames.size(); i++) {
-				// If the meter index (i) is bigger than the number of meter tokens in used
-				// energy array, it means
-				// that this meter does not have a corresponding usage meter, so usage is zero.
-				// -1 because the first token in usageSt is the date.
-				if (usageSt == null || i >= usageSt.length - 1) {
-					usedEnergy = 0;
-				} else {
-					usedEnergy = Double.parseDouble(usageSt[i + 1]);
-					totalDemand += usedEnergy;
-				}
-				// Find the relevant generated energy meter reading (if any) for this meter
-				// If this meter has a generated energy component
-				if (generatedMeterMap != null && generatedMeterMap.containsKey(i)) {
-					int index = generatedMeterMap.get(i);
-					generatedEnergy = Double.parseDouble(generatedSt[index])/2; // Divide by 2 contentious, should not be divide by 2 if generated energy is kWh.
-					// generatedEnergy=Double.parseDouble(generatedSt[generatedMeterMap.get(i)]);
-					totalGenerated += generatedEnergy;
+	protected void createPeriods(int firstYear, int numberOfYears, int firstDataPeriod, int lastDataPeriod) {
+		this.firstYear = firstYear;
+		this.firstDataPeriod = firstDataPeriod;
+		this.lastDataPeriod = lastDataPeriod;
+		costsPerPeriod = new CostPerMonth[meterNames.size()][numberOfYears * 12];
+		int reportingPeriod = (year - firstYear) * 12;
+		for (int i = 0; i < meterNames.size(); i++) {
+			for (int period = 0; period < numberOfYears * 12; period++) {
+				int month = period % 12;
+				if (period >= reportingPeriod && period < reportingPeriod + 12) {
+					costsPerPeriod[i][period] = costsPerMonth[i][month];
 				}
-				else  {// the generated energy will be zero
-					generatedEnergy=0;
+				else {
+					CostPerMonth parameters = costsPerMonth[i][month];
+					CostPerMonth costPerMonth = new CostPerMonth(meterNames.get(i), month, firstYear + period / 12);
+					costPerMonth.spotPriceLossRatio = parameters.spotPriceLossRatio;
+					costPerMonth.feedInLossRatio = parameters.feedInLossRatio;
+					costPerMonth.demandCapacityUsage = parameters.demandCapacityUsage;
+					costPerMonth.demandCriticalPeakUsage = parameters.demandCriticalPeakUsage;
+					costsPerPeriod[i][period] = costPerMonth;
 				}
-				// Spot Price and Feed in tariff always second item in priceSt and feedInSt
-				costsPerMonth[i][month].addUnitOfCharges(networkParameters, recordDateTime, usedEnergy,
-						priceSt == null ? 0.0 : Double.parseDouble(priceSt[1]), generatedEnergy,
-						feedInSt == null ? 0.0 : Double.parseDouble(feedInSt[1]));
 			}
 		}
 	}
-	
+
+	/**
+	 * Number of months in costsPerPeriod.
+	 * 
+	 * @return Number of months, 0 if createPeriods has not been called.
+	 */
+	public int getNumberOfPeriods() {
+		return costsPerPeriod == null || costsPerPeriod.length == 0 ? 0 : costsPerPeriod[0].length;
+	}
+
+	/**
+	 * Find the period of a month.
+	 * 
+	 * @param month Year and month.
+	 * 
+	 * @return Number of months since January of firstYear - outside costsPerPeriod if the month isn't covered by the data.
+	 */
+	public int getPeriod(YearMonth month) {
+		return (month.getYear() - firstYear) * 12 + month.getMonthValue() - 1;
+	}
+
 	/**
-	 * Calculate the per month costs once all the data has been read in from the usage and price files and processed
+	 * Name of a period for output.
+	 * 
+	 * @param period Number of months since January of firstYear.
+	 * 
+	 * @return Month and year, e.g. "July 2021".
+	 */
+	public String getPeriodName(int period) {
+		return MONTH_NAMES[period % 12] + " " + (firstYear + period / 12);
+	}
+
+	/**
+	 * Calculate the per month costs once all the data has been read in from the usage and price files and processed - every month
+	 * of every year if createPeriods has been called, otherwise just the reporting year.  Each meter is recorded as a
+	 * MeterTotalsEvent when Java Flight Recorder is running.
 	 * 
 	 * @param networkParamenters Energy charge, Network charge, Spot Energy, Market charge and Other Charge Loss ratios and pricing. 
 	 * 
 	 * @throws Exception Rethrows an exception from any called method. 
 	 */
 	public void calculateCosts(NetworkParameter networkParamenters) throws Exception {
-		for (int i=0;i<12;i++) { //Month by month
-			for (int j=0;j<meterNames.size();j++) { //Meter by meter
-				costsPerMonth[j][i].calcuateCharges(networkParamenters);
+		CostPerMonth[][] costs = costsPerPeriod != null ? costsPerPeriod : costsPerMonth;
+		for (int j=0;j<meterNames.size();j++) { //Meter by meter
+			MeterTotalsEvent event = new MeterTotalsEvent();
+			event.begin();
+			for (int i=0;i<getNumberOfPeriods(costs);i++) { //Month by month
+				costs[j][i].calcuateCharges(networkParamenters);
+			}
+			event.end();
+			if (event.shouldCommit()) {
+				event.calculation = "Cost";
+				event.meter = meterNames.get(j);
+				event.months = getNumberOfPeriods(costs);
+				event.commit();
 			}
 		}
 	}
+
+	/**
+	 * Number of months of costs held for each meter.
+	 * 
+	 * @param costs costsPerMonth or costsPerPeriod.
+	 * 
+	 * @return Number of months.
+	 */
+	private static int getNumberOfPeriods(CostPerMonth[][] costs) {
+		return costs.length == 0 ? 0 : costs[0].length;
+	}
+
+	/**
+	 * Total energy bill of each meter for a range of months, which can be any length and cross calendar years.  Uses the monthly
+	 * costs already calculated by calculateCosts.
+	 * 
+	 * @param firstPeriod First month of the range, as an index into costsPerPeriod.
+	 * @param lastPeriod Last month of the range, as an index into costsPerPeriod.
+	 * 
+	 * @return Total charge including GST for each meter, in the same order as meterNames, followed by the grand total of all meters.
+	 */
+	public double[] calculateRangeTotals(int firstPeriod, int lastPeriod) {
+		double[] totals = new double[meterNames.size() + 1];
+		for (int i = 0; i < meterNames.size(); i++) {
+			for (int period = firstPeriod; period <= lastPeriod; period++) {
+				totals[i] += costsPerPeriod[i][period].totalChargeIncGST;
+			}
+			totals[meterNames.size()] += totals[i];
+		}
+		return totals;
+	}
 	
 	/**
 	 * Create a summary of the monthly cost data that can be eventually displayed on the Cost Summary pane of the UI
@@ -356,6 +386,17 @@ public class Cost {
 	 * @return Table model containing Energy Costs
 	 */
 	public CEREITableModel createSummaryCostTableModel() {
+    	createCostSummaries();
+    	
+    	return(createSummaryTableModel(allMeterCostSummaries));
+		
+	}
+
+	/**
+	 * Summarise the costs meter by meter plus a grand total, without creating a table model.  The savings calculations
+	 * and the .csv files need these summaries.
+	 */
+	public void createCostSummaries() {
     	// Trawl through the per Month data and generate the summary information.
     	realMeterCostSummaries = createRealMeterCostSummaries();
     	MeterSummary totalCostMeter = createTotalMeterCostSummay(realMeterCostSummaries);
@@ -365,9 +406,30 @@ public class Cost {
     	//Quick and dirty hack to get some output without column order or sub-totals.
     	allMeterCostSummaries = realMeterCostSummaries;
     	allMeterCostSummaries.add(totalCostMeter);
-    	
-    	return(createSummaryTableModel(allMeterCostSummaries));
+
+    	columnNames = createColumnNames(allMeterCostSummaries);
+	}
+
+	/**
+	 * Column names for the summary table - year, quarter, month and then the names of the meters.
+	 * 
+	 * @param allMeterSummaries Costs in MeterSummary Form.
+	 * 
+	 * @return Names of the columns.
+	 */
+	private String[] createColumnNames(List<MeterSummary> allMeterSummaries) {
+		String[] names = new String[allMeterSummaries.size()+3]; //Add three for extra columns for year, quarter and month
 		
+		// First three column names are fixed
+		names[0] = "Year";
+		names[1] = "Quarter";
+		names[2] = "Month";
+		
+		// Then the names of the meters
+		for (int i=0; i<allMeterSummaries.size(); i++) {
+			names[i+3] = allMeterSummaries.get(i).meterName;
+		}
+		return names;
 	}
 
 	/**
@@ -379,17 +441,7 @@ public class Cost {
 	 */
 	public CEREITableModel createSummaryTableModel(List<MeterSummary> allMeterSummaries) {
     	//Create the column names for the JTable.
-		columnNames = new String[allMeterSummaries.size()+3]; //Add three for extra columns for year, quarter and month
-		
-		// First three column names are fixed
-		columnNames[0] = "Year";
-		columnNames[1] = "Quarter";
-		columnNames[2] = "Month";
-		
-		// Then the names of the meters
-		for (int i=0; i<allMeterCostSummaries.size(); i++) {
-			columnNames[i+3] = allMeterCostSummaries.get(i).meterName;
-		}
+		columnNames = createColumnNames(allMeterSummaries);
 
 		//Now the data for the JTable
 		String[][] costData = createSummaryOutput(allMeterSummaries);
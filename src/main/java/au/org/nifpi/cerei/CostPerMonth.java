@@ -1,6 +1,5 @@
 package au.org.nifpi.cerei;
 
-import java.time.LocalDateTime;
 import java.time.Year;
 
 /**
@@ -153,76 +152,6 @@ public class CostPerMonth {
 		this.demandCriticalPeakUsage = monthlyParameter.demandCriticalPeakUsage;
 	}
 	
-	/**
-	 * Inner loop that processes each 30 minute spot price and usage to accumulate overall usage.  Used to add up the 
-	 * total usage, aggregate usages and spot price charges.
-	 * The PEI calculations can be optimised by removing them from this inner loop.  However, that would make understanding the code more difficult.  
-	 * For now, inner loop left as inefficient
-	 *  
-	 * @param networkParameters Complete Energy charge, Network charge, Spot Energy, Market charge and Other Charge Loss ratios and pricing.
-	 * @param recordDateTime Timestamp for this particular reading
-	 * @param usage energy used from grid
-	 * @param spotPrice Spot price that applies to this particular reading
-	 * @param generated energy generated
-	 * @param feedInTariff Feed in tarrif that applies to this particular reading
-	 */
-	protected void addUnitOfCharges(NetworkParameter networkParameters, LocalDateTime recordDateTime, double usage, double spotPrice, double generated, double feedInTariff) {
-		double spotPriceIncLoss, feedInTariffIncLoss;
-		double nett;
-		double gridUsed = 0;
-		int usageType;
-		
-		// Get the month and hour and minute from the usage date stamp.
-		int hour = recordDateTime.getHour(); //Already in the range 0 - 23
-		int minute = recordDateTime.getMinute(); // In the range 0 - 59
-		int dayOfWeek = recordDateTime.getDayOfWeek().getValue()-1; //Minus 1 to turn day into our array index
-
-		// Start processing this 30 minutes' data
-		// Calculate net usage for the month
-		nett = usage - generated;
-		
-		//Accumulate monthly usages
-		// monthlyUsage += usage;  //No longer used in calculations
-		monthlyGenerated += generated;
-		//monthlyNett += nett; // No longer used in calculations
-		
-		if (nett > 0) {
-			gridUsed = nett;
-			monthlyNettGridUsed += nett;
-		}
-		else {
-			monthlyNettExported += nett;
-		}
-
-		spotPriceIncLoss = spotPrice + (spotPrice * this.spotPriceLossRatio); // EQ1
-		feedInTariffIncLoss = feedInTariff + (feedInTariff * this.feedInLossRatio); // EQ1
-
-		// TO DO - move this up to the earlier if statement - have to change comments to suit.
-		if (nett > 0) {
-			poolPassThroughCharge +=  spotPriceIncLoss*nett; // EQ2
-		}
-		else {
-			feedInCharge += feedInTariffIncLoss*nett; //EQ3
-		}
-			
-		// Find out whether the applicable rate is PEAK, SHOULDER or OFFPEAK
-		int tariffRateIndex = 2*hour + 2*minute/60;
-		usageType = networkParameters.rate[dayOfWeek][tariffRateIndex];
-		
-		// Accumulate the PEAK, SHOULDER or OFFPEAK as appropriate
-		// Look out - more divide by two's here!
-		switch (usageType) {
-		case NetworkParameter.PEAK:
-			peakUsage += gridUsed;  // In preparation for EQ5
-			break;
-		case NetworkParameter.SHOULDER:
-			shoulderUsage += gridUsed; // In preparation for EQ5
-			break;
-		default:
-			offpeakUsage += gridUsed; // In preparation for EQ5
-		}
-	}
-	
 	/**
 	 * Calculate all charges once usage and price files for that meter and month processed.
 	 * 
@@ -239,7 +168,7 @@ public class CostPerMonth {
 		double aemoPoolRertRateIncLoss = networkParamters.parameters[month].aemoPoolRertRate + networkParamters.parameters[month].aemoPoolRertRate*networkParamters.parameters[this.month].aemoPoolRertLossRatio;
 		double ancilliaryServicesRateIncLoss = networkParamters.parameters[month].ancilliaryServicesRate + networkParamters.parameters[month].ancilliaryServicesRate*networkParamters.parameters[this.month].ancilliaryServicesLossRatio;
 		//Energy charge components
-		//Pool pass through charge calculated incrementally in addUnitOfCharges()
+		//Pool pass through charge calculated incrementally in ChargeAccumulator
 		
 		this.serviceAdminCharge = networkParamters.parameters[month].serviceAdminRate*daysInMonth; // EQ3
 		
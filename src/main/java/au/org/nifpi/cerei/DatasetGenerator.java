@@ -0,0 +1,629 @@
+package au.org.nifpi.cerei;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a synthetic set of input files - Network Tariff, Energy Usage, AEMO Spot Price, Energy Generated, Feed-in Tariff, Business
+ * as Usual Bill and Lifecycle Costs - in the same formats as the sample case studies, for any number of meters, years and interval
+ * length.  It is for trying out the calculations at the scale of a large portfolio, e.g. 10,000 meters, 5 years of 5 minute
+ * intervals, on a developer's computer.
+ * <p>
+ * The values come from a seeded random number generator, so the same settings and seed always give exactly the same files.  They
+ * are shaped to look like real data:
+ * <ul>
+ * <li>Energy Usage - each meter has its own base load, opening hours, weekend use and heating and cooling loads, with a summer peak
+ * in January and a winter peak in July, plus some noise.
+ * <li>Energy Generated - PV following the sun, with longer days in summer and a random amount of cloud each day.
+ * <li>AEMO Spot Price - morning and evening peaks, a dip (sometimes below zero) when the sun is up, higher prices in summer and
+ * winter and the occasional price spike in the evening.  The Feed-in Tariff follows the spot price, as in the sample case studies.
+ * <li>Business as Usual Bill - monthly bills for the first year worked out from the usage at a flat rate per kWh plus a daily charge.
+ * <li>Lifecycle Costs - PV panels, inverters and maintenance sized for the generators.
+ * </ul>
+ * Each timestamp is the end of its interval, as in the files from the meters.  Without any generators only the Network Tariff,
+ * Energy Usage, AEMO Spot Price and Business as Usual files are written.
+ * <p>
+ * With -sites each site gets its own sub-directory and seed, so the output directory can be given straight to the BatchRunner.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class DatasetGenerator {
+
+	/** Names of the input files, in the order Network Tariff, Energy Usage, Spot Price, Energy Generated, Feed-in Tariff,
+	 * Business as Usual, Lifecycle Costs.  Each file is called "Input n - name - site name.csv" */
+	public static final String[] INPUT_NAMES = { "Network Tariff", "Energy Usage", "AEMO Spot Price", "Energy Generated Renewable",
+			"Feed-in Tariff Rate", "Business as usual Bill", "Lifecycle Costs" };
+
+	/** Names of the quarters in the Business as Usual file */
+	private static final String[] QUARTERS = { "Q1", "Q2", "Q3", "Q4" };
+
+	/** Number of usage meters */
+	private int meters;
+	/** Number of generating (PV) meters */
+	private int generators = 1;
+	/** true to distribute the generated energy across the usage meters */
+	private boolean distributed = false;
+	/** First calendar year of the data */
+	private int firstYear = 2020;
+	/** Number of calendar years of data */
+	private int years;
+	/** Length of each interval in minutes */
+	private int intervalMinutes;
+	/** Seed for all the random values */
+	private long seed;
+
+	/** Load shape of each usage meter */
+	private MeterProfile[] profiles;
+	/** Size of each PV system in kW */
+	private double[] pvCapacity;
+	/** kWh used by each meter in each month of the first year - for the Business as Usual bill */
+	private double[][] firstYearUsage;
+
+	/**
+	 * The load shape of one usage meter.
+	 */
+	private static class MeterProfile {
+		/** Load in kW outside opening hours */
+		double baseLoad;
+		/** Load during opening hours as a multiple of the base load */
+		double businessFactor;
+		/** Opening and closing hours */
+		double openHour, closeHour;
+		/** Load on weekends as a fraction of the weekday load during opening hours */
+		double weekendFactor;
+		/** Extra load on the hottest and coldest afternoons as a fraction of the base load */
+		double coolingFactor, heatingFactor;
+		/** Price of the Business as Usual bill in $/kWh */
+		double billRate;
+		/** Current noise, so that the noise wanders rather than jumps */
+		double noise;
+	}
+
+	/**
+	 * Set up a generator.  Nothing is written until generate is called.
+	 *
+	 * @param meters Number of usage meters.
+	 * @param years Number of calendar years of data.
+	 * @param intervalMinutes Length of each interval in minutes - must divide into an hour.
+	 * @param seed Seed for all the random values.
+	 */
+	public DatasetGenerator(int meters, int years, int intervalMinutes, long seed) {
+		this.meters = meters;
+		this.years = years;
+		this.intervalMinutes = intervalMinutes;
+		this.seed = seed;
+	}
+
+	/**
+	 * Set the number of generating (PV) meters.
+	 *
+	 * @param generators Number of generators, 0 for a site without any generation.
+	 */
+	public void setGenerators(int generators) {
+		this.generators = generators;
+	}
+
+	/**
+	 * Distribute the generated energy across the usage meters, rather than treat the generators as meters of their own.
+	 *
+	 * @param distributed true to add "Generation, Distributed" to the Network Tariff.
+	 */
+	public void setDistributed(boolean distributed) {
+		this.distributed = distributed;
+	}
+
+	/**
+	 * Set the first calendar year of the data.
+	 *
+	 * @param firstYear First year, 2020 unless set.
+	 */
+	public void setFirstYear(int firstYear) {
+		this.firstYear = firstYear;
+	}
+
+	/**
+	 * Run the generator from the command line.
+	 *
+	 * @param args [-out &lt;directory&gt;] [-sites &lt;n&gt;] [-meters &lt;n&gt;] [-generators &lt;n&gt;] [-distributed]
+	 * [-start &lt;yyyy&gt;] [-years &lt;n&gt;] [-interval &lt;minutes&gt;] [-seed &lt;n&gt;]
+	 */
+	public static void main(String[] args) {
+		File outputDirectory = new File("CEREI Synthetic Data");
+		int sites = 1, meters = 10, generators = 1, firstYear = 2020, years = 1, intervalMinutes = 30;
+		long seed = 1;
+		boolean distributed = false;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("-out") && i + 1 < args.length) {
+					outputDirectory = new File(args[++i]);
+				} else if (args[i].equals("-sites") && i + 1 < args.length) {
+					sites = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-meters") && i + 1 < args.length) {
+					meters = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-generators") && i + 1 < args.length) {
+					generators = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-distributed")) {
+					distributed = true;
+				} else if (args[i].equals("-start") && i + 1 < args.length) {
+					firstYear = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-years") && i + 1 < args.length) {
+					years = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-interval") && i + 1 < args.length) {
+					intervalMinutes = Integer.parseInt(args[++i]);
+				} else if (args[i].equals("-seed") && i + 1 < args.length) {
+					seed = Long.parseLong(args[++i]);
+				} else {
+					usage();
+					System.exit(2);
+				}
+			}
+		} catch (NumberFormatException e) {
+			usage();
+			System.exit(2);
+		}
+		if (sites < 1 || meters < 1 || generators < 0 || years < 1 || (distributed && generators == 0)) {
+			usage();
+			System.exit(2);
+		}
+		if (!CompiledTariff.isSupportedInterval(intervalMinutes)) {
+			System.err.println("Invalid interval " + intervalMinutes + " - must be a number of minutes that divides into an hour");
+			System.exit(2);
+		}
+
+		try {
+			for (int site = 1; site <= sites; site++) {
+				String siteName = sites == 1 ? "Synthetic" : "Synthetic Site " + site;
+				File directory = sites == 1 ? outputDirectory : new File(outputDirectory, siteName);
+				System.out.println("Writing " + directory);
+				DatasetGenerator generator = new DatasetGenerator(meters, years, intervalMinutes, seed + site - 1);
+				generator.setGenerators(generators);
+				generator.setDistributed(distributed);
+				generator.setFirstYear(firstYear);
+				generator.generate(directory, siteName);
+			}
+		} catch (Exception e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Print the command line arguments.
+	 */
+	private static void usage() {
+		System.err.println("Usage: DatasetGenerator [-out <directory>] [-sites <n>] [-meters <n>] [-generators <n>] [-distributed] [-start <yyyy>] [-years <n>] [-interval 5|15|30] [-seed <n>]");
+	}
+
+	/**
+	 * Write the input files for one site.
+	 *
+	 * @param directory Where the files go - created if it doesn't exist.
+	 * @param siteName Added to the end of each file name.
+	 *
+	 * @throws Exception If the settings are invalid or a file cannot be written.
+	 *
+	 * @return Input files in the order Network Tariff, Energy Usage, Spot Price, Energy Generated, Feed-in Tariff, Business as Usual,
+	 * Lifecycle Costs - null for those not written.
+	 */
+	public File[] generate(File directory, String siteName) throws Exception {
+		if (!CompiledTariff.isSupportedInterval(intervalMinutes)) {
+			throw new Exception(intervalMinutes + " minute intervals are not supported.  The interval length must divide into an hour");
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new Exception("Cannot create " + directory);
+		}
+		File[] files = new File[INPUT_NAMES.length];
+		for (int i = 0; i < files.length; i++) {
+			if (generators > 0 || (i != 3 && i != 4 && i != 6)) {
+				files[i] = new File(directory, "Input " + (i + 1) + " - " + INPUT_NAMES[i] + " - " + siteName + ".csv");
+			}
+		}
+
+		SplittableRandom random = new SplittableRandom(seed);
+		createProfiles(random);
+		writeTariff(files[0], random);
+		writeIntervals(files[1], files[2], files[3], files[4], random);
+		writeBusinessAsUsual(files[5]);
+		if (files[6] != null) {
+			writeLifecycleCosts(files[6]);
+		}
+		return files;
+	}
+
+	/**
+	 * Pick the load shape of each usage meter and the size of each PV system.
+	 *
+	 * @param random Source of the random values.
+	 */
+	private void createProfiles(SplittableRandom random) {
+		profiles = new MeterProfile[meters];
+		for (int meter = 0; meter < meters; meter++) {
+			MeterProfile profile = new MeterProfile();
+			// Mostly small sites with the odd big one
+			profile.baseLoad = 0.5 * Math.exp(random.nextDouble() * 4.5);
+			profile.businessFactor = 1.3 + random.nextDouble() * 1.7;
+			profile.openHour = 6 + random.nextInt(4);
+			profile.closeHour = 16 + random.nextInt(6);
+			profile.weekendFactor = 0.3 + random.nextDouble() * 0.6;
+			profile.coolingFactor = random.nextDouble() * 0.8;
+			profile.heatingFactor = random.nextDouble() * 0.5;
+			profile.billRate = 0.25 + random.nextDouble() * 0.1;
+			profiles[meter] = profile;
+		}
+		// Enough PV between them to cover a good part of the daytime load
+		double totalBaseLoad = 0;
+		for (MeterProfile profile : profiles) {
+			totalBaseLoad += profile.baseLoad * profile.businessFactor;
+		}
+		pvCapacity = new double[generators];
+		for (int generator = 0; generator < generators; generator++) {
+			pvCapacity[generator] = Math.max(5, Math.round(totalBaseLoad * (0.5 + random.nextDouble()) / generators));
+		}
+		firstYearUsage = new double[meters][12];
+	}
+
+	/**
+	 * Name of a usage meter.
+	 *
+	 * @param meter Index of the meter.
+	 *
+	 * @return e.g. "NMI1".
+	 */
+	private static String usageMeterName(int meter) {
+		return "NMI" + (meter + 1);
+	}
+
+	/**
+	 * Name of a generating meter.
+	 *
+	 * @param generator Index of the generator.
+	 *
+	 * @return e.g. "PV1".
+	 */
+	private static String generatorName(int generator) {
+		return "PV" + (generator + 1);
+	}
+
+	/**
+	 * Network Tariff with Peak and Shoulder times on weekdays, general parameters that change a little from month to month and a
+	 * block of parameters for every usage meter and generator.
+	 *
+	 * @param file Network Tariff file.
+	 * @param random Source of the per meter parameters.
+	 *
+	 * @throws IOException If the file cannot be written.
+	 */
+	private void writeTariff(File file, SplittableRandom random) throws IOException {
+		try (Writer writer = open(file)) {
+			writer.write("Tariff,Synthetic\n");
+			writer.write("Peak,Mon-Fri 07:00 10:00,Mon-Fri 16:00 23:00\n");
+			writer.write("Shoulder,Mon-Fri 10:00 16:00\n");
+			writer.write("Offpeak,Other\n");
+			writer.write(distributed ? "Generation,Distributed\n" : "Generation\n");
+			writer.write("General\n");
+			writer.write("Month,Service and Admin Charge ($/Day),Standing Charge ($/Yr),Demand Capacity ($/kVA/Mth),"
+					+ "Demand Critical Peak ($/kVA/Mth),VEET Charge (c/kWh),VEET Loss Ratio,SRES Charge (c/kWh),SRES Loss Ratio,"
+					+ "LRET Charge (c/kWh),LRET Loss Ratio,AEMO Pool RERT Charge (GST Exempt) (c/kWh),AEMO + RERT Loss Ratio,"
+					+ "Ancillary Services (c/kWh),Ancillary Services Loss Ratio,Meter Charge ($/Yr),"
+					+ "CT Compliance Testing Levy ($/Yr),Peak Rate (c/kWh),Shoulder Rate (c/kWh),Off-peak Rate (c/kWh)\n");
+			StringBuilder line = new StringBuilder();
+			for (Month month : Month.values()) {
+				line.setLength(0);
+				line.append(monthName(month)).append(",2.09,5962,0.345,0.57,");
+				appendDecimal(line, 0.6 + random.nextDouble() * 0.2, 4).append(",0.0757,");
+				appendDecimal(line, 0.95 + random.nextDouble() * 0.05, 4).append(",0.0755,");
+				appendDecimal(line, 0.7 + random.nextDouble() * 0.35, 4).append(",0.0758,");
+				appendDecimal(line, 0.045 + random.nextDouble() * 0.01, 4).append(",0.0667,0.09,0.0778,1039.5,121,11.7,5.43,1.62\n");
+				writer.append(line);
+			}
+			for (int meter = 0; meter < meters + generators; meter++) {
+				// The demand charges follow the size of the meter
+				double size = meter < meters ? profiles[meter].baseLoad * profiles[meter].businessFactor : pvCapacity[meter - meters];
+				writer.write("Meter," + (meter < meters ? usageMeterName(meter) : generatorName(meter - meters)) + "\n");
+				writer.write("Month,Loss Ratio (Spot Price),Loss Ratio (Feed-in)),Demand Capacity ($/kVA/Mth),"
+						+ "Demand Critical Peak ($/kVA/Mth)\n");
+				double lossRatio = 0.06 + random.nextDouble() * 0.01;
+				long capacity = Math.max(10, Math.round(size * 1.25));
+				for (Month month : Month.values()) {
+					line.setLength(0);
+					line.append(monthName(month)).append(',');
+					appendDecimal(line, lossRatio, 6).append(',');
+					appendDecimal(line, lossRatio, 6).append(',').append(capacity).append(',');
+					appendDecimal(line, meter < meters ? capacity * (0.1 + random.nextDouble() * 0.3) : 0, 4).append('\n');
+					writer.append(line);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Energy Usage, AEMO Spot Price, Energy Generated and Feed-in Tariff files with one line per interval, written side by side.
+	 *
+	 * @param usageFile Energy Usage file.
+	 * @param priceFile AEMO Spot Price file.
+	 * @param generatedFile Energy Generated file, null if there are no generators.
+	 * @param feedInFile Feed-in Tariff file, null if there are no generators.
+	 * @param random Source of the noise in the values.
+	 *
+	 * @throws IOException If the files cannot be written.
+	 */
+	private void writeIntervals(File usageFile, File priceFile, File generatedFile, File feedInFile, SplittableRandom random)
+			throws IOException {
+		try (Writer usage = open(usageFile); Writer price = open(priceFile);
+				Writer generated = generatedFile == null ? null : open(generatedFile);
+				Writer feedIn = feedInFile == null ? null : open(feedInFile)) {
+			StringBuilder line = new StringBuilder();
+			line.append("Date and Time");
+			for (int meter = 0; meter < meters; meter++) {
+				line.append(',').append(usageMeterName(meter));
+			}
+			usage.append(line).append('\n');
+			price.write("Date and Time,PriceAEMO ($/kWh)\n");
+			if (generated != null) {
+				line.setLength(0);
+				line.append("Date and Time");
+				for (int generator = 0; generator < generators; generator++) {
+					line.append(',').append(generatorName(generator));
+				}
+				generated.append(line).append('\n');
+				feedIn.write("Date and Time,Feed-in Tariff Rate ($/kWh)\n");
+			}
+
+			int intervalsPerDay = NetworkParameter.MINUTES_PER_DAY / intervalMinutes;
+			double hoursPerInterval = intervalMinutes / 60.0;
+			// Times of day at the end of each interval - the last one is midnight on the next day
+			String[] times = new String[intervalsPerDay];
+			for (int j = 0; j < intervalsPerDay; j++) {
+				int minute = ((j + 1) * intervalMinutes) % NetworkParameter.MINUTES_PER_DAY;
+				times[j] = " " + minute / 60 + ":" + (minute % 60 < 10 ? "0" : "") + minute % 60;
+			}
+			double[] cloud = new double[generators];
+			double priceLevel = 0;
+
+			LocalDate end = LocalDate.of(firstYear + years, 1, 1);
+			String date = dateString(LocalDate.of(firstYear, 1, 1));
+			for (LocalDate day = LocalDate.of(firstYear, 1, 1); day.isBefore(end); day = day.plusDays(1)) {
+				String nextDate = dateString(day.plusDays(1));
+				boolean weekday = day.getDayOfWeek().getValue() <= 5;
+				boolean firstYearDay = day.getYear() == firstYear;
+				int month = day.getMonthValue() - 1;
+				// 1 in the middle of January (summer), -1 in the middle of July (winter)
+				double season = Math.cos(2 * Math.PI * (day.getDayOfYear() - 15) / 365.25);
+				// 1 in the middle of October, when mild days and lots of sun push the spot price down the most
+				double spring = Math.max(0, -Math.sin(2 * Math.PI * (day.getDayOfYear() - 15) / 365.25));
+				double dayLength = 12 + 2.2 * season;
+				double sunrise = 12 - dayLength / 2;
+				// Cloud for the day - mostly clear, sometimes overcast
+				for (int generator = 0; generator < generators; generator++) {
+					cloud[generator] = random.nextDouble() < 0.7 ? 0.85 + random.nextDouble() * 0.15 : 0.2 + random.nextDouble() * 0.6;
+				}
+				// The spot price wanders from day to day
+				priceLevel = 0.8 * priceLevel + (random.nextDouble() - 0.5) * 0.02;
+
+				for (int j = 0; j < intervalsPerDay; j++) {
+					String timestamp = (j == intervalsPerDay - 1 ? nextDate : date) + times[j];
+					double hour = (j + 0.5) * hoursPerInterval;
+					double sun = hour > sunrise && hour < sunrise + dayLength ? Math.pow(Math.sin(Math.PI * (hour - sunrise) / dayLength), 1.2) : 0;
+					// Cooling on summer afternoons, heating on winter mornings and evenings
+					double weather = Math.max(0, season) * Math.exp(-Math.pow(hour - 15, 2) / 8)
+							+ Math.max(0, -season) * (Math.exp(-Math.pow(hour - 8, 2) / 4) + Math.exp(-Math.pow(hour - 19, 2) / 4));
+
+					line.setLength(0);
+					line.append(timestamp);
+					for (int meter = 0; meter < meters; meter++) {
+						MeterProfile profile = profiles[meter];
+						double open = Math.min(1, Math.max(0, Math.min(hour - profile.openHour + 0.5, profile.closeHour + 0.5 - hour)));
+						double business = 1 + (profile.businessFactor - 1) * open * (weekday ? 1 : profile.weekendFactor);
+						double extra = season > 0 ? profile.coolingFactor : profile.heatingFactor;
+						profile.noise = 0.8 * profile.noise + (random.nextDouble() - 0.5) * 0.1;
+						double kWh = profile.baseLoad * (business + extra * weather) * (1 + profile.noise) * hoursPerInterval;
+						appendDecimal(line.append(','), kWh, 3);
+						if (firstYearDay) {
+							firstYearUsage[meter][month] += kWh;
+						}
+					}
+					usage.append(line).append('\n');
+
+					double spot = 0.06 + 0.03 * Math.abs(season) + priceLevel + 0.03 * Math.exp(-Math.pow(hour - 8, 2) / 2)
+							+ 0.08 * (1 + 0.5 * Math.max(0, season)) * Math.exp(-Math.pow(hour - 18.5, 2) / 3)
+							- (0.07 + 0.03 * spring) * sun
+							+ (random.nextDouble() - 0.5) * 0.01;
+					if (hour >= 16 && hour < 21 && random.nextDouble() < 0.004 * hoursPerInterval) {
+						spot += 0.3 + random.nextDouble() * 5;
+					}
+					line.setLength(0);
+					appendDecimal(line.append(timestamp).append(','), spot, 5).append('\n');
+					price.append(line);
+
+					if (generated != null) {
+						feedIn.append(line);
+						line.setLength(0);
+						line.append(timestamp);
+						for (int generator = 0; generator < generators; generator++) {
+							double variability = cloud[generator] < 0.85 ? 0.5 + random.nextDouble() * 0.5 : 1;
+							appendDecimal(line.append(','), pvCapacity[generator] * sun * cloud[generator] * variability * hoursPerInterval, 3);
+						}
+						generated.append(line).append('\n');
+					}
+				}
+				date = nextDate;
+			}
+		}
+	}
+
+	/**
+	 * Business as Usual Bill for the first year - the month by month bill of each usage meter at a flat rate per kWh plus a daily
+	 * charge, with quarterly and annual totals.
+	 *
+	 * @param file Business as Usual file.
+	 *
+	 * @throws IOException If the file cannot be written.
+	 */
+	private void writeBusinessAsUsual(File file) throws IOException {
+		try (Writer writer = open(file)) {
+			StringBuilder line = new StringBuilder();
+			writer.write("Year,Quarter,Month,Days,Business as Usual\n");
+			writer.write(",,,,Total IncGST ($)\n");
+			line.append(",,,");
+			for (int meter = 0; meter < meters; meter++) {
+				line.append(',').append(usageMeterName(meter));
+			}
+			writer.append(line).append('\n');
+
+			double[] quarterly = new double[meters];
+			double[] annual = new double[meters];
+			int quarterDays = 0, yearDays = 0;
+			for (Month month : Month.values()) {
+				int m = month.getValue() - 1;
+				int days = month.length(LocalDate.of(firstYear, 1, 1).isLeapYear());
+				line.setLength(0);
+				line.append(m == 0 ? String.valueOf(firstYear) : "").append(',').append(m % 3 == 0 ? QUARTERS[m / 3] : "").append(',')
+						.append(monthName(month)).append(',').append(days);
+				for (int meter = 0; meter < meters; meter++) {
+					double bill = firstYearUsage[meter][m] * profiles[meter].billRate + days * 5;
+					appendDecimal(line.append(','), bill, 4);
+					quarterly[meter] += bill;
+				}
+				writer.append(line).append('\n');
+				quarterDays += days;
+				if (m % 3 == 2) {
+					line.setLength(0);
+					line.append(",,Quarterly,").append(quarterDays);
+					for (int meter = 0; meter < meters; meter++) {
+						appendDecimal(line.append(','), quarterly[meter], 4);
+						annual[meter] += quarterly[meter];
+						quarterly[meter] = 0;
+					}
+					writer.append(line).append('\n');
+					yearDays += quarterDays;
+					quarterDays = 0;
+				}
+			}
+			line.setLength(0);
+			line.append(",Annual,,").append(yearDays);
+			for (int meter = 0; meter < meters; meter++) {
+				appendDecimal(line.append(','), annual[meter], 4);
+			}
+			writer.append(line).append('\n');
+		}
+	}
+
+	/**
+	 * Lifecycle Costs of the PV systems - panels, inverters replaced every 10 years and yearly maintenance.
+	 *
+	 * @param file Lifecycle Costs file.
+	 *
+	 * @throws IOException If the file cannot be written.
+	 */
+	private void writeLifecycleCosts(File file) throws IOException {
+		double totalCapacity = 0;
+		for (double capacity : pvCapacity) {
+			totalCapacity += capacity;
+		}
+		long inverters = (long) Math.ceil(totalCapacity / 100);
+		try (Writer writer = open(file)) {
+			writer.write("Investment Name,Synthetic PV,\n");
+			writer.write(",,\n");
+			writer.write("Lifetime,25,years\n");
+			writer.write("Discount Rate,5.5,\n");
+			writer.write("Inflation Rate,2,\n");
+			writer.write("Degradation Rate,0.5,\n");
+			writer.write(",,\n");
+			writer.write("Component,PV Panels,\n");
+			writer.write("Number of Units," + Math.round(totalCapacity) + ",\n");
+			writer.write("Capital Cost,900,each\n");
+			writer.write("Installation Cost,300,each\n");
+			writer.write(",,\n");
+			writer.write("Component,Inverters,\n");
+			writer.write("Number of Units," + inverters + ",\n");
+			writer.write("Capital Cost,15000,each\n");
+			writer.write("Installation Cost,2000,each\n");
+			writer.write("Replacement Cost,15000,10\n");
+			writer.write(",,\n");
+			writer.write("Component,Maintenance,\n");
+			writer.write("Number of Units,1,\n");
+			writer.write("Fixed O&M Cost," + Math.round(totalCapacity * 15) + ",each\n");
+			writer.write(",,\n");
+		}
+	}
+
+	/**
+	 * Open a file for writing with a large buffer, as the interval files can be many gigabytes.
+	 *
+	 * @param file File to write.
+	 *
+	 * @throws IOException If the file cannot be created.
+	 *
+	 * @return Writer for the file.
+	 */
+	private static Writer open(File file) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 20);
+	}
+
+	/**
+	 * Date in the d/MM/yyyy format of the sample case studies.
+	 *
+	 * @param day Date.
+	 *
+	 * @return e.g. "1/01/2020".
+	 */
+	private static String dateString(LocalDate day) {
+		return day.getDayOfMonth() + (day.getMonthValue() < 10 ? "/0" : "/") + day.getMonthValue() + "/" + day.getYear();
+	}
+
+	/**
+	 * Full English name of a month, as used in the Network Tariff and Business as Usual files.
+	 *
+	 * @param month Month.
+	 *
+	 * @return e.g. "January".
+	 */
+	private static String monthName(Month month) {
+		return month.getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+	}
+
+	/**
+	 * Append a value rounded to a number of decimal places, without trailing zeros.  Done by hand as Double.toString and
+	 * String.format are far too slow for billions of values.
+	 *
+	 * @param line Where the value goes.
+	 * @param value Value.
+	 * @param decimals Number of decimal places.
+	 *
+	 * @return line.
+	 */
+	static StringBuilder appendDecimal(StringBuilder line, double value, int decimals) {
+		long scale = 1;
+		for (int i = 0; i < decimals; i++) {
+			scale *= 10;
+		}
+		long scaled = Math.round(Math.abs(value) * scale);
+		if (value < 0 && scaled != 0) {
+			line.append('-');
+		}
+		line.append(scaled / scale);
+		long fraction = scaled % scale;
+		if (fraction != 0) {
+			line.append('.');
+			for (long digit = scale / 10; digit > fraction; digit /= 10) {
+				line.append('0');
+			}
+			while (fraction % 10 == 0) {
+				fraction /= 10;
+			}
+			line.append(fraction);
+		}
+		return line;
+	}
+}
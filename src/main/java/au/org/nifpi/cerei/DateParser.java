@@ -1,6 +1,7 @@
 package au.org.nifpi.cerei;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.temporal.ChronoField;
@@ -10,6 +11,9 @@ import java.util.Locale;
 
 /**
  * Dates in Energy Usage, Spot Price, Energy Used and Feed-in Tariff files have varying formats.  This class used to parse the various formats.
+ * The numeric formats (d/MM/uuuu H:mm and friends) are parsed by hand without creating any objects.  The format is detected from the 
+ * first timestamp parsed and locked in, so a DateParser should only be used for a single file when calling parseEpochMinute.  Anything the
+ * locked format does not match falls back to the list of known formats.
  * 
  * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
  */
@@ -18,6 +22,18 @@ public class DateParser {
 	/** Date formats that can be parsed */
 	List<DateTimeFormatter> knownPatterns; 
 
+	/** No format has been locked in yet */
+	private static final int UNKNOWN_FORMAT = -1;
+	/** Locked in to the hand written parser for numeric formats */
+	private static final int FAST_FORMAT = -2;
+
+	/** Format locked in from the first timestamp parsed: UNKNOWN_FORMAT, FAST_FORMAT or the index of the pattern in knownPatterns */
+	private int lockedFormat = UNKNOWN_FORMAT;
+	/** Separator between day, month and year for FAST_FORMAT: '/' or '-' */
+	private char lockedSeparator;
+	/** Number of digits in the year for FAST_FORMAT: 2 or 4 */
+	private int lockedYearDigits;
+
 	/**
 	 * Essentially the list of known date formats.  Additional formats can be added if they turn up.
 	 */
@@ -116,7 +132,7 @@ public class DateParser {
 	}
 	
 	/**
-	 * Parse a date time string against a number of formats.
+	 * Parse a date time string against a number of formats.  The pattern that worked last time is tried first.
 	 * 
 	 * @param dateTimeString The string to be parsed
 	 * @param file The name of the file that contains the string - so user can be alerted to a specific line in a specific file.
@@ -127,10 +143,21 @@ public class DateParser {
 	 * @return parsed dateTime in a form that is easy to process.
 	 */
 	public LocalDateTime parseDateTime(String dateTimeString, String file, int lineNumber) throws Exception {
-		for (DateTimeFormatter pattern : knownPatterns) {
+		if (lockedFormat >= 0) {
+			try {
+				return LocalDateTime.parse(dateTimeString, knownPatterns.get(lockedFormat));
+			} catch (Exception pe) {
+				// Fall through to the full list
+			}
+		}
+		for (int i = 0; i < knownPatterns.size(); i++) {
 		    try {
 		        // Take a try
-		        return LocalDateTime.parse(dateTimeString, pattern);
+		        LocalDateTime dateTime = LocalDateTime.parse(dateTimeString, knownPatterns.get(i));
+		        if (lockedFormat == UNKNOWN_FORMAT) {
+		        	lockedFormat = i;
+		        }
+		        return dateTime;
 
 		    } catch (Exception pe) {
 		        // Loop on
@@ -138,5 +165,178 @@ public class DateParser {
 		}
 		throw new Exception("Unknown date format in "+file+". Line number: "+lineNumber);
 	}
+
+	/**
+	 * Parse a date time held in part of a line read from a file and return it as minutes since 1 Jan 1970.
+	 * The first timestamp parsed decides the format for the rest of the file.  If it is d/MM/uuuu H:mm, d-MM-uuuu H:mm or a two digit year
+	 * version of either (time optional), every later timestamp is parsed by hand without creating a String or a LocalDateTime.  Otherwise, or
+	 * if a later timestamp doesn't match the locked in format, parseDateTime does the work.
+	 * 
+	 * @param line The line containing the timestamp
+	 * @param start Index of the first character of the timestamp
+	 * @param end Index after the last character of the timestamp
+	 * @param file The name of the file that contains the string - so user can be alerted to a specific line in a specific file.
+	 * @param lineNumber The line number of the dateTimeString in the file  - so user can be alerted to a specific line in a specific file.
+	 * 
+	 * @throws Exception If the timestamp cannot be parsed against a known format.
+	 * 
+	 * @return Minutes since 1 Jan 1970
+	 */
+	public long parseEpochMinute(CharSequence line, int start, int end, String file, int lineNumber) throws Exception {
+		if (lockedFormat == UNKNOWN_FORMAT) {
+			detectFormat(line, start, end);
+		}
+		if (lockedFormat == FAST_FORMAT) {
+			long epochMinute = parseNumeric(line, start, end, lockedSeparator, lockedYearDigits);
+			if (epochMinute != Long.MIN_VALUE) {
+				return epochMinute;
+			}
+		}
+		LocalDateTime dateTime = parseDateTime(line.subSequence(start, end).toString(), file, lineNumber);
+		return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+	}
+
+	/**
+	 * Decide whether the hand written parser can handle this file, based on the first timestamp.
+	 * 
+	 * @param line The line containing the timestamp
+	 * @param start Index of the first character of the timestamp
+	 * @param end Index after the last character of the timestamp
+	 */
+	private void detectFormat(CharSequence line, int start, int end) {
+		int firstSeparator = start;
+		while (firstSeparator < end && Character.isDigit(line.charAt(firstSeparator))) {
+			firstSeparator++;
+		}
+		if (firstSeparator == end) {
+			return;
+		}
+		char separator = line.charAt(firstSeparator);
+		if (separator != '/' && separator != '-') {
+			return;
+		}
+		// Year starts after the second separator.  Count its digits.
+		int yearStart = firstSeparator + 4; // One separator plus two month digits plus the second separator 
+		int yearEnd = yearStart;
+		while (yearEnd < end && Character.isDigit(line.charAt(yearEnd))) {
+			yearEnd++;
+		}
+		int yearDigits = yearEnd - yearStart;
+		if (yearDigits != 2 && yearDigits != 4) {
+			return;
+		}
+		if (parseNumeric(line, start, end, separator, yearDigits) != Long.MIN_VALUE) {
+			lockedFormat = FAST_FORMAT;
+			lockedSeparator = separator;
+			lockedYearDigits = yearDigits;
+		}
+	}
+
+	/**
+	 * Hand written parser for d/MM/uuuu H:mm style timestamps.  Only accepts timestamps that the matching pattern in knownPatterns would
+	 * parse to the same date and time, anything doubtful (e.g. 31 April, which the patterns quietly change to 30 April) is rejected so that 
+	 * the patterns can deal with it.
+	 * 
+	 * @param line The line containing the timestamp
+	 * @param start Index of the first character of the timestamp
+	 * @param end Index after the last character of the timestamp
+	 * @param separator Separator between day, month and year
+	 * @param yearDigits Number of digits in the year: 2 or 4
+	 * 
+	 * @return Minutes since 1 Jan 1970 or Long.MIN_VALUE if the timestamp does not match
+	 */
+	private static long parseNumeric(CharSequence line, int start, int end, char separator, int yearDigits) {
+		int i = start;
+		int day = 0, month = 0, year = 0, hour = 0, minute = 0;
+		int digits;
+
+		// Day - one or two digits
+		for (digits = 0; i < end && digits < 2 && Character.isDigit(line.charAt(i)); digits++, i++) {
+			day = day*10 + (line.charAt(i) - '0');
+		}
+		if (digits == 0 || i >= end || line.charAt(i++) != separator) {
+			return Long.MIN_VALUE;
+		}
+		// Month - exactly two digits
+		for (digits = 0; i < end && digits < 2 && Character.isDigit(line.charAt(i)); digits++, i++) {
+			month = month*10 + (line.charAt(i) - '0');
+		}
+		if (digits != 2 || i >= end || line.charAt(i++) != separator) {
+			return Long.MIN_VALUE;
+		}
+		// Year - exactly two or four digits
+		for (digits = 0; i < end && digits < yearDigits && Character.isDigit(line.charAt(i)); digits++, i++) {
+			year = year*10 + (line.charAt(i) - '0');
+		}
+		if (digits != yearDigits) {
+			return Long.MIN_VALUE;
+		}
+		if (yearDigits == 2) {
+			year += 2000;
+		}
+		// Optional time - space, one or two digit hour, colon, two digit minute.
+		if (i < end) {
+			if (line.charAt(i++) != ' ') {
+				return Long.MIN_VALUE;
+			}
+			for (digits = 0; i < end && digits < 2 && Character.isDigit(line.charAt(i)); digits++, i++) {
+				hour = hour*10 + (line.charAt(i) - '0');
+			}
+			if (digits == 0 || i >= end || line.charAt(i++) != ':') {
+				return Long.MIN_VALUE;
+			}
+			for (digits = 0; i < end && digits < 2 && Character.isDigit(line.charAt(i)); digits++, i++) {
+				minute = minute*10 + (line.charAt(i) - '0');
+			}
+			if (digits != 2 || i != end) {
+				return Long.MIN_VALUE;
+			}
+		}
+		if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) || hour > 23 || minute > 59) {
+			return Long.MIN_VALUE;
+		}
+		return epochDay(year, month, day)*1440 + hour*60 + minute;
+	}
+
+	/**
+	 * Number of days in a month.
+	 * 
+	 * @param year The year - needed for leap years.
+	 * @param month The month - 1 to 12
+	 * 
+	 * @return Number of days in the month: 28, 29, 30 or 31 as appropriate 
+	 */
+	private static int lengthOfMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	/**
+	 * Days since 1 Jan 1970 for a (valid) date.  Same calculation as LocalDate.toEpochDay() but without creating a LocalDate.
+	 * 
+	 * @param year The year
+	 * @param month The month - 1 to 12
+	 * @param day The day of the month
+	 * 
+	 * @return Days since 1 Jan 1970
+	 */
+	private static long epochDay(int year, int month, int day) {
+		// Count years from 1 March so that the leap day is at the end of the year.
+		long y = month <= 2 ? year - 1 : year;
+		long era = (y >= 0 ? y : y - 399) / 400;
+		long yearOfEra = y - era*400;
+		long dayOfYear = (153*(month + (month > 2 ? -3 : 9)) + 2)/5 + day - 1;
+		long dayOfEra = yearOfEra*365 + yearOfEra/4 - yearOfEra/100 + dayOfYear;
+		return era*146097 + dayOfEra - 719468;
+	}
 	
 }
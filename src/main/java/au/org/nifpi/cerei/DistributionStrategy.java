@@ -0,0 +1,110 @@
+package au.org.nifpi.cerei;
+
+import java.util.Locale;
+
+/**
+ * Decides how the energy generated in an interval is shared out across the distribution meters when the Network Tariff
+ * file has "Generation,Distributed".  Each strategy reduces the usage of some or all of the distribution meters by the generated
+ * energy, and any generated energy left over (once the meters' usage has all been covered) is given to the first distribution meter
+ * to be exported.
+ * <p>
+ * Strategies are chosen by name with the "Distribution" line of the Network Tariff file, or for a whole batch with the BatchRunner
+ * -distribution option.  setUp is called once per calculation, then distribute once per interval, so distribute must not allocate
+ * anything.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public interface DistributionStrategy {
+
+	/** Name of the default strategy - fill the distribution meters one after the other in distribution order */
+	public static final String GREEDY = "Greedy";
+	/** Name of the strategy that shares generated energy in proportion to each meter's usage in the interval */
+	public static final String PRO_RATA = "ProRata";
+	/** Name of the strategy that fills the meter with the most expensive energy in the interval first */
+	public static final String HIGHEST_TARIFF = "HighestTariff";
+
+	/**
+	 * Name of the strategy as used in the Network Tariff file and on the command line.
+	 *
+	 * @return Name of the strategy.
+	 */
+	public String getName();
+
+	/**
+	 * Prepare for a calculation.
+	 *
+	 * @param distributionOrder Index of each distribution meter in distribution order - the order from the Network Tariff file, or
+	 * the Business as Usual yearly costs, or the order of the Energy Usage file.
+	 * @param numberOfMeters Number of meters in the cost.
+	 * @param spotPriceLossRatio Spot Price Loss ratio of each meter for each month, indexed by month * numberOfMeters + meter.
+	 */
+	public void setUp(int[] distributionOrder, int numberOfMeters, double[] spotPriceLossRatio);
+
+	/**
+	 * Share the generated energy for one interval across the distribution meters.
+	 *
+	 * @param month Month (0 - 11) of the interval.
+	 * @param usageType PEAK, SHOULDER or OFFPEAK rate that applies to the interval.
+	 * @param spotPrice Spot price for the interval.
+	 * @param usage Energy used by each meter in the interval.
+	 * @param generatedEnergy Total energy generated in the interval.
+	 * @param adjustedUsage Already holds a copy of usage - the usage of each distribution meter is reduced by its share of the
+	 * generated energy.
+	 *
+	 * @return Generated energy left over once the meters' usage has been covered.
+	 */
+	public double distribute(int month, int usageType, double spotPrice, double[] usage, double generatedEnergy,
+			double[] adjustedUsage);
+
+	/**
+	 * The shared distribution kernel.  Goes through the meters in order, covering as much of each meter's usage as it can from the
+	 * generated energy, until the generated energy is used up.
+	 *
+	 * @param order Index of each meter in the order they are to be covered.
+	 * @param usage Energy used by each meter in the interval.
+	 * @param generatedEnergy Total energy generated in the interval.
+	 * @param adjustedUsage Usage of each meter - overwritten for the meters that get some generated energy.
+	 *
+	 * @return Generated energy left over once all the meters in order have been covered.
+	 */
+	public static double fillInOrder(int[] order, double[] usage, double generatedEnergy, double[] adjustedUsage) {
+		for (int i = 0; i < order.length; i++) {
+			int meterNameIndex = order[i];
+			double initialUsage = usage[meterNameIndex];
+			double deduction = Math.min(generatedEnergy, initialUsage);
+			// overwrite original usage value.
+			adjustedUsage[meterNameIndex] = initialUsage - deduction;
+			generatedEnergy -= deduction;
+			if (generatedEnergy <= 0) {
+				break; // break out of for loop - we've used up all the generated energy
+			}
+		}
+		return generatedEnergy;
+	}
+
+	/**
+	 * Create a strategy from its name.
+	 *
+	 * @param name Name of the strategy - not case sensitive.  null gives the default (Greedy) strategy.
+	 *
+	 * @return A new strategy, ready for setUp.
+	 *
+	 * @throws Exception If there is no strategy with that name.
+	 */
+	public static DistributionStrategy forName(String name) throws Exception {
+		if (name == null) {
+			return new GreedyDistribution();
+		}
+		switch (name.replaceAll("[\\s-]", "").toLowerCase(Locale.ENGLISH)) {
+		case "greedy":
+			return new GreedyDistribution();
+		case "prorata":
+			return new ProRataDistribution();
+		case "highesttariff":
+			return new HighestTariffDistribution();
+		default:
+			throw new Exception("Unknown distribution strategy \"" + name + "\" - expected " + GREEDY + ", " + PRO_RATA + " or "
+					+ HIGHEST_TARIFF);
+		}
+	}
+}
@@ -46,49 +46,17 @@ public class GoButton extends JButton implements ActionListener {
 		// Calculate button has been clicked.
 		
 		// Make some sense of the various input combinations.  
-		boolean showErrorDialog=false;
-		String errorDialog = "";
-		
-		//If there are no files selected, warn the user
-		if (UI.usageFile.inputFile==null && UI.priceFile.inputFile==null
-				&& UI.generatedFile.inputFile==null && UI.feedInFile.inputFile==null
-				&& UI.bauFile.inputFile == null && UI.lifecycleFile.inputFile == null ) {
-			showErrorDialog=true;
-			errorDialog = errorDialog.concat("Please select some files to use in calculations");
-		}
-		
-		//If any one of usage, spot price, generated or feed-in tarrif file name is set, make sure the network parameter is also set  
-		if ((UI.usageFile.inputFile!=null || UI.priceFile.inputFile!=null || UI.generatedFile.inputFile!=null && UI.feedInFile.inputFile!=null) 
-				&& UI.networkParameterFile.inputFile == null) {
-			showErrorDialog=true;
-			errorDialog = errorDialog.concat("Please select a Network Parameter File\n");
-		}
-
-		// Make sure we have pairs, alert the user if there are no pairs.
-		if (UI.usageFile.inputFile!=null && UI.priceFile.inputFile==null) {
-			showErrorDialog=true;
-			errorDialog = errorDialog.concat("Please select an AEMO Spot Price file\n");
-		}
-		if (UI.usageFile.inputFile==null && UI.priceFile.inputFile!=null) {
-			showErrorDialog=true;
-			errorDialog = errorDialog.concat("Please select an Energy Usage file\n");
-		}
-		if (UI.generatedFile.inputFile!=null && UI.feedInFile.inputFile==null) {
-			showErrorDialog=true;
-			errorDialog = errorDialog.concat("Please select an Feed-in Tariff file\n");
-		}
-		if (UI.generatedFile.inputFile==null && UI.feedInFile.inputFile!=null) {
-			showErrorDialog=true;
-			errorDialog = errorDialog.concat("Please select an Generated Energy file\n");
-		}
-		// All the errors have been shown.
+		Calculation calculation = new Calculation(UI.networkParameterFile.inputFile, UI.usageFile.inputFile, UI.priceFile.inputFile,
+				UI.generatedFile.inputFile, UI.feedInFile.inputFile, UI.bauFile.inputFile, UI.lifecycleFile.inputFile);
+		String errorDialog = calculation.checkInputFiles();
 	
-		if (showErrorDialog) {
+		if (errorDialog != null) {
 			JOptionPane.showMessageDialog(UI,errorDialog,"CEREI Error",JOptionPane.ERROR_MESSAGE); 
 			return;
 		}
 
-		UI.calculate();
+		// Calculations run in the background so the GUI stays responsive.
+		UI.calculate(calculation);
 	}
 
 }
@@ -0,0 +1,59 @@
+package au.org.nifpi.cerei;
+
+/**
+ * The default distribution strategy.  Generated energy covers the usage of each distribution meter in turn, in distribution order,
+ * until it runs out.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class GreedyDistribution implements DistributionStrategy {
+	/** Index of each distribution meter in distribution order */
+	private int[] distributionOrder;
+
+	/**
+	 * Default constructor - the strategy is set up for a cost by setUp.
+	 */
+	public GreedyDistribution() {
+		
+	}
+
+	/**
+	 * Name of the strategy.
+	 *
+	 * @return GREEDY.
+	 */
+	@Override
+	public String getName() {
+		return GREEDY;
+	}
+
+	/**
+	 * Remember the distribution order - nothing else is needed.
+	 *
+	 * @param distributionOrder Index of each distribution meter in distribution order.
+	 * @param numberOfMeters Number of meters in the cost.
+	 * @param spotPriceLossRatio Spot Price Loss ratio of each meter for each month, indexed by month * numberOfMeters + meter.
+	 */
+	@Override
+	public void setUp(int[] distributionOrder, int numberOfMeters, double[] spotPriceLossRatio) {
+		this.distributionOrder = distributionOrder;
+	}
+
+	/**
+	 * Cover each distribution meter in turn until the generated energy runs out.
+	 *
+	 * @param month Month (0 - 11) of the interval.
+	 * @param usageType PEAK, SHOULDER or OFFPEAK rate that applies to the interval.
+	 * @param spotPrice Spot price for the interval.
+	 * @param usage Energy used by each meter in the interval.
+	 * @param generatedEnergy Total energy generated in the interval.
+	 * @param adjustedUsage Copy of usage - overwritten for the meters that get some generated energy.
+	 *
+	 * @return Generated energy left over once the meters' usage has been covered.
+	 */
+	@Override
+	public double distribute(int month, int usageType, double spotPrice, double[] usage, double generatedEnergy,
+			double[] adjustedUsage) {
+		return DistributionStrategy.fillInOrder(distributionOrder, usage, generatedEnergy, adjustedUsage);
+	}
+}
@@ -0,0 +1,114 @@
+package au.org.nifpi.cerei;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Covers the usage of the distribution meter whose next kWh from the grid costs the most first, then the next most expensive, until
+ * the generated energy runs out.  This saves the most on the energy bill for the interval.
+ * <p>
+ * The Peak, Shoulder and Offpeak rates, market charges and their loss ratios in the Network Tariff file are the same for every
+ * meter, so they add the same amount to every meter's next kWh in an interval.  Only the Spot Price Loss ratio is set per meter, so
+ * the most expensive meter is the one with the largest spot price including losses.  That only depends on the month and whether
+ * the spot price is positive or negative, so the order of the meters is worked out once for each month and sign in setUp.  Meters
+ * with the same cost keep their distribution order.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class HighestTariffDistribution implements DistributionStrategy {
+	/** Index of each distribution meter in distribution order - used when the spot price is zero */
+	private int[] distributionOrder;
+	/** Distribution meters from most to least expensive when the spot price is positive - one order per month */
+	private int[][] positiveSpotPriceOrder = new int[12][];
+	/** Distribution meters from most to least expensive when the spot price is negative - one order per month */
+	private int[][] negativeSpotPriceOrder = new int[12][];
+
+	/**
+	 * Default constructor - the strategy is set up for a cost by setUp.
+	 */
+	public HighestTariffDistribution() {
+		
+	}
+
+	/**
+	 * Name of the strategy.
+	 *
+	 * @return HIGHEST_TARIFF.
+	 */
+	@Override
+	public String getName() {
+		return HIGHEST_TARIFF;
+	}
+
+	/**
+	 * Order the distribution meters by their Spot Price Loss ratio for each month.  The highest ratio is most expensive when the
+	 * spot price is positive, the lowest when it is negative.
+	 *
+	 * @param distributionOrder Index of each distribution meter in distribution order.
+	 * @param numberOfMeters Number of meters in the cost.
+	 * @param spotPriceLossRatio Spot Price Loss ratio of each meter for each month, indexed by month * numberOfMeters + meter.
+	 */
+	@Override
+	public void setUp(int[] distributionOrder, int numberOfMeters, double[] spotPriceLossRatio) {
+		this.distributionOrder = distributionOrder;
+		Integer[] meters = new Integer[distributionOrder.length];
+		for (int month = 0; month < 12; month++) {
+			int monthStart = month * numberOfMeters;
+			Comparator<Integer> byRatio = Comparator.comparingDouble(meter -> spotPriceLossRatio[monthStart + meter]);
+			// Arrays.sort on objects is stable, so meters with the same ratio stay in distribution order.
+			for (int i = 0; i < meters.length; i++) {
+				meters[i] = distributionOrder[i];
+			}
+			Arrays.sort(meters, byRatio.reversed());
+			positiveSpotPriceOrder[month] = toIntArray(meters);
+			for (int i = 0; i < meters.length; i++) {
+				meters[i] = distributionOrder[i];
+			}
+			Arrays.sort(meters, byRatio);
+			negativeSpotPriceOrder[month] = toIntArray(meters);
+		}
+	}
+
+	/**
+	 * Cover the most expensive distribution meters first.
+	 *
+	 * @param month Month (0 - 11) of the interval.
+	 * @param usageType PEAK, SHOULDER or OFFPEAK rate that applies to the interval - the same for every meter.
+	 * @param spotPrice Spot price for the interval.
+	 * @param usage Energy used by each meter in the interval.
+	 * @param generatedEnergy Total energy generated in the interval.
+	 * @param adjustedUsage Copy of usage - overwritten for the meters that get some generated energy.
+	 *
+	 * @return Generated energy left over once the meters' usage has been covered.
+	 */
+	@Override
+	public double distribute(int month, int usageType, double spotPrice, double[] usage, double generatedEnergy,
+			double[] adjustedUsage) {
+		int[] order;
+		if (spotPrice > 0) {
+			order = positiveSpotPriceOrder[month];
+		}
+		else if (spotPrice < 0) {
+			order = negativeSpotPriceOrder[month];
+		}
+		else {
+			order = distributionOrder;
+		}
+		return DistributionStrategy.fillInOrder(order, usage, generatedEnergy, adjustedUsage);
+	}
+
+	/**
+	 * Unbox a sorted list of meters.
+	 *
+	 * @param meters Meter indexes.
+	 *
+	 * @return The same meter indexes as an int array.
+	 */
+	private static int[] toIntArray(Integer[] meters) {
+		int[] order = new int[meters.length];
+		for (int i = 0; i < meters.length; i++) {
+			order[i] = meters[i];
+		}
+		return order;
+	}
+}
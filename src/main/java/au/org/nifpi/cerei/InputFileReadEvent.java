@@ -0,0 +1,56 @@
+package au.org.nifpi.cerei;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for each time an input file (or the interval data cache) is opened and read.  The duration of the
+ * event is the time taken to read and parse the file.  The Energy Usage, Spot Price, Energy Generated and Feed-in Tariff files are
+ * read line by line together, so each of their events covers the reading of all of them.
+ * <p>
+ * Like all JFR events these cost next to nothing unless a recording is running, e.g. with -XX:StartFlightRecording.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+@Name("au.org.nifpi.cerei.InputFileRead")
+@Label("Input File Read")
+@Category({ "CEREI", "Input" })
+@Description("An input file opened and parsed by a calculation")
+@StackTrace(false)
+class InputFileReadEvent extends Event {
+	/** Which of the inputs the file is, e.g. "Network Tariff" */
+	@Label("Input")
+	String input;
+
+	/** Full path of the file */
+	@Label("Path")
+	String path;
+
+	/** Size of the file */
+	@Label("Size")
+	@DataAmount
+	long size;
+
+	/** Lines (or, for the cache, intervals) read */
+	@Label("Rows")
+	long rows;
+
+	/**
+	 * Event for a file about to be read.  Call begin before reading it and commit once it has been read.
+	 *
+	 * @param input Which of the inputs the file is, e.g. "Network Tariff".
+	 * @param file The file.
+	 */
+	InputFileReadEvent(String input, File file) {
+		this.input = input;
+		this.path = file.getAbsolutePath();
+		this.size = file.length();
+	}
+}
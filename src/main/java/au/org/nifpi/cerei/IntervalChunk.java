@@ -0,0 +1,146 @@
+package au.org.nifpi.cerei;
+
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A run of whole lines from one interval file, parsed on its own so that the chunks of a large file can be parsed at the same time.
+ * Each chunk holds the timestamps and values of its lines.  Once every chunk of a file has been parsed, the chunks are joined end to
+ * end, in file order, to give the same values as reading the file from start to finish.
+ * <p>
+ * A chunk does not know the line numbers of its lines, as that depends on how many lines came before it.  If a line can't be parsed
+ * the chunk stops and remembers where the line is, so that IntervalData can parse it again with the right line number and report
+ * exactly the same error as reading the file in one go.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class IntervalChunk implements Callable<IntervalChunk> {
+	/** Lines parsed between checks for cancellation and updates of bytesParsed */
+	private static final int LINES_PER_UPDATE = 4000;
+
+	/** The file the chunk comes from */
+	private FileChannel channel;
+	/** Name of the file - used to report errors */
+	private String fileName;
+	/** Position in the file of the first line of the chunk */
+	protected long start;
+	/** Position in the file after the last line of the chunk */
+	protected long end;
+	/** Number of values on each line after the timestamp */
+	private int numberOfValues;
+	/** First line of data in the file - parsed first to lock in the file's timestamp format, as it would be when reading in one go */
+	private String firstLine;
+	/** Number of bytes of the file parsed so far, shared by all the chunks of a file - null if not needed */
+	private AtomicLong bytesParsed;
+	/** Number of lines of the file parsed so far, shared by all the chunks of a file - null if not needed */
+	private AtomicInteger linesParsed;
+	/** Set to stop parsing early, e.g. the calculations have been cancelled or another chunk failed */
+	private volatile boolean stopped = false;
+
+	/** Number of lines parsed - stops short of the end of the chunk if a line could not be parsed */
+	protected int numberOfLines = 0;
+	/** Timestamp of each line as minutes since 1 Jan 1970 */
+	protected long[] epochMinutes;
+	/** Values of each line, numberOfValues per line, one line after another */
+	protected double[] values;
+	/** Position in the file of the line that could not be parsed - -1 if all the lines were parsed */
+	protected long errorPosition = -1;
+
+	/**
+	 * Set up a chunk.  Nothing is read until call.
+	 *
+	 * @param channel The file the chunk comes from.
+	 * @param fileName Name of the file - used to report errors.
+	 * @param start Position in the file of the first line of the chunk.
+	 * @param end Position in the file after the last line of the chunk.
+	 * @param numberOfValues Number of values on each line after the timestamp.
+	 * @param firstLine First line of data in the file, null if the chunk starts with it.
+	 * @param bytesParsed Receives the number of bytes parsed, null if not needed.
+	 * @param linesParsed Receives the number of lines parsed, null if not needed.
+	 */
+	public IntervalChunk(FileChannel channel, String fileName, long start, long end, int numberOfValues, String firstLine,
+			AtomicLong bytesParsed, AtomicInteger linesParsed) {
+		this.channel = channel;
+		this.fileName = fileName;
+		this.start = start;
+		this.end = end;
+		this.numberOfValues = numberOfValues;
+		this.firstLine = firstLine;
+		this.bytesParsed = bytesParsed;
+		this.linesParsed = linesParsed;
+	}
+
+	/**
+	 * Parse the lines of the chunk.  Stops at the first line that can't be parsed.
+	 *
+	 * @return This chunk.
+	 *
+	 * @throws Exception If the file cannot be read.
+	 */
+	@Override
+	public IntervalChunk call() throws Exception {
+		DateParser dateParser = new DateParser();
+		IntervalRecord record = new IntervalRecord(fileName, numberOfValues, dateParser);
+		if (firstLine != null) {
+			try {
+				record.parseLine(firstLine, 0);
+			} catch (Exception e) {
+				// The chunk with the first line will report it
+			}
+		}
+		// Rough guess at the number of lines from the length of the first line
+		int capacity = (int) Math.min(Integer.MAX_VALUE / Math.max(1, numberOfValues) - 1,
+				(end - start) / Math.max(8, firstLine == null ? 8 : firstLine.length() + 1) + 16);
+		epochMinutes = new long[capacity];
+		values = new double[capacity * numberOfValues];
+		long reported = start;
+
+		try (IntervalFileReader reader = new IntervalFileReader(channel, start, end)) {
+			long lineStart = start;
+			CharSequence line;
+			while ((line = reader.readLine()) != null) {
+				try {
+					record.parseLine(line, numberOfLines);
+				} catch (Exception e) {
+					errorPosition = lineStart;
+					break;
+				}
+				if (numberOfLines == epochMinutes.length) {
+					capacity = epochMinutes.length * 2;
+					epochMinutes = Arrays.copyOf(epochMinutes, capacity);
+					values = Arrays.copyOf(values, capacity * numberOfValues);
+				}
+				epochMinutes[numberOfLines] = record.epochMinute;
+				System.arraycopy(record.values, 0, values, numberOfLines * numberOfValues, numberOfValues);
+				numberOfLines++;
+				lineStart = reader.getPosition();
+
+				if (numberOfLines % LINES_PER_UPDATE == 0) {
+					if (stopped) {
+						break;
+					}
+					if (bytesParsed != null) {
+						bytesParsed.addAndGet(lineStart - reported);
+						linesParsed.addAndGet(LINES_PER_UPDATE);
+						reported = lineStart;
+					}
+				}
+			}
+			if (bytesParsed != null) {
+				bytesParsed.addAndGet(lineStart - reported);
+				linesParsed.addAndGet(numberOfLines % LINES_PER_UPDATE);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Stop parsing as soon as possible.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+}
@@ -0,0 +1,1371 @@
+package au.org.nifpi.cerei;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * All the interval data (30 minute, or 5 or 15 minute as the NEM now settles) from the Energy Usage, AEMO Spot Price, Energy
+ * Generated and Feed-in Tariff files, held in memory one column per meter.  The files are read, validated and parsed once and the data can then be used for any number of calculations,
+ * e.g. the same usage priced against several tariffs, without going back to the files.
+ * <p>
+ * Once loaded the data is never changed, so it can be shared between calculations running at the same time.
+ * <p>
+ * Large files are split into chunks of whole lines that are parsed at the same time on the common fork/join pool, then joined back
+ * together in file order - see IntervalChunk.
+ * <p>
+ * The first time a set of files is read the data is also written to a binary cache file next to the Energy Usage file (or the
+ * Energy Generated file if there is no usage) with ".cerei" added to the name.  The cache holds the meter names, the name, size,
+ * last modified time and CRC-32 of each source file, then the timestamps and each column as fixed width 64 bit values.  Next time
+ * the same files are loaded, and none of them have changed, the cache is read straight into the columns instead of parsing the
+ * .csv files again.  It is read through a buffer rather than memory mapped, as on Windows a mapped file can't be replaced until the
+ * mapping is garbage collected.  A cache that can't be written (e.g. a read-only directory) or doesn't match is simply ignored.
+ * <p>
+ * If new lines have been added to the end of the files since the cache was written, e.g. the latest day of meter data, and the rest
+ * of each file is unchanged, the cached columns are loaded and only the new lines are parsed.  The cache is then written again to
+ * cover the whole of the files.
+ * <p>
+ * Each file is opened once per load, and everything that reads it - the header, the lines, the chunks and the CRC-32 - shares the
+ * one IntervalFileHandle.  Files the calculation has already opened to read the meter names are passed in with setOpenFiles so
+ * they are not opened again.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class IntervalData {
+	/** Initial number of intervals - enough for a year of 30 minute data */
+	private static final int INITIAL_CAPACITY = 17568;
+	/** Interval length assumed when there are too few intervals to tell */
+	public static final int DEFAULT_INTERVAL_MINUTES = 30;
+	/** Number of gaps between timestamps looked at to find the interval length */
+	private static final int INTERVAL_SAMPLE_SIZE = 1000;
+	/** Interval files (the Energy Usage file, or Energy Generated if there is no usage) at least this big are parsed in parallel */
+	private static final long PARALLEL_THRESHOLD = 8 << 20;
+	/** Smallest chunk of a file worth parsing on its own */
+	private static final long MINIMUM_CHUNK_SIZE = 1 << 20;
+	/** How often the progress is reported while waiting for the chunks to be parsed, in milliseconds */
+	private static final long PROGRESS_INTERVAL = 100;
+
+	/** Added to the name of the Energy Usage (or Energy Generated) file to give the name of the cache file */
+	public static final String CACHE_EXTENSION = ".cerei";
+	/** Name of each of the interval files, in the order of the sources */
+	private static final String[] INPUT_NAMES = { "Energy Usage", "AEMO Spot Price", "Energy Generated", "Feed-in Tariff" };
+	/** First four bytes of a cache file - "CERE" */
+	private static final int CACHE_MAGIC = 0x43455245;
+	/** Layout of the cache file.  Change this whenever the layout changes so old cache files are ignored */
+	private static final int CACHE_VERSION = 1;
+	/** Size of the buffer the columns of the cache file are read through - a whole number of 64 bit values */
+	private static final int CACHE_BUFFER_SIZE = 1 << 20;
+
+	/** Input files - null if not used */
+	protected File usageFile, priceFile, generatedFile, feedInFile;
+	/** Names of the meters in the Energy Usage and Energy Generated files - empty if the file is not used */
+	protected List<String> usageMeterNames, generatedMeterNames;
+	/** Size of each input file when it was read - used to tell if the file has changed since */
+	private long[] sourceLengths = new long[4];
+	/** Last modified time of each input file when it was read - used to tell if the file has changed since */
+	private long[] sourceModified = new long[4];
+	/** CRC-32 of each input file when it was read - -1 until it is worked out */
+	private long[] sourceChecksums = { -1, -1, -1, -1 };
+	/** Size of each input file when the cache that was loaded was written, i.e. the part of the file that was not parsed again */
+	private long[] cachedLengths = new long[4];
+	/** CRC-32 of the part of each input file that was not parsed again because it was in the cache */
+	private long[] cachedChecksums = new long[4];
+	/** Input files already opened by the calculation, for the next load to read - null for each file not open */
+	private IntervalFileHandle[] sharedFiles = new IntervalFileHandle[4];
+	/** Input files open while load is running - null when not loading, and null for each file not opened yet */
+	private IntervalFileHandle[] openFiles = null;
+
+	/** Number of intervals (lines of data) loaded */
+	protected int numberOfIntervals = 0;
+	/** Timestamp of each interval as minutes since 1 Jan 1970, as it appears in the files - i.e. the end of the interval */
+	protected long[] epochMinutes;
+	/** Energy used - one column per meter in the order of the Energy Usage file.  null if there is no usage */
+	protected double[][] usage;
+	/** AEMO Spot Price for each interval.  null if there is no usage */
+	protected double[] price;
+	/** Energy generated - one column per meter in the order of the Energy Generated file.  null if there is no generation */
+	protected double[][] generated;
+	/** Feed-in Tariff for each interval.  null if there is no generation */
+	protected double[] feedIn;
+
+	/** Warning that the files did not all end on the same line - null if they did */
+	protected String missingLinesWarning = null;
+
+	/**
+	 * Set up the columns for a set of interval files.  Nothing is read until load is called.
+	 *
+	 * @param usageFile Energy Usage file, null if not used.
+	 * @param priceFile AEMO Spot Price file, null if not used.
+	 * @param generatedFile Energy Generated file, null if not used.
+	 * @param feedInFile Feed-in Tariff file, null if not used.
+	 * @param usageMeterNames Names of the meters in the Energy Usage file, null if not used.
+	 * @param generatedMeterNames Names of the meters in the Energy Generated file, null if not used.
+	 */
+	public IntervalData(File usageFile, File priceFile, File generatedFile, File feedInFile, List<String> usageMeterNames,
+			List<String> generatedMeterNames) {
+		this.usageFile = usageFile;
+		this.priceFile = priceFile;
+		this.generatedFile = generatedFile;
+		this.feedInFile = feedInFile;
+		this.usageMeterNames = usageMeterNames == null ? new ArrayList<String>() : usageMeterNames;
+		this.generatedMeterNames = generatedMeterNames == null ? new ArrayList<String>() : generatedMeterNames;
+		int numberOfUsageMeters = this.usageMeterNames.size();
+		int numberOfGeneratedMeters = this.generatedMeterNames.size();
+
+		epochMinutes = new long[INITIAL_CAPACITY];
+		if (usageFile != null && priceFile != null) {
+			usage = new double[numberOfUsageMeters][INITIAL_CAPACITY];
+			price = new double[INITIAL_CAPACITY];
+		}
+		if (generatedFile != null && feedInFile != null) {
+			generated = new double[numberOfGeneratedMeters][INITIAL_CAPACITY];
+			feedIn = new double[INITIAL_CAPACITY];
+		}
+	}
+
+	/**
+	 * Check whether this data came from the given files and none of them have changed since they were read.
+	 *
+	 * @param usageFile Energy Usage file, null if not used.
+	 * @param priceFile AEMO Spot Price file, null if not used.
+	 * @param generatedFile Energy Generated file, null if not used.
+	 * @param feedInFile Feed-in Tariff file, null if not used.
+	 *
+	 * @return true if the data can be used instead of reading the files again.
+	 */
+	public boolean isCurrent(File usageFile, File priceFile, File generatedFile, File feedInFile) {
+		File[] files = { usageFile, priceFile, generatedFile, feedInFile };
+		File[] sources = { this.usageFile, this.priceFile, this.generatedFile, this.feedInFile };
+		for (int i = 0; i < files.length; i++) {
+			if (files[i] == null || sources[i] == null) {
+				if (files[i] != sources[i]) {
+					return false;
+				}
+			} else if (!files[i].getAbsoluteFile().equals(sources[i].getAbsoluteFile())
+					|| files[i].length() != sourceLengths[i] || files[i].lastModified() != sourceModified[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Load the columns from the cache file if it is up to date, otherwise from the interval files - writing a new cache file as well.
+	 * If lines have been added to the end of the files since the cache was written, only those lines are read from the files.
+	 *
+	 * @param progress Receives the number of lines read and can cancel the reading.
+	 *
+	 * @throws Exception If one of the files in the pairs of "Energy Used" or  "Energy Generated" input files are empty, if the
+	 *  timestamps do not match or the reading is cancelled.  Rethrows an exception from any called method.
+	 */
+	public void load(CalculationProgress progress) throws Exception {
+		openFiles = sharedFiles.clone();
+		try {
+			loadColumns(progress);
+		} finally {
+			// Only close the files opened here - the shared ones belong to the calculation.
+			for (int i = 0; i < openFiles.length; i++) {
+				if (openFiles[i] != null && openFiles[i] != sharedFiles[i]) {
+					openFiles[i].close();
+				}
+			}
+			openFiles = null;
+			sharedFiles = new IntervalFileHandle[4];
+		}
+	}
+
+	/**
+	 * Use files that are already open, rather than opening them again, the next time the data is loaded.  The files are left open
+	 * by load, and are not used again after it.
+	 *
+	 * @param handles Open files - any that are not one of the input files, and any nulls, are ignored.
+	 */
+	public void setOpenFiles(IntervalFileHandle... handles) {
+		File[] sources = { usageFile, priceFile, generatedFile, feedInFile };
+		for (IntervalFileHandle handle : handles) {
+			for (int i = 0; handle != null && i < sources.length; i++) {
+				if (sources[i] != null && sources[i].getAbsoluteFile().equals(handle.getFile().getAbsoluteFile())) {
+					sharedFiles[i] = handle;
+				}
+			}
+		}
+	}
+
+	/**
+	 * One of the input files, opened the first time it is needed during a load.
+	 *
+	 * @param index 0 for Energy Usage, 1 for AEMO Spot Price, 2 for Energy Generated, 3 for Feed-in Tariff.
+	 *
+	 * @throws IOException If the file cannot be opened.
+	 *
+	 * @return The open file.
+	 */
+	private IntervalFileHandle openFile(int index) throws IOException {
+		if (openFiles[index] == null) {
+			File[] sources = { usageFile, priceFile, generatedFile, feedInFile };
+			openFiles[index] = new IntervalFileHandle(sources[index]);
+		}
+		return openFiles[index];
+	}
+
+	/**
+	 * Load the columns from the cache file or the interval files - see load.
+	 *
+	 * @param progress Receives the number of lines read and can cancel the reading.
+	 *
+	 * @throws Exception If one of the files in the pairs of "Energy Used" or  "Energy Generated" input files are empty, if the
+	 *  timestamps do not match or the reading is cancelled.  Rethrows an exception from any called method.
+	 */
+	private void loadColumns(CalculationProgress progress) throws Exception {
+		// Remember the state of the files so that we can tell if they change.
+		File[] sources = { usageFile, priceFile, generatedFile, feedInFile };
+		for (int i = 0; i < sources.length; i++) {
+			if (sources[i] != null) {
+				sourceLengths[i] = sources[i].length();
+				sourceModified[i] = sources[i].lastModified();
+			}
+		}
+
+		File cacheFile = cacheFile();
+		InputFileReadEvent cacheEvent = cacheFile == null ? null : new InputFileReadEvent("Interval Data Cache", cacheFile);
+		if (cacheEvent != null) {
+			cacheEvent.begin();
+		}
+		if (readCache()) {
+			cacheEvent.rows = numberOfIntervals;
+			cacheEvent.commit();
+			long cacheLength = cacheFile.length();
+			progress.rowsProcessed(numberOfIntervals, cacheLength, cacheLength);
+			progress.bytesRead(cacheLength);
+			if (!Arrays.equals(cachedLengths, sourceLengths)) {
+				// Lines have been added to the files since the cache was written
+				int firstInterval = numberOfIntervals;
+				InputFileReadEvent[] events = beginFileEvents(sources);
+				readFiles(progress, cachedLengths);
+				commitFileEvents(events, numberOfIntervals - firstInterval);
+				for (int i = 0; i < sources.length; i++) {
+					progress.bytesRead(sourceLengths[i] - cachedLengths[i]);
+				}
+				writeCache();
+			}
+		}
+		else {
+			File anchor = usageFile != null ? usageFile : generatedFile;
+			boolean hasUsage = usageFile != null && priceFile != null;
+			boolean hasGenerated = generatedFile != null && feedInFile != null;
+			// Only the combinations of files readFiles can deal with
+			boolean validFiles = (hasUsage || hasGenerated) && (hasUsage || (usageFile == null && priceFile == null))
+					&& (hasGenerated || (generatedFile == null && feedInFile == null));
+			InputFileReadEvent[] events = beginFileEvents(sources);
+			if (validFiles && anchor.length() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+				readFilesInParallel(progress);
+			}
+			else {
+				readFiles(progress, null);
+			}
+			commitFileEvents(events, numberOfIntervals);
+			for (int i = 0; i < sources.length; i++) {
+				progress.bytesRead(sourceLengths[i]);
+			}
+			writeCache();
+		}
+	}
+
+	/**
+	 * Start a Flight Recorder event for each of the interval files about to be read.  The files are read together, so each event
+	 * covers the reading of all of them.
+	 *
+	 * @param sources The Energy Usage, Spot Price, Energy Generated and Feed-in Tariff files, null if not used.
+	 *
+	 * @return An event for each file, null for each file not used.
+	 */
+	private static InputFileReadEvent[] beginFileEvents(File[] sources) {
+		InputFileReadEvent[] events = new InputFileReadEvent[sources.length];
+		for (int i = 0; i < sources.length; i++) {
+			if (sources[i] != null) {
+				events[i] = new InputFileReadEvent(INPUT_NAMES[i], sources[i]);
+				events[i].begin();
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * Finish the Flight Recorder events for the interval files once they have all been read.
+	 *
+	 * @param events Event for each file, null for each file not used.
+	 * @param rows Number of lines read from each file.
+	 */
+	private static void commitFileEvents(InputFileReadEvent[] events, int rows) {
+		for (InputFileReadEvent event : events) {
+			if (event != null) {
+				event.rows = rows;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Read the interval files line by line, validate each line and load the values into the columns.  Can carry on from the end of
+	 * columns loaded from the cache, reading just the lines that have been added to the files since.
+	 *
+	 * @param progress Receives the number of lines read and can cancel the reading.
+	 * @param appendFrom Position in each file of the first line after the lines already loaded, null to read the files from the start.
+	 *
+	 * @throws Exception If one of the files in the pairs of "Energy Used" or  "Energy Generated" input files are empty, if the
+	 *  timestamps do not match or the reading is cancelled.  Rethrows an exception from any called method.
+	 */
+	private void readFiles(CalculationProgress progress, long[] appendFrom) throws Exception {
+		// Each "string" is the current line of its reader - parsed in place from the file, not copied into a String.
+		CharSequence usageString=null, priceString=null, generatedString=null, feedInString=null;
+		int lineNumber = numberOfIntervals;
+		// Only the lines read by this call are reported, not the ones already loaded from the cache
+		int linesLoaded = numberOfIntervals;
+		// Progress is measured against the usage file, or the generated file if there is no usage file.
+		long bytesRead = 0;
+		long totalBytes = usageFile != null ? usageFile.length()
+				: generatedFile != null ? generatedFile.length() : 0;
+
+		// Each line is parsed once into a record that is reused for every line of that file.  Each file gets its own DateParser
+		// as the DateParser locks in the format of the timestamps in a file.
+		IntervalRecord usageRecord = usageFile == null ? null
+				: new IntervalRecord(usageFile.getName(), usage == null ? 0 : usage.length, new DateParser());
+		IntervalRecord priceRecord = priceFile == null ? null
+				: new IntervalRecord(priceFile.getName(), 1, new DateParser());
+		IntervalRecord generatedRecord = generatedFile == null ? null
+				: new IntervalRecord(generatedFile.getName(), generated == null ? 0 : generated.length, new DateParser());
+		IntervalRecord feedInRecord = feedInFile == null ? null
+				: new IntervalRecord(feedInFile.getName(), 1, new DateParser());
+		if (appendFrom != null) {
+			// Lock in the format of each file's timestamps the same way as reading the file from the start
+			parseFirstLine(0, usageRecord);
+			parseFirstLine(1, priceRecord);
+			parseFirstLine(2, generatedRecord);
+			parseFirstLine(3, feedInRecord);
+		}
+
+		// Get ready to read files line by line
+		try (IntervalFileReader usageReader = usageFile == null ? null
+					: openFile(0).newReader(appendFrom == null ? 0 : appendFrom[0]);
+				IntervalFileReader priceReader = priceFile == null ? null
+					: openFile(1).newReader(appendFrom == null ? 0 : appendFrom[1]);
+				IntervalFileReader generatedReader = generatedFile == null ? null
+					: openFile(2).newReader(appendFrom == null ? 0 : appendFrom[2]);
+				IntervalFileReader feedInReader = feedInFile == null ? null
+					: openFile(3).newReader(appendFrom == null ? 0 : appendFrom[3])) {
+
+			// The header lines were read with the cached lines if appending
+			if (appendFrom == null && usageReader != null && priceReader != null) {
+				// discard the first line of the usage file - which is header information
+				if ((usageString = usageReader.readLine()) == null) {
+					throw new Exception("Energy Generated file is empty");
+				}
+
+				// discard the first line of the AEMO Spot Price file - which is header
+				// information
+				if ((priceString = priceReader.readLine()) == null) {
+					throw new Exception("AEMO Spot Price file is empty");
+				}
+			}
+
+			if (appendFrom == null && generatedReader != null && feedInReader != null) {
+				// discard the first line of the Generated Energy file - which is header
+				// information
+				if ((generatedString = generatedReader.readLine()) == null) {
+					throw new Exception("Generated Energy file is empty");
+				}
+
+				// discard the first line of the Feed-in Tariff file - which is header
+				// information
+				if ((feedInString = feedInReader.readLine()) == null) {
+					throw new Exception("Feed-in Tariff file is empty");
+				}
+			}
+
+			lineNumber++; // Keep track of the line we are reading so we can report the location of any
+							// date mismatch
+
+			// Separate while loops depending on whether there is just energy usage, just generated usage, or both energy usage and
+			// energy generated.
+
+			//Usage and Generation
+			if (usageReader != null && priceReader != null && generatedReader != null && feedInReader != null) {
+				// Seriously ugly in order to get end of file validation to work
+				usageString = usageReader.readLine();
+				priceString = priceReader.readLine();
+				generatedString = generatedReader.readLine();
+				feedInString = feedInReader.readLine();
+				while (usageString != null && priceString != null && generatedString != null && feedInString != null) {
+					lineNumber++;
+					bytesRead = usageReader.getPosition();
+					progress.rowsProcessed(lineNumber - 1 - linesLoaded, bytesRead, totalBytes);
+					Calculation.checkCancelled(progress);
+
+					/* Make sure that the lines read in from the files contain valid data */
+					usageRecord.parseLine(usageString, lineNumber);
+					priceRecord.parseLine(priceString, lineNumber);
+					generatedRecord.parseLine(generatedString, lineNumber);
+					feedInRecord.parseLine(feedInString, lineNumber);
+
+					// Make sure the dates match - validateDateTimes will throw an exception
+					// if they don't all match.
+					validateDateTimes(usageRecord, priceRecord, generatedRecord, feedInRecord, lineNumber);
+
+					addInterval(usageRecord, priceRecord, generatedRecord, feedInRecord);
+
+					// More ugliness to make end of file validation checks work
+					usageString = usageReader.readLine();
+					priceString = priceReader.readLine();
+					generatedString = generatedReader.readLine();
+					feedInString = feedInReader.readLine();
+				}
+
+			//Usage Only
+			} else if (usageReader != null && priceReader != null && generatedReader == null && feedInReader == null) {
+				// Seriously ugly in order to get end of file validation to work
+				usageString = usageReader.readLine();
+				priceString = priceReader.readLine();
+				while (usageString != null && priceString != null) {
+					lineNumber++;
+					bytesRead = usageReader.getPosition();
+					progress.rowsProcessed(lineNumber - 1 - linesLoaded, bytesRead, totalBytes);
+					Calculation.checkCancelled(progress);
+
+					/* Make sure that the lines read in from the files contain valid data */
+					usageRecord.parseLine(usageString, lineNumber);
+					priceRecord.parseLine(priceString, lineNumber);
+
+					// Make sure the dates match - validateDateTimes will throw an exception
+					// if they don't all match.
+					validateDateTimes(usageRecord, priceRecord, usageRecord, priceRecord, lineNumber);
+
+					addInterval(usageRecord, priceRecord, null, null);
+
+					// More ugliness to make end of file validation checks work
+					usageString = usageReader.readLine();
+					priceString = priceReader.readLine();
+				}
+
+			//Generation Only
+			} else if (usageReader == null && priceReader == null && generatedReader != null && feedInReader != null) {
+				generatedString = generatedReader.readLine();
+				feedInString = feedInReader.readLine();
+				while (generatedString != null && feedInString != null) {
+					lineNumber++;
+					bytesRead = generatedReader.getPosition();
+					progress.rowsProcessed(lineNumber - 1 - linesLoaded, bytesRead, totalBytes);
+					Calculation.checkCancelled(progress);
+
+					/* Make sure that the lines read in from the files contain valid data */
+					generatedRecord.parseLine(generatedString, lineNumber);
+					feedInRecord.parseLine(feedInString, lineNumber);
+
+					// Make sure the dates match - validateDateTimes will throw an exception
+					// if they don't all match.
+					validateDateTimes(generatedRecord, feedInRecord, generatedRecord, feedInRecord, lineNumber);
+
+					addInterval(null, null, generatedRecord, feedInRecord);
+
+					// More ugliness to make end of file validation checks work
+					generatedString = generatedReader.readLine();
+					feedInString = feedInReader.readLine();
+				}
+			}
+			else {
+				// else this is an illegal combination - do nothing.
+			}
+
+			//Check if all open files went empty at the same time.  If they didn't, then at least one file had insufficient lines.
+			if(usageString != null || priceString != null || generatedString != null || feedInString != null) {
+				String warningString = "Warning: Processing finised early beacuse at least one input file had missing lines at the end of the file.\n";
+				warningString += "Files with missing lines:\n";
+				if (usageFile != null && usageString == null) {
+					warningString += "\t"+usageFile.getName()+"\n";
+				}
+				if (priceFile != null && priceString == null) {
+					warningString += "\t"+priceFile.getName()+"\n";
+				}
+				if (generatedFile != null && generatedString == null) {
+					warningString += "\t"+generatedFile.getName()+"\n";
+				}
+				if (feedInFile != null && feedInString == null) {
+					warningString += "\t"+feedInFile.getName()+"\n";
+				}
+				// Keep the warning so it can be reported with the results
+				missingLinesWarning = warningString;
+			}
+		}
+	}
+
+	/**
+	 * Read large interval files by splitting each of them into chunks of whole lines and parsing the chunks in parallel.  The
+	 * results are exactly the same as readFiles: the chunks are joined in file order, the timestamps of the files are compared line
+	 * by line, reading stops at the end of the shortest file, and errors and the missing lines warning are the same, including line
+	 * numbers.
+	 *
+	 * @param progress Receives the number of lines read and can cancel the reading.
+	 *
+	 * @throws Exception If one of the files in the pairs of "Energy Used" or  "Energy Generated" input files are empty, if the
+	 *  timestamps do not match or the reading is cancelled.  Rethrows an exception from any called method.
+	 */
+	private void readFilesInParallel(CalculationProgress progress) throws Exception {
+		File[] files = { usageFile, priceFile, generatedFile, feedInFile };
+		int[] numberOfValues = { usage == null ? 0 : usage.length, 1, generated == null ? 0 : generated.length, 1 };
+		String[] emptyFileErrors = { "Energy Generated file is empty", "AEMO Spot Price file is empty",
+				"Generated Energy file is empty", "Feed-in Tariff file is empty" };
+		int anchor = usageFile != null ? 0 : 2;
+		FileChannel[] channels = new FileChannel[files.length];
+		String[] firstLines = new String[files.length];
+		List<List<IntervalChunk>> chunks = new ArrayList<List<IntervalChunk>>();
+		List<ForkJoinTask<IntervalChunk>> tasks = new ArrayList<ForkJoinTask<IntervalChunk>>();
+		AtomicLong bytesParsed = new AtomicLong();
+		AtomicInteger linesParsed = new AtomicInteger();
+
+		try {
+			// Skip the header line of each file, then split the rest into chunks
+			int numberOfChunks = ForkJoinPool.getCommonPoolParallelism() * 2;
+			for (int i = 0; i < files.length; i++) {
+				chunks.add(new ArrayList<IntervalChunk>());
+				if (files[i] == null) {
+					continue;
+				}
+				IntervalFileHandle handle = openFile(i);
+				channels[i] = handle.getChannel();
+				long size = handle.getSize();
+				if (handle.getHeader() == null) {
+					throw new Exception(emptyFileErrors[i]);
+				}
+				long dataStart = handle.getDataStart();
+				firstLines[i] = handle.getFirstLine();
+				if (i == anchor) {
+					bytesParsed.set(dataStart);
+				}
+				int fileChunks = (int) Math.max(1, Math.min(numberOfChunks, (size - dataStart) / MINIMUM_CHUNK_SIZE));
+				long chunkStart = dataStart;
+				for (int j = 1; j <= fileChunks; j++) {
+					long chunkEnd = j == fileChunks ? size
+							: IntervalFileReader.nextLineStart(channels[i], dataStart + (size - dataStart) * j / fileChunks, size);
+					if (chunkEnd > chunkStart || j == fileChunks) {
+						IntervalChunk chunk = new IntervalChunk(channels[i], files[i].getName(), chunkStart, chunkEnd,
+								numberOfValues[i], chunkStart == dataStart ? null : firstLines[i],
+								i == anchor ? bytesParsed : null, i == anchor ? linesParsed : null);
+						chunks.get(i).add(chunk);
+						tasks.add(ForkJoinPool.commonPool().submit(chunk));
+						chunkStart = chunkEnd;
+					}
+				}
+			}
+
+			// Wait for all the chunks, reporting progress against the usage (or generated) file
+			long totalBytes = channels[anchor].size();
+			for (ForkJoinTask<IntervalChunk> task : tasks) {
+				while (true) {
+					try {
+						task.get(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+						break;
+					} catch (TimeoutException e) {
+						progress.rowsProcessed(linesParsed.get(), bytesParsed.get(), totalBytes);
+						Calculation.checkCancelled(progress);
+					} catch (ExecutionException e) {
+						throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+					}
+				}
+			}
+			Calculation.checkCancelled(progress);
+
+			// Reading in one go stops at the end of the shortest file, or the first line that can't be parsed.
+			int[] numberOfLines = new int[files.length];
+			int[] errorLines = new int[files.length];
+			long[] errorPositions = new long[files.length];
+			int shortest = Integer.MAX_VALUE;
+			int firstError = Integer.MAX_VALUE;
+			for (int i = 0; i < files.length; i++) {
+				errorLines[i] = -1;
+				if (files[i] == null) {
+					continue;
+				}
+				for (IntervalChunk chunk : chunks.get(i)) {
+					if (chunk.errorPosition >= 0) {
+						errorLines[i] = numberOfLines[i] + chunk.numberOfLines;
+						errorPositions[i] = chunk.errorPosition;
+						firstError = Math.min(firstError, errorLines[i]);
+						break;
+					}
+					numberOfLines[i] += chunk.numberOfLines;
+				}
+				if (errorLines[i] == -1) {
+					shortest = Math.min(shortest, numberOfLines[i]);
+				}
+			}
+			int lines = Math.min(shortest, firstError);
+
+			// Join the chunks into the columns
+			epochMinutes = new long[Math.max(lines, 1)];
+			if (usage != null) {
+				for (int i = 0; i < usage.length; i++) {
+					usage[i] = new double[epochMinutes.length];
+				}
+				price = new double[epochMinutes.length];
+			}
+			if (generated != null) {
+				for (int i = 0; i < generated.length; i++) {
+					generated[i] = new double[epochMinutes.length];
+				}
+				feedIn = new double[epochMinutes.length];
+			}
+			double[][][] columns = { usage, price == null ? null : new double[][] { price }, generated,
+					feedIn == null ? null : new double[][] { feedIn } };
+			long[][] fileEpochMinutes = new long[files.length][];
+			for (int i = 0; i < files.length; i++) {
+				if (files[i] == null) {
+					continue;
+				}
+				// The first file with timestamps uses the columns' timestamps, the others are only kept for comparison
+				fileEpochMinutes[i] = i == anchor ? epochMinutes : new long[lines];
+				int line = 0;
+				for (IntervalChunk chunk : chunks.get(i)) {
+					int count = Math.min(chunk.numberOfLines, lines - line);
+					if (count <= 0) {
+						break;
+					}
+					System.arraycopy(chunk.epochMinutes, 0, fileEpochMinutes[i], line, count);
+					for (int j = 0; j < numberOfValues[i]; j++) {
+						double[] column = columns[i][j];
+						for (int k = 0; k < count; k++) {
+							column[line + k] = chunk.values[k * numberOfValues[i] + j];
+						}
+					}
+					line += count;
+				}
+				chunks.get(i).clear();
+			}
+
+			// Make sure the dates match on every line before the first error, as readFiles would
+			for (int line = 0; line < lines; line++) {
+				long epochMinute = fileEpochMinutes[anchor][line];
+				for (int i = 0; i < files.length; i++) {
+					if (files[i] != null && fileEpochMinutes[i][line] != epochMinute) {
+						throw new Exception("Missing data in Usage, Generated, Feed-in or Spot Price file at line " + (line + 2));
+					}
+				}
+			}
+			// Parse the line that failed again, with its line number, to get the error.
+			if (firstError < shortest) {
+				for (int i = 0; i < files.length; i++) {
+					if (errorLines[i] == firstError) {
+						IntervalRecord record = new IntervalRecord(files[i].getName(), numberOfValues[i], new DateParser());
+						if (firstError > 0) {
+							record.parseLine(firstLines[i], firstError + 2);
+						}
+						try (IntervalFileReader reader = new IntervalFileReader(channels[i], errorPositions[i],
+								channels[i].size())) {
+							record.parseLine(reader.readLine(), firstError + 2);
+						}
+					}
+				}
+				throw new Exception("Unable to read line " + (firstError + 2) + " of the input files");
+			}
+			numberOfIntervals = lines;
+			progress.rowsProcessed(lines, totalBytes, totalBytes);
+
+			// Same warning as readFiles if the files didn't all end on the same line
+			boolean[] ended = new boolean[files.length];
+			boolean anyLeft = false;
+			for (int i = 0; i < files.length; i++) {
+				ended[i] = files[i] != null && errorLines[i] == -1 && numberOfLines[i] == lines;
+				anyLeft |= files[i] != null && !ended[i];
+			}
+			if (anyLeft) {
+				String warningString = "Warning: Processing finised early beacuse at least one input file had missing lines at the end of the file.\n";
+				warningString += "Files with missing lines:\n";
+				for (int i = 0; i < files.length; i++) {
+					if (ended[i]) {
+						warningString += "\t"+files[i].getName()+"\n";
+					}
+				}
+				missingLinesWarning = warningString;
+			}
+		} finally {
+			for (List<IntervalChunk> fileChunks : chunks) {
+				for (IntervalChunk chunk : fileChunks) {
+					chunk.stop();
+				}
+			}
+			for (ForkJoinTask<IntervalChunk> task : tasks) {
+				task.quietlyJoin();
+			}
+		}
+	}
+
+	/**
+	 * Parse the first line of data of a file, so that the record's DateParser locks in the format of the file's timestamps exactly as
+	 * it would reading the file from the start.  The line was parsed without any errors when the file was first read, so any error now
+	 * is ignored and left to the lines that are actually being read.
+	 *
+	 * @param index 0 for Energy Usage, 1 for AEMO Spot Price, 2 for Energy Generated, 3 for Feed-in Tariff.
+	 * @param record Record that will parse the rest of the file, null if the file is not used.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	private void parseFirstLine(int index, IntervalRecord record) throws IOException {
+		if (record == null) {
+			return;
+		}
+		String line = openFile(index).getFirstLine();
+		if (line != null) {
+			try {
+				record.parseLine(line, 2);
+			} catch (Exception e) {
+				// Reported by the lines being read if it matters
+			}
+		}
+	}
+
+	/**
+	 * Copy the values of one line from each file into the end of the columns, making room if necessary.
+	 *
+	 * @param usageRecord Parsed line from Energy Used, null if there is no usage.
+	 * @param priceRecord Parsed line from AEMO Spot Price, null if there is no usage.
+	 * @param generatedRecord Parsed line from Energy Generated, null if there is no generation.
+	 * @param feedInRecord Parsed line from Feed-In Tariff, null if there is no generation.
+	 */
+	private void addInterval(IntervalRecord usageRecord, IntervalRecord priceRecord, IntervalRecord generatedRecord,
+			IntervalRecord feedInRecord) {
+		if (numberOfIntervals == epochMinutes.length) {
+			int capacity = Math.max(INITIAL_CAPACITY, epochMinutes.length * 2);
+			epochMinutes = Arrays.copyOf(epochMinutes, capacity);
+			if (usage != null) {
+				for (int i = 0; i < usage.length; i++) {
+					usage[i] = Arrays.copyOf(usage[i], capacity);
+				}
+				price = Arrays.copyOf(price, capacity);
+			}
+			if (generated != null) {
+				for (int i = 0; i < generated.length; i++) {
+					generated[i] = Arrays.copyOf(generated[i], capacity);
+				}
+				feedIn = Arrays.copyOf(feedIn, capacity);
+			}
+		}
+
+		if (usageRecord != null) {
+			epochMinutes[numberOfIntervals] = usageRecord.epochMinute;
+			for (int i = 0; i < usage.length; i++) {
+				usage[i][numberOfIntervals] = usageRecord.values[i];
+			}
+			price[numberOfIntervals] = priceRecord.values[0];
+		}
+		if (generatedRecord != null) {
+			epochMinutes[numberOfIntervals] = generatedRecord.epochMinute;
+			for (int i = 0; i < generated.length; i++) {
+				generated[i][numberOfIntervals] = generatedRecord.values[i];
+			}
+			feedIn[numberOfIntervals] = feedInRecord.values[0];
+		}
+		numberOfIntervals++;
+	}
+
+	/**
+	 * The cache file for this set of interval files - the Energy Usage file, or the Energy Generated file if there is no usage, with
+	 * ".cerei" added to the name.
+	 *
+	 * @return Cache file, null if there are no interval files.
+	 */
+	public File cacheFile() {
+		File anchor = usageFile != null ? usageFile : generatedFile;
+		return anchor == null ? null : new File(anchor.getPath() + CACHE_EXTENSION);
+	}
+
+	/**
+	 * Load the columns from the cache file, provided it was written for the same files, none of which have changed since.  A file
+	 * with a different last modified time is still treated as unchanged if its size and CRC-32 are the same.
+	 * <p>
+	 * The cache is also loaded if lines have been added to the end of the files since it was written, provided the part of each
+	 * file that was cached is unchanged and ended with a whole line.  cachedLengths then says where the new lines start.
+	 *
+	 * @return true if the columns were loaded from the cache, false if the interval files need to be read.
+	 */
+	private boolean readCache() {
+		File cacheFile = cacheFile();
+		if (cacheFile == null || !cacheFile.isFile()) {
+			return false;
+		}
+		File[] sources = { usageFile, priceFile, generatedFile, feedInFile };
+		try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer start = ByteBuffer.allocate(12);
+			readFully(channel, start);
+			if (start.getInt() != CACHE_MAGIC || start.getInt() != CACHE_VERSION) {
+				return false;
+			}
+			int headerSize = start.getInt();
+			if (headerSize < 0 || headerSize > channel.size() - 12) {
+				return false;
+			}
+			ByteBuffer headerBuffer = ByteBuffer.allocate(headerSize);
+			readFully(channel, headerBuffer);
+			DataInputStream header = new DataInputStream(new ByteArrayInputStream(headerBuffer.array()));
+
+			// Make sure the cache was written for these files and they haven't changed, other than lines being added.
+			long[] lengths = new long[sources.length];
+			long[] checksums = new long[sources.length];
+			for (int i = 0; i < sources.length; i++) {
+				boolean present = header.readBoolean();
+				if (present != (sources[i] != null)) {
+					return false;
+				}
+				if (present) {
+					String name = header.readUTF();
+					lengths[i] = header.readLong();
+					long modified = header.readLong();
+					checksums[i] = header.readLong();
+					if (!name.equals(sources[i].getName()) || lengths[i] > sourceLengths[i]) {
+						return false;
+					}
+					if (lengths[i] == sourceLengths[i] && modified != sourceModified[i]
+							&& checksums[i] != checksum(i, lengths[i])) {
+						return false;
+					}
+				}
+			}
+			if (!readNames(header).equals(usageMeterNames) || !readNames(header).equals(generatedMeterNames)) {
+				return false;
+			}
+			boolean hasUsage = header.readBoolean();
+			boolean hasGenerated = header.readBoolean();
+			if (hasUsage != (usage != null) || hasGenerated != (generated != null)) {
+				return false;
+			}
+			int intervals = header.readInt();
+			String warning = header.readBoolean() ? header.readUTF() : null;
+			if (!Arrays.equals(lengths, sourceLengths)) {
+				// Lines have been added.  Only carry on from the cache if the files all ended on the same line and the part of each
+				// file that was cached hasn't changed.
+				if (warning != null) {
+					return false;
+				}
+				for (int i = 0; i < sources.length; i++) {
+					if (sources[i] != null && lengths[i] != sourceLengths[i] && (!endsWithNewLine(i, lengths[i])
+							|| checksums[i] != checksum(i, lengths[i]))) {
+						return false;
+					}
+				}
+			}
+
+			// The columns follow the header, each one "intervals" 64 bit values long.
+			long position = columnsStart(headerSize);
+			int columns = 1 + (hasUsage ? usageMeterNames.size() + 1 : 0) + (hasGenerated ? generatedMeterNames.size() + 1 : 0);
+			if (intervals < 0 || channel.size() != position + (long) intervals * 8 * columns) {
+				return false;
+			}
+			channel.position(position);
+			ByteBuffer buffer = ByteBuffer.allocateDirect(CACHE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			long[] cachedEpochMinutes = new long[intervals];
+			readColumn(channel, buffer, cachedEpochMinutes);
+			double[][] cachedUsage = null, cachedGenerated = null;
+			double[] cachedPrice = null, cachedFeedIn = null;
+			if (hasUsage) {
+				cachedUsage = new double[usageMeterNames.size()][intervals];
+				for (int i = 0; i < cachedUsage.length; i++) {
+					readColumn(channel, buffer, cachedUsage[i]);
+				}
+				cachedPrice = new double[intervals];
+				readColumn(channel, buffer, cachedPrice);
+			}
+			if (hasGenerated) {
+				cachedGenerated = new double[generatedMeterNames.size()][intervals];
+				for (int i = 0; i < cachedGenerated.length; i++) {
+					readColumn(channel, buffer, cachedGenerated[i]);
+				}
+				cachedFeedIn = new double[intervals];
+				readColumn(channel, buffer, cachedFeedIn);
+			}
+
+			// Everything read - use it.
+			numberOfIntervals = intervals;
+			epochMinutes = cachedEpochMinutes;
+			usage = cachedUsage;
+			price = cachedPrice;
+			generated = cachedGenerated;
+			feedIn = cachedFeedIn;
+			missingLinesWarning = warning;
+			cachedLengths = lengths;
+			cachedChecksums = checksums;
+			for (int i = 0; i < sources.length; i++) {
+				if (sources[i] != null && lengths[i] == sourceLengths[i]) {
+					sourceChecksums[i] = checksums[i];
+				}
+			}
+			return true;
+		} catch (IOException e) {
+			// A cache that can't be read is the same as no cache.
+			return false;
+		}
+	}
+
+	/**
+	 * Write the columns to the cache file so they don't need to be parsed next time.  The file is written under a temporary name
+	 * and then renamed, so a calculation running at the same time never sees a half written cache.
+	 */
+	private void writeCache() {
+		File cacheFile = cacheFile();
+		if (cacheFile == null) {
+			return;
+		}
+		File[] sources = { usageFile, priceFile, generatedFile, feedInFile };
+		Path tempFile = null;
+		try {
+			ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+			DataOutputStream header = new DataOutputStream(headerBytes);
+			for (int i = 0; i < sources.length; i++) {
+				header.writeBoolean(sources[i] != null);
+				if (sources[i] != null) {
+					header.writeUTF(sources[i].getName());
+					header.writeLong(sourceLengths[i]);
+					header.writeLong(sourceModified[i]);
+					header.writeLong(sourceChecksum(i));
+				}
+			}
+			// Don't cache anything if a file changed while it was being read.
+			for (int i = 0; i < sources.length; i++) {
+				if (sources[i] != null && (sources[i].length() != sourceLengths[i] || sources[i].lastModified() != sourceModified[i])) {
+					return;
+				}
+			}
+			writeNames(header, usageMeterNames);
+			writeNames(header, generatedMeterNames);
+			header.writeBoolean(usage != null);
+			header.writeBoolean(generated != null);
+			header.writeInt(numberOfIntervals);
+			header.writeBoolean(missingLinesWarning != null);
+			if (missingLinesWarning != null) {
+				header.writeUTF(missingLinesWarning);
+			}
+			header.flush();
+
+			tempFile = Files.createTempFile(cacheFile.getAbsoluteFile().getParentFile().toPath(), cacheFile.getName(), ".tmp");
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+				// Header, padded so the columns start on an 8 byte boundary
+				ByteBuffer start = ByteBuffer.allocate((int) columnsStart(headerBytes.size()));
+				start.putInt(CACHE_MAGIC).putInt(CACHE_VERSION).putInt(headerBytes.size()).put(headerBytes.toByteArray());
+				start.position(0);
+				writeFully(channel, start);
+
+				ByteBuffer column = ByteBuffer.allocate(numberOfIntervals * 8).order(ByteOrder.LITTLE_ENDIAN);
+				column.asLongBuffer().put(epochMinutes, 0, numberOfIntervals);
+				writeFully(channel, column);
+				if (usage != null) {
+					for (int i = 0; i < usage.length; i++) {
+						writeColumn(channel, column, usage[i]);
+					}
+					writeColumn(channel, column, price);
+				}
+				if (generated != null) {
+					for (int i = 0; i < generated.length; i++) {
+						writeColumn(channel, column, generated[i]);
+					}
+					writeColumn(channel, column, feedIn);
+				}
+			}
+			Files.move(tempFile, cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			tempFile = null;
+		} catch (IOException e) {
+			// The cache only saves time next time - carry on without it.
+		} finally {
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException e) {
+					// Nothing more can be done
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write one column of the cache.
+	 *
+	 * @param channel Cache file.
+	 * @param buffer Buffer big enough to hold a column - reused for every column.
+	 * @param values Values to write.  Only the first numberOfIntervals are written.
+	 *
+	 * @throws IOException If the column cannot be written.
+	 */
+	private void writeColumn(FileChannel channel, ByteBuffer buffer, double[] values) throws IOException {
+		buffer.clear();
+		buffer.asDoubleBuffer().put(values, 0, numberOfIntervals);
+		writeFully(channel, buffer);
+	}
+
+	/**
+	 * Position of the first column in the cache file - after the header and rounded up to a multiple of 8 bytes.
+	 *
+	 * @param headerSize Size of the header in bytes.
+	 *
+	 * @return Offset of the first column from the start of the file.
+	 */
+	private static long columnsStart(int headerSize) {
+		return (12L + headerSize + 7) & ~7L;
+	}
+
+	/**
+	 * Read the next column of the cache, a buffer full at a time.
+	 *
+	 * @param channel Cache file, positioned at the start of the column.
+	 * @param buffer Buffer to read through - reused for every column.
+	 * @param values Filled with the column.
+	 *
+	 * @throws IOException If the column cannot be read.
+	 */
+	private static void readColumn(FileChannel channel, ByteBuffer buffer, long[] values) throws IOException {
+		for (int offset = 0; offset < values.length;) {
+			int count = Math.min(buffer.capacity() / 8, values.length - offset);
+			buffer.clear().limit(count * 8);
+			readFully(channel, buffer);
+			buffer.asLongBuffer().get(values, offset, count);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Read the next column of the cache, a buffer full at a time.
+	 *
+	 * @param channel Cache file, positioned at the start of the column.
+	 * @param buffer Buffer to read through - reused for every column.
+	 * @param values Filled with the column.
+	 *
+	 * @throws IOException If the column cannot be read.
+	 */
+	private static void readColumn(FileChannel channel, ByteBuffer buffer, double[] values) throws IOException {
+		for (int offset = 0; offset < values.length;) {
+			int count = Math.min(buffer.capacity() / 8, values.length - offset);
+			buffer.clear().limit(count * 8);
+			readFully(channel, buffer);
+			buffer.asDoubleBuffer().get(values, offset, count);
+			offset += count;
+		}
+	}
+
+	/**
+	 * Fill a buffer from a file, then get it ready to be read.
+	 *
+	 * @param channel File to read.
+	 * @param buffer Buffer to fill.
+	 *
+	 * @throws IOException If the file ends before the buffer is full.
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) == -1) {
+				throw new IOException("Cache file is too short");
+			}
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Write the whole of a buffer to a file.
+	 *
+	 * @param channel File to write.
+	 * @param buffer Buffer to write - from position 0 to the end.
+	 *
+	 * @throws IOException If the buffer cannot be written.
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.rewind();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Read a list of meter names from a cache header.
+	 *
+	 * @param header Cache header.
+	 *
+	 * @throws IOException If the names cannot be read.
+	 *
+	 * @return Meter names.
+	 */
+	private static List<String> readNames(DataInputStream header) throws IOException {
+		int size = header.readInt();
+		List<String> names = new ArrayList<String>();
+		for (int i = 0; i < size; i++) {
+			names.add(header.readUTF());
+		}
+		return names;
+	}
+
+	/**
+	 * Write a list of meter names to a cache header.
+	 *
+	 * @param header Cache header.
+	 * @param names Meter names.
+	 *
+	 * @throws IOException If the names cannot be written.
+	 */
+	private static void writeNames(DataOutputStream header, List<String> names) throws IOException {
+		header.writeInt(names.size());
+		for (String name : names) {
+			header.writeUTF(name);
+		}
+	}
+
+	/**
+	 * Calculate the CRC-32 of the start of a file, used to recognise a file that has been touched (or copied) without being changed,
+	 * or that has only had lines added to the end.
+	 *
+	 * @param file File to check.
+	 * @param length Number of bytes to check from the start of the file - Long.MAX_VALUE for the whole file.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 *
+	 * @return CRC-32 of the first length bytes of the file.
+	 */
+	static long checksum(File file, long length) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return checksum(channel, length);
+		}
+	}
+
+	/**
+	 * Calculate the CRC-32 of the start of a file that is already open.  Reads at given positions, so the file can be shared.
+	 *
+	 * @param channel File to check.
+	 * @param length Number of bytes to check from the start of the file - Long.MAX_VALUE for the whole file.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 *
+	 * @return CRC-32 of the first length bytes of the file.
+	 */
+	static long checksum(FileChannel channel, long length) throws IOException {
+		CRC32 crc = new CRC32();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(65536);
+		long position = 0;
+		while (position < length) {
+			buffer.limit((int) Math.min(buffer.capacity(), length - position));
+			int read = channel.read(buffer, position);
+			if (read == -1) {
+				break;
+			}
+			position += read;
+			buffer.flip();
+			crc.update(buffer);
+			buffer.clear();
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * CRC-32 of the start of one of the input files, using the open file during a load.
+	 *
+	 * @param index 0 for Energy Usage, 1 for AEMO Spot Price, 2 for Energy Generated, 3 for Feed-in Tariff.
+	 * @param length Number of bytes to check from the start of the file.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 *
+	 * @return CRC-32 of the first length bytes of the file.
+	 */
+	private long checksum(int index, long length) throws IOException {
+		if (openFiles != null) {
+			return checksum(openFile(index).getChannel(), length);
+		}
+		File[] sources = { usageFile, priceFile, generatedFile, feedInFile };
+		return checksum(sources[index], length);
+	}
+
+	/**
+	 * CRC-32 of one of the input files as it was when it was read.  Only worked out when it is needed, and only once.
+	 *
+	 * @param index 0 for Energy Usage, 1 for AEMO Spot Price, 2 for Energy Generated, 3 for Feed-in Tariff.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 *
+	 * @return CRC-32 of the file.
+	 */
+	private long sourceChecksum(int index) throws IOException {
+		if (sourceChecksums[index] == -1) {
+			sourceChecksums[index] = checksum(index, sourceLengths[index]);
+		}
+		return sourceChecksums[index];
+	}
+
+	/**
+	 * Check that the start of a file ends with a whole line, so lines added to the file can't change the last line that was read.
+	 *
+	 * @param index 0 for Energy Usage, 1 for AEMO Spot Price, 2 for Energy Generated, 3 for Feed-in Tariff.
+	 * @param length Number of bytes at the start of the file that were read.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 *
+	 * @return true if the last of those bytes is a "\n".
+	 */
+	private boolean endsWithNewLine(int index, long length) throws IOException {
+		if (length <= 0) {
+			return false;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(1);
+		if (openFiles != null) {
+			return openFile(index).getChannel().read(buffer, length - 1) == 1 && buffer.get(0) == '\n';
+		}
+		File[] sources = { usageFile, priceFile, generatedFile, feedInFile };
+		try (FileChannel channel = FileChannel.open(sources[index].toPath(), StandardOpenOption.READ)) {
+			return channel.read(buffer, length - 1) == 1 && buffer.get(0) == '\n';
+		}
+	}
+
+	/**
+	 * Write a description of the input files as they were when they were read, so that a later load of the same files can tell
+	 * whether the data it loads starts with the data loaded now - see startsWith.
+	 *
+	 * @param out Where to write the description.
+	 *
+	 * @throws IOException If the description cannot be written or the files cannot be read.
+	 */
+	public void writeSources(DataOutputStream out) throws IOException {
+		File[] sources = { usageFile, priceFile, generatedFile, feedInFile };
+		for (int i = 0; i < sources.length; i++) {
+			out.writeBoolean(sources[i] != null);
+			if (sources[i] != null) {
+				out.writeLong(sourceLengths[i]);
+				out.writeLong(sourceChecksum(i));
+				out.writeBoolean(endsWithNewLine(i, sourceLengths[i]));
+			}
+		}
+	}
+
+	/**
+	 * Check whether this data starts with the data that was loaded when a description of the files was written by writeSources,
+	 * i.e. each file is either unchanged or has only had whole lines added to the end.  If so, the intervals loaded then are the
+	 * first intervals of this data.
+	 *
+	 * @param in Description written by writeSources.
+	 *
+	 * @throws IOException If the description cannot be read or the files cannot be read.
+	 *
+	 * @return true if this data starts with the data that was loaded then.
+	 */
+	public boolean startsWith(DataInputStream in) throws IOException {
+		File[] sources = { usageFile, priceFile, generatedFile, feedInFile };
+		for (int i = 0; i < sources.length; i++) {
+			boolean present = in.readBoolean();
+			if (present != (sources[i] != null)) {
+				return false;
+			}
+			if (present) {
+				long length = in.readLong();
+				long checksum = in.readLong();
+				boolean endsWithNewLine = in.readBoolean();
+				if (length == sourceLengths[i]) {
+					if (checksum != sourceChecksum(i)) {
+						return false;
+					}
+				}
+				else if (length > sourceLengths[i] || !endsWithNewLine) {
+					return false;
+				}
+				else if (length == cachedLengths[i] ? checksum != cachedChecksums[i]
+						: checksum != checksum(i, length)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Copy the energy used by every meter in one interval into a row.
+	 *
+	 * @param interval Index of the interval.
+	 * @param row Receives one value per meter in the order of the Energy Usage file.
+	 */
+	public void getUsage(int interval, double[] row) {
+		for (int i = 0; i < usage.length; i++) {
+			row[i] = usage[i][interval];
+		}
+	}
+
+	/**
+	 * Copy the energy generated by every meter in one interval into a row.
+	 *
+	 * @param interval Index of the interval.
+	 * @param row Receives one value per meter in the order of the Energy Generated file.
+	 */
+	public void getGenerated(int interval, double[] row) {
+		for (int i = 0; i < generated.length; i++) {
+			row[i] = generated[i][interval];
+		}
+	}
+
+	/**
+	 * Find the length of the intervals from the timestamps - the most common gap between the timestamps of the first thousand or so
+	 * intervals, so the odd missing or repeated line doesn't matter.
+	 *
+	 * @throws Exception If the intervals don't fit exactly into an hour, e.g. 7 minutes.
+	 *
+	 * @return Length of an interval in minutes, DEFAULT_INTERVAL_MINUTES if there are fewer than two intervals.
+	 */
+	public int detectIntervalMinutes() throws Exception {
+		HashMap<Long, Integer> gapCounts = new HashMap<Long, Integer>();
+		long intervalMinutes = DEFAULT_INTERVAL_MINUTES;
+		int mostCommon = 0;
+		int last = Math.min(numberOfIntervals, INTERVAL_SAMPLE_SIZE + 1);
+		for (int i = 1; i < last; i++) {
+			long gap = epochMinutes[i] - epochMinutes[i - 1];
+			if (gap > 0) {
+				int count = gapCounts.merge(gap, 1, Integer::sum);
+				if (count > mostCommon) {
+					mostCommon = count;
+					intervalMinutes = gap;
+				}
+			}
+		}
+		if (intervalMinutes > 60 || !CompiledTariff.isSupportedInterval((int) intervalMinutes)) {
+			throw new Exception("The interval files have readings every " + intervalMinutes
+					+ " minutes.  Readings must be 5, 15, 30 or some other number of minutes that divides into an hour");
+		}
+		return (int) intervalMinutes;
+	}
+
+	/**
+	 * Makes sure that the timestamps from Energy Used, AEMO Spot Price, Energy Generated and Feed-In Tariff all match.
+	 * The timestamps have already been parsed by IntervalRecord so only the epoch minutes need to be compared.
+	 *
+	 * @param usageRecord Parsed line from Energy Used.
+	 * @param priceRecord Parsed line from AEMO Spot Price.
+	 * @param generatedRecord Parsed line from Energy Generated.
+	 * @param feedInRecord Parsed line from Feed-In Tariff.
+	 * @param lineNumber Line number of the files currently being processed - used in an Exception if there is a mis-match.
+	 *
+	 * @throws Exception If there is a mismatch.
+	 */
+	private void validateDateTimes(IntervalRecord usageRecord, IntervalRecord priceRecord,
+			IntervalRecord generatedRecord, IntervalRecord feedInRecord, int lineNumber) throws Exception {
+		// Make sure the dates are the same. Throw exception if they are not the same.
+		if (!(usageRecord.epochMinute == priceRecord.epochMinute && usageRecord.epochMinute == generatedRecord.epochMinute
+				&& usageRecord.epochMinute == feedInRecord.epochMinute)) {
+			throw new Exception("Missing data in Usage, Generated, Feed-in or Spot Price file at line " + lineNumber);
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package au.org.nifpi.cerei;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An Energy Usage, Spot Price, Energy Generated or Feed-in Tariff file opened once for the whole of a calculation.  The header line
+ * (the meter names) and the first line of data (the first timestamp, and so the year) are read the first time they are asked for,
+ * and the same open file is then read line by line, or in chunks, by IntervalData.  Each file is only opened once however many
+ * stages look at it, which matters when the files are on a network share.
+ * <p>
+ * Everything reading the file does so with reads at a given position, so the one channel can be shared by all the readers,
+ * including the chunks of a large file parsed at the same time.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class IntervalFileHandle implements AutoCloseable {
+	/** The file */
+	private File file;
+	/** The open file */
+	private FileChannel channel;
+	/** Size of the file when it was opened */
+	private long size;
+	/** true once the header line and first line of data have been read */
+	private boolean headerRead = false;
+	/** Header line - null if the file is empty */
+	private String header = null;
+	/** First line of data - null if there is none */
+	private String firstLine = null;
+	/** Position in the file of the start of the first line of data */
+	private long dataStart = 0;
+	/** Position in the file after the first line of data */
+	private long firstLineEnd = 0;
+	/** Timestamp of the first line of data - null until it has been parsed */
+	private LocalDateTime firstDateTime = null;
+
+	/**
+	 * Open an interval file.  Nothing is read until it is needed.
+	 *
+	 * @param file Interval file.
+	 *
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public IntervalFileHandle(File file) throws IOException {
+		this.file = file;
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			size = channel.size();
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * The interval file this is reading.
+	 *
+	 * @return The file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * The file opened for reading, shared by everything reading it.
+	 *
+	 * @return The open file, left open by anything reading it.
+	 */
+	public FileChannel getChannel() {
+		return channel;
+	}
+
+	/**
+	 * How long the file was when it was opened.  Lines added since are not read.
+	 *
+	 * @return Size of the file when it was opened.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Read the file line by line.  Closing the reader leaves the file open.
+	 *
+	 * @param start Position in the file to start reading from - should be the start of a line.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 *
+	 * @return Reader positioned at start.
+	 */
+	public IntervalFileReader newReader(long start) throws IOException {
+		return new IntervalFileReader(channel, Math.min(start, size), size);
+	}
+
+	/**
+	 * Read the header line and the first line of data, unless they have already been read.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	private void readHeader() throws IOException {
+		if (headerRead) {
+			return;
+		}
+		try (IntervalFileReader reader = newReader(0)) {
+			CharSequence line = reader.readLine();
+			if (line != null) {
+				// The file is read a byte at a time, so decode the header the same way as a Reader would - meter names may not be ASCII.
+				byte[] bytes = new byte[line.length()];
+				for (int i = 0; i < bytes.length; i++) {
+					bytes[i] = (byte) line.charAt(i);
+				}
+				header = new String(bytes, Charset.defaultCharset());
+				dataStart = reader.getPosition();
+				line = reader.readLine();
+				firstLine = line == null ? null : line.toString();
+				firstLineEnd = reader.getPosition();
+			}
+		}
+		headerRead = true;
+	}
+
+	/**
+	 * The line of meter names at the top of the file.
+	 *
+	 * @return The header line, null if the file is empty.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	public String getHeader() throws IOException {
+		readHeader();
+		return header;
+	}
+
+	/**
+	 * The line after the header, which gives the first timestamp.
+	 *
+	 * @return The first line of data, null if there is none.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	public String getFirstLine() throws IOException {
+		readHeader();
+		return firstLine;
+	}
+
+	/**
+	 * Where the data starts, after the header line.
+	 *
+	 * @return Position in the file of the start of the first line of data.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	public long getDataStart() throws IOException {
+		readHeader();
+		return dataStart;
+	}
+
+	/**
+	 * How much of the file was read to find the header line and the first line of data.
+	 *
+	 * @return Number of bytes read to find the header line and the first line of data.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	public long getHeaderBytes() throws IOException {
+		readHeader();
+		return firstLineEnd;
+	}
+
+	/**
+	 * Names of the meters in the header line - every column after the timestamp, with any white space and anything from a "(" on,
+	 * e.g. "(kWh)", removed.
+	 *
+	 * @throws Exception If the file is empty.
+	 *
+	 * @return A new list of the names, in the order of the columns.
+	 */
+	public List<String> getMeterNames() throws Exception {
+		readHeader();
+		if (header == null) {
+			throw new Exception(file.getName() + " is empty");
+		}
+		List<String> meterNames = new ArrayList<String>();
+		String[] headings = header.split(",");
+		for (int i = 1; i < headings.length; i++) {
+			String meterName;
+			String trimmedRawMeterName = headings[i].replaceAll("\\s", "");
+			// remove "(kWh)"
+			int leftParen = trimmedRawMeterName.indexOf("(");
+			if (leftParen != -1) {
+				meterName = trimmedRawMeterName.substring(0, leftParen);
+			} else {
+				meterName = trimmedRawMeterName;
+			}
+			meterNames.add(meterName);
+		}
+		return meterNames;
+	}
+
+	/**
+	 * Timestamp of the first line of data.
+	 *
+	 * @param dateParser Parses the timestamp.
+	 * @param fileDescription Name of the file for any error, e.g. "Energy Usage File".
+	 *
+	 * @throws Exception If the timestamp cannot be parsed.
+	 *
+	 * @return The timestamp, null if there is no data.
+	 */
+	public LocalDateTime getFirstDateTime(DateParser dateParser, String fileDescription) throws Exception {
+		readHeader();
+		if (firstDateTime == null && firstLine != null) {
+			firstDateTime = dateParser.parseDateTime(firstLine.split(",")[0], fileDescription, 2);
+		}
+		return firstDateTime;
+	}
+
+	/**
+	 * Close the file.
+	 *
+	 * @throws IOException If the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,313 @@
+package au.org.nifpi.cerei;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads an Energy Usage, Spot Price, Energy Generated or Feed-in Tariff file line by line straight out of a buffer of the file's
+ * bytes.  The reader is itself the current line: it implements CharSequence over the bytes of the line in the buffer, so reading a
+ * line creates no String and no char array, and IntervalRecord and DateParser parse the timestamp and values directly from the
+ * file's bytes.
+ * <p>
+ * The interval files are plain ASCII, so each byte is one character.  Lines end with "\n", "\r\n" or "\r", the same as
+ * BufferedReader.readLine.  The file is read into one direct buffer, reused for the whole file, at a given position in the file, so
+ * any number of readers can share one open file.  The file is not memory mapped, as on Windows a mapped file can't be saved over
+ * (e.g. by editing it while the GUI is open) until the mapping is garbage collected.
+ * <p>
+ * A reader can also read just part of a file that is already open, e.g. one chunk of a large file being parsed in parallel.
+ * <p>
+ * The current line is only valid until the next call to readLine.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class IntervalFileReader implements CharSequence, AutoCloseable {
+	/** Size of the buffer the file is read through.  Doubled if a line doesn't fit */
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	/** The file being read */
+	private FileChannel channel;
+	/** True if the channel was opened by this reader, so should be closed by it */
+	private boolean ownsChannel;
+	/** Position in the file after the last byte to read - the size of the file unless only reading part of it */
+	private long size;
+	/** Part of the file read so far, from windowStart up to the limit of the buffer */
+	private ByteBuffer window;
+	/** Position in the file of the start of the window */
+	private long windowStart;
+	/** Position in the window of the start of the next line */
+	private int next = 0;
+	/** Position in the window of the start of the current line */
+	private int lineStart = 0;
+	/** Length of the current line, excluding the line ending */
+	private int lineLength = 0;
+
+	/**
+	 * Open a file for reading.
+	 *
+	 * @param file Interval file to read.
+	 *
+	 * @throws IOException If the file cannot be opened or read.
+	 */
+	public IntervalFileReader(File file) throws IOException {
+		this(file, 0);
+	}
+
+	/**
+	 * Open a file for reading from part way through, e.g. to read just the lines added to the end of a file.
+	 *
+	 * @param file Interval file to read.
+	 * @param start Position in the file to start reading from - should be the start of a line.
+	 *
+	 * @throws IOException If the file cannot be opened or read.
+	 */
+	public IntervalFileReader(File file, long start) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		ownsChannel = true;
+		try {
+			size = channel.size();
+			readWindow(Math.min(start, size));
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Read part of a file that is already open.  The channel is left open by close.
+	 *
+	 * @param channel Interval file to read.
+	 * @param start Position in the file to start reading from - should be the start of a line.
+	 * @param end Position in the file to stop reading at - should be the start of a line or the end of the file.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	public IntervalFileReader(FileChannel channel, long start, long end) throws IOException {
+		this.channel = channel;
+		ownsChannel = false;
+		size = end;
+		readWindow(start);
+	}
+
+	/**
+	 * Find the start of the first line at or after a position in a file, e.g. to split a file into chunks of whole lines.  Line
+	 * endings are the same as for readLine, so a "\r\n" is never split.
+	 *
+	 * @param channel Interval file.
+	 * @param position Position in the file.
+	 * @param end Position in the file to stop looking at, normally the size of the file.
+	 *
+	 * @return Position of the start of the line, or end if there isn't another line.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static long nextLineStart(FileChannel channel, long position, long end) throws IOException {
+		if (position <= 0) {
+			return 0;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		// Start from the byte before the position, in case that byte ends a line.
+		long offset = position - 1;
+		boolean afterCarriageReturn = false;
+		while (offset < end) {
+			buffer.clear();
+			int read = channel.read(buffer, offset);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++, offset++) {
+				byte b = buffer.get(i);
+				if (afterCarriageReturn) {
+					return b == '\n' ? offset + 1 : offset;
+				}
+				if (b == '\n') {
+					return offset + 1;
+				}
+				if (b == '\r') {
+					afterCarriageReturn = true;
+				}
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Start reading the file at a position.
+	 *
+	 * @param position Position in the file of the start of the window.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	private void readWindow(long position) throws IOException {
+		window = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		window.limit(0);
+		windowStart = position;
+		next = 0;
+		fillWindow();
+	}
+
+	/**
+	 * Move the start of the next line to the start of the window and fill the rest of the window from the file.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	private void fillWindow() throws IOException {
+		window.position(next);
+		window.compact();
+		windowStart += next;
+		next = 0;
+		window.limit((int) Math.min(window.capacity(), size - windowStart));
+		while (window.hasRemaining()) {
+			if (channel.read(window, windowStart + window.position()) < 0) {
+				// The file has been cut short since it was opened
+				size = windowStart + window.position();
+				break;
+			}
+		}
+		window.flip();
+	}
+
+	/**
+	 * Double the size of the window, keeping what has been read, to make room for a long line.
+	 *
+	 * @throws IOException If the window would be too big.
+	 */
+	private void growWindow() throws IOException {
+		if (window.capacity() > Integer.MAX_VALUE / 2) {
+			throw new IOException("Line longer than " + window.capacity() + " bytes at position " + windowStart);
+		}
+		ByteBuffer larger = ByteBuffer.allocateDirect(window.capacity() * 2);
+		larger.put(window.position(0));
+		larger.flip();
+		window = larger;
+	}
+
+	/**
+	 * Move on to the next line of the file.
+	 *
+	 * @return This reader, holding the next line, or null if the end of the file has been reached.
+	 *
+	 * @throws IOException If the next part of the file cannot be read.
+	 */
+	public CharSequence readLine() throws IOException {
+		if (windowStart + next >= size) {
+			return null;
+		}
+		int limit = window.limit();
+		int end = findLineEnd(next, limit);
+		// The line, and the "\n" of a "\r\n", must be wholly in the window.  If they might not be, read more of the file.
+		while (end >= limit - 1 && windowStart + limit < size) {
+			if (next == 0) {
+				growWindow();
+			}
+			int lineOffset = end - next;
+			fillWindow();
+			limit = window.limit();
+			end = findLineEnd(lineOffset, limit);
+		}
+		lineStart = next;
+		lineLength = end - next;
+		if (end < limit) {
+			if (window.get(end) == '\r' && end + 1 < limit && window.get(end + 1) == '\n') {
+				end += 2;
+			}
+			else {
+				end++;
+			}
+		}
+		next = end;
+		return this;
+	}
+
+	/**
+	 * Find the end of a line in the window.
+	 *
+	 * @param start Position in the window of the start of the line.
+	 * @param limit Size of the window.
+	 *
+	 * @return Position in the window of the "\n" or "\r" that ends the line, or limit if the line runs to the end of the window.
+	 */
+	private int findLineEnd(int start, int limit) {
+		int end = start;
+		while (end < limit) {
+			byte b = window.get(end);
+			if (b == '\n' || b == '\r') {
+				break;
+			}
+			end++;
+		}
+		return end;
+	}
+
+	/**
+	 * Number of bytes of the file read so far, including the current line.
+	 *
+	 * @return Position in the file of the start of the next line.
+	 */
+	public long getPosition() {
+		return windowStart + next;
+	}
+
+	/**
+	 * Length of the current line.
+	 *
+	 * @return Number of characters in the current line, excluding the line ending.
+	 */
+	@Override
+	public int length() {
+		return lineLength;
+	}
+
+	/**
+	 * One character of the current line.
+	 *
+	 * @param index Position in the line.
+	 *
+	 * @return The character at that position.
+	 */
+	@Override
+	public char charAt(int index) {
+		return (char) (window.get(lineStart + index) & 0xff);
+	}
+
+	/**
+	 * Part of the current line.  Creates a String, so only used when a timestamp needs the full date parser or to report an error.
+	 *
+	 * @param start Position of the first character.
+	 * @param end Position after the last character.
+	 *
+	 * @return The characters between start and end.
+	 */
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		char[] chars = new char[end - start];
+		for (int i = start; i < end; i++) {
+			chars[i - start] = charAt(i);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * The current line as a String.
+	 *
+	 * @return The current line.
+	 */
+	@Override
+	public String toString() {
+		return subSequence(0, lineLength).toString();
+	}
+
+	/**
+	 * Close the file, unless it was already open when the reader was created.
+	 *
+	 * @throws IOException If the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (ownsChannel) {
+			channel.close();
+		}
+	}
+}
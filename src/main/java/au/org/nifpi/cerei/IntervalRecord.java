@@ -0,0 +1,169 @@
+package au.org.nifpi.cerei;
+
+/**
+ * A single line of an Energy Usage, Spot Price, Energy Generated or Feed-in Tariff file, tokenised, validated and parsed exactly once.
+ * The same record is reused for every line of a file so that reading a file does not create a new set of values per line.
+ * Cost, PEI and timestamp validation all work from the parsed values rather than re-parsing the tokens from the file.
+ * <p>
+ * Lines are parsed in place from any CharSequence, e.g. the current line of an IntervalFileReader, without splitting them into
+ * Strings.  Plain decimal values are converted by hand, anything else goes to Double.parseDouble, and both give exactly the same
+ * double.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class IntervalRecord {
+	/** Powers of ten that are exact as doubles */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14,
+			1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	/** Most significant digits converted by hand - any 15 digit number is exact as a double */
+	private static final int MAX_EXACT_DIGITS = 15;
+
+	/** Name of the file the line was read from - used to report errors */
+	protected String fileName;
+	/** Timestamp from the first token of the line as minutes since 1 Jan 1970.  Cheap to compare across files */
+	protected long epochMinute;
+	/** Meter values, spot price or feed-in tariff from the line - excludes the timestamp so index 0 is the first value after the timestamp */
+	protected double[] values;
+	/** Parse the many and varied date time formats.  Locks in the format of this file's timestamps */
+	private DateParser dateParser;
+
+	/**
+	 * Create a reusable record for the lines of a single input file.
+	 *
+	 * @param fileName Name of the file the lines are read from - used to report errors.
+	 * @param numberOfValues Number of values expected on each line after the timestamp.
+	 * @param dateParser Parser for the timestamp at the start of each line.  Should not be shared with other files as it locks in the format of this file.
+	 */
+	public IntervalRecord(String fileName, int numberOfValues, DateParser dateParser) {
+		this.fileName = fileName;
+		this.values = new double[numberOfValues];
+		this.dateParser = dateParser;
+	}
+
+	/**
+	 * Tokenise the line, validate that it contains a date followed by the expected number of floats and load the timestamp and values into this record.
+	 * Empty tokens at the end of the line are ignored, as they would be by String.split(",").
+	 *
+	 * @param line Line read in from the energy usage file, spot price file, generated energy file or feed-in tariff file
+	 * @param lineNumber Line number from file used to report any errors
+	 *
+	 * @throws Exception If there is missing or extra data on the line, if the timestamp cannot be parsed or if values that should be floats are something else.
+	 */
+	public void parseLine(CharSequence line, int lineNumber) throws Exception {
+		// Ignore trailing empty tokens
+		int end = line.length();
+		while (end > 0 && line.charAt(end - 1) == ',') {
+			end--;
+		}
+
+		// Count the tokens before parsing anything so that missing and extra data are reported first.
+		int numberOfTokens = 1;
+		for (int i = 0; i < end; i++) {
+			if (line.charAt(i) == ',') {
+				numberOfTokens++;
+			}
+		}
+		if (end == 0 && line.length() > 0) {
+			numberOfTokens = 0; // Line contains nothing but commas
+		}
+		if (numberOfTokens < values.length + 1) {
+			throw new Exception("Missing Data on line " + lineNumber + " of " + fileName);
+		}
+		if (numberOfTokens > values.length + 1) {
+			throw new Exception("Extra Data on line " + lineNumber + " of " + fileName);
+		}
+
+		// First token is the date.
+		int start = 0;
+		int comma = indexOfComma(line, start, end);
+		if (comma == -1 || comma > end) {
+			comma = end;
+		}
+		epochMinute = dateParser.parseEpochMinute(line, start, comma, fileName, lineNumber);
+
+		// The rest are values
+		for (int i = 0; i < values.length; i++) {
+			start = comma + 1;
+			comma = indexOfComma(line, start, end);
+			if (comma == -1 || comma > end) {
+				comma = end;
+			}
+			try {
+				values[i] = parseDouble(line, start, comma);
+			}
+			catch (Exception e) {
+				throw new Exception("Non-numerical data on line " + lineNumber + " column " + (i+2) + " of " + fileName);
+			}
+		}
+	}
+
+	/**
+	 * Find the next comma in a line.
+	 *
+	 * @param line Line read in from an interval file.
+	 * @param start Position to start looking from.
+	 * @param end Position to stop looking at.
+	 *
+	 * @return Position of the comma, or -1 if there isn't one before end.
+	 */
+	private static int indexOfComma(CharSequence line, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (line.charAt(i) == ',') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Convert a value in part of a line to a double, giving exactly the same result as Double.parseDouble on the same characters.
+	 * Values like -12.345 with no more than 15 significant digits are converted by hand: the digits are an exact long, which is
+	 * exactly representable as a double, and dividing it by an exact power of ten rounds correctly, the same as parseDouble.
+	 * Anything else (exponents, spaces, "NaN", very long values) is handed to Double.parseDouble.
+	 *
+	 * @param line Line read in from an interval file.
+	 * @param start Position of the first character of the value.
+	 * @param end Position after the last character of the value.
+	 *
+	 * @return The value.
+	 *
+	 * @throws NumberFormatException If the characters are not a number.
+	 */
+	static double parseDouble(CharSequence line, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+			negative = line.charAt(i) == '-';
+			i++;
+		}
+		long digits = 0;
+		int numberOfDigits = 0; // Not counting leading zeros
+		int decimalPlaces = 0;
+		boolean anyDigits = false;
+		boolean point = false;
+		for (; i < end; i++) {
+			char c = line.charAt(i);
+			if (c >= '0' && c <= '9') {
+				anyDigits = true;
+				digits = digits * 10 + (c - '0');
+				if (digits != 0) {
+					numberOfDigits++;
+				}
+				if (point) {
+					decimalPlaces++;
+				}
+			}
+			else if (c == '.' && !point) {
+				point = true;
+			}
+			else {
+				break;
+			}
+		}
+		if (i != end || !anyDigits || numberOfDigits > MAX_EXACT_DIGITS || decimalPlaces >= POWERS_OF_TEN.length) {
+			return Double.parseDouble(line.subSequence(start, end).toString());
+		}
+		double value = decimalPlaces == 0 ? (double) digits : (double) digits / POWERS_OF_TEN[decimalPlaces];
+		return negative ? -value : value;
+	}
+}
@@ -2,8 +2,10 @@ package au.org.nifpi.cerei;
 
 import java.awt.Font;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
+import java.io.LineNumberReader;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
@@ -99,9 +101,9 @@ public class LifecycleCostAnalysis {
 	int lineNumber = 0;
 	
 	/** Generates a String with no decimal places and commas. Minimum of one whole number */
-	private static final DecimalFormat df0 = new DecimalFormat("#,##0");  // Number of decimal places in summary tabs.
+	private final DecimalFormat df0 = new DecimalFormat("#,##0");  // Number of decimal places in summary tabs.
 	/** Generates a String with two decimal places and commas. Minimum of one whole number and two decimal places. */
-	private static final DecimalFormat df2 = new DecimalFormat("#,##0.00");  // Number of decimal places in summary tabs.
+	private final DecimalFormat df2 = new DecimalFormat("#,##0.00");  // Number of decimal places in summary tabs.
 
 	/**
 	 * Loads the parameters from the "Lifecycle Cost Parameter" file. 
@@ -111,10 +113,25 @@ public class LifecycleCostAnalysis {
 	 * @throws Exception If there is a problem opening or reading the file.
 	 */
 	public LifecycleCostAnalysis(InputFile lifecycleCostFile) throws Exception {
-		try (BufferedReader reader = new BufferedReader(
-				new InputStreamReader(new FileInputStream(lifecycleCostFile.inputFile)), 16384)) {
+		this(lifecycleCostFile.inputFile);
+	}
+
+	/**
+	 * Loads the parameters from the "Lifecycle Cost Parameter" file.  Used when there is no GUI.
+	 * 
+	 * @param lifecycleCostFile "Lifecycle Cost Parameter" file.
+	 * 
+	 * @throws Exception If there is a problem opening or reading the file.
+	 */
+	public LifecycleCostAnalysis(File lifecycleCostFile) throws Exception {
+		InputFileReadEvent event = new InputFileReadEvent("Lifecycle Costs", lifecycleCostFile);
+		event.begin();
+		try (LineNumberReader reader = new LineNumberReader(
+				new InputStreamReader(new FileInputStream(lifecycleCostFile)), 16384)) {
 			loadLifecycleCostComponents(reader);
+			event.rows = reader.getLineNumber();
 		}
+		event.commit();
 	}
 
 	/**
@@ -87,9 +87,9 @@ public class LifecycleCostComponent {
 	protected double atlccFuture=0;
 	
 	/** Generates a String with two decimal places and commas. Minimum of one whole number and two decimal places. */
-	private static final DecimalFormat df2 = new DecimalFormat("#,##0.00");  // Number of decimal places in summary tabs.
+	private final DecimalFormat df2 = new DecimalFormat("#,##0.00");  // Number of decimal places in summary tabs.
 	/** Generates a String with two decimal places and commas. Minimum of one whole number and two optional decimal places. */
-	private static final DecimalFormat df2optional = new DecimalFormat("#,##0.##");  // Number of decimal places in summary tabs.
+	private final DecimalFormat df2optional = new DecimalFormat("#,##0.##");  // Number of decimal places in summary tabs.
 	
 	/**
 	 * Default constructor - does nothing.
@@ -0,0 +1,34 @@
+package au.org.nifpi.cerei;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for turning the usage and charges accumulated for one meter into its monthly costs or PEIs.  The
+ * duration of the event is the time taken for all the meter's months - the accumulation itself goes through every meter at
+ * once, interval by interval, and is timed by the "Processing Energy Usage and Generation" StageEvent.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+@Name("au.org.nifpi.cerei.MeterTotals")
+@Label("Meter Totals")
+@Category({ "CEREI", "Calculation" })
+@Description("Monthly costs or PEIs worked out from the totals accumulated for one meter")
+@StackTrace(false)
+class MeterTotalsEvent extends Event {
+	/** "Cost" or "PEI" */
+	@Label("Calculation")
+	String calculation;
+
+	/** Name of the meter */
+	@Label("Meter")
+	String meter;
+
+	/** Number of months calculated */
+	@Label("Months")
+	int months;
+}
@@ -1,11 +1,17 @@
 package au.org.nifpi.cerei;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
+import java.io.LineNumberReader;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * Loads the various tariffs, per monthly and per meter per monthly from the "Network Tariff" input file
@@ -39,6 +45,9 @@ public class NetworkParameter {
 	/** Constant for Offpeak*/
 	public static final int OFFPEAK=3;
 
+	/** Number of minutes in a day - the number of entries per day in the rate array */
+	public static final int MINUTES_PER_DAY = 24 * 60;
+
 	/** Name of the tariff */
 	protected String tariffName;
 	/** Holds per month parameters */
@@ -53,14 +62,15 @@ public class NetworkParameter {
 	protected List<String> distributionMeters = new ArrayList<String>();
 	/** True if there is a specified list of meters to distribute power over */
 	private boolean specifiedDistributionList=false;
+	/** Name of the DistributionStrategy used to share generated power across the distribution meters - null for the default */
+	protected String distributionStrategyName = null;
 	
-	//rate array is in 30 minute intervals to make it easy to index into given that usage data is
-	//in 30 minute intervals.  Index is simply calculate by 2*(hour + (min / 60)).
-	//	hour is 0 to 23, min is 0 or 30.  Indexes thus run from 0 to 47.
-	//  Note that as usage is 30 minutes in arrears, we have to subtract 1 from the index to get the
-	//  correct rate!
-	/** Array containing 7 days * 48 (30 minute) periods per day that shows what rate (Peak, Shoulder or Offpeak) is applicable */
-	protected int[][] rate = new int[7][48];
+	//rate array is by the minute so that it can be used with 5, 15 or 30 minute usage data.  Index is simply 60*hour + min.
+	//	hour is 0 to 23, min is 0 to 59.  Indexes thus run from 0 to 1439.
+	//  Note that as usage is in arrears, the start of each reading (the time in the file less the interval length) is used to
+	//  look up the rate!
+	/** Array containing 7 days * 1440 (1 minute) periods per day that shows what rate (Peak, Shoulder or Offpeak) is applicable */
+	protected int[][] rate = new int[7][MINUTES_PER_DAY];
 	
 	/**
 	 * Open up the General Parameter file (aka Tariff) ready for reading.  Line by line reading handled by method loadTariff
@@ -70,15 +80,30 @@ public class NetworkParameter {
 	 * @throws Exception If there is a problem opening or reading the file.
 	 */
 	public NetworkParameter(InputFile tariffFile) throws Exception {
+		this(tariffFile.inputFile);
+	}
+
+	/**
+	 * Open up the General Parameter file (aka Tariff) ready for reading.  Used when there is no GUI.
+	 * 
+	 * @param tariffFile General Parameter file to read
+	 * 
+	 * @throws Exception If there is a problem opening or reading the file.
+	 */
+	public NetworkParameter(File tariffFile) throws Exception {
 		//initaliase the rate array to all OFFPEAK.
 		for (int i=0; i<7;i++) {
-			for (int j=0; j<48;j++) {
+			for (int j=0; j<MINUTES_PER_DAY;j++) {
 				rate[i][j]=NetworkParameter.OFFPEAK;
 			}			
 		}
-    	try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(tariffFile.inputFile)),16384)) {
-    		loadTariff(reader, tariffFile.inputFile.getName());
+		InputFileReadEvent event = new InputFileReadEvent("Network Tariff", tariffFile);
+		event.begin();
+    	try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(new FileInputStream(tariffFile)),16384)) {
+    		loadTariff(reader, tariffFile.getName());
+    		event.rows = reader.getLineNumber();
     	}
+		event.commit();
 	}
 
 	/**
@@ -144,6 +169,20 @@ public class NetworkParameter {
 							}
 						}
 						break;
+					case "distribution":
+						// Optional name of the strategy for sharing generated power across the distribution meters.
+						if (st.length < 2 || st[1].isBlank()) {
+							cumulativeErrorString += "Network Tariff file is missing the Distribution strategy name\n";
+						}
+						else {
+							try {
+								distributionStrategyName = DistributionStrategy.forName(st[1].trim()).getName();
+							}
+							catch (Exception e) {
+								cumulativeErrorString += e.getMessage() + "\n";
+							}
+						}
+						break;
 					case "general":
 						// The next 13 lines contain the per month parameters, but loadGlobale will do the work 
 						cumulativeErrorString += loadGlobalParameters(reader);
@@ -216,9 +255,9 @@ public class NetworkParameter {
 	}
 
 	/**
-	 * Change the 7 day * 48 30minuteTimeslot array that shows the applicable rate (Peak, Shoulder or Offpeak) to a new
-	 * rate type, based on the times of day specified in subsequent tokens
-	 * Fragile.  Only considers hours!
+	 * Change the 7 day * 1440 minute array that shows the applicable rate (Peak, Shoulder or Offpeak) to a new
+	 * rate type, based on the times of day specified in subsequent tokens.
+	 * An end time of 24:00 covers the rest of the day up to 23:30 and the first 30 minutes of the next day, as it always has.
 	 * 
 	 * @param rateType new rate type - PEAK, SHOULDER or OFFPEAK (see constants)
 	 * @param st Rest of the line following Peak, Shoulder or Offpeak
@@ -259,34 +298,32 @@ public class NetworkParameter {
 	    		
 	    		// First part of the "cell is a string representing days
 	    		String days = daysAndTimes[0];
-	    		// Second part of the "cell is a string representing start time in H:mm.  However, only H is considered
+	    		// Second part of the "cell is a string representing start time in H:mm.
 	    		String startTime = daysAndTimes[1];
-	    		// Last part of the "cell is a string representing start time in H:mm.  However, only H is considered
+	    		// Last part of the "cell is a string representing start time in H:mm.
 	    		String endTime = daysAndTimes[2];
 	    		//start and end are used as indexes into the rate array.
 	    		try {
-	    			String[] startString = startTime.split(":");
-	    			start = Integer.parseInt(startString[0])*2;
+	    			start = parseMinuteOfDay(startTime);
 	    			if (start < 0) {
 	    				cumulativeErrorString += st[i] + ". "+startTime+" is not a valid start time for "+st[0]+" rates\n";
 	    			}
-	    			if (start > 47) {
-	    				cumulativeErrorString += st[i] + ". Start time must not be greater than 23:00 for "+st[0]+" rates\n";
+	    			if (start >= MINUTES_PER_DAY) {
+	    				cumulativeErrorString += st[i] + ". Start time must not be greater than 23:59 for "+st[0]+" rates\n";
 	    			}
 	    		}
 	    		catch (Exception e) {
 	    			cumulativeErrorString += st[i]+". "+startTime+ " is not a valid start time for "+st[0]+" rates\n";
 	    		}
 	    		try {
-	    			String[] endString = endTime.split(":");
-	    			end = Integer.parseInt(endString[0])*2; //might be minus 1 depending on input file format
+	    			end = parseMinuteOfDay(endTime);
 	    			if (end < 0) {
 	    				cumulativeErrorString += st[i] + ". "+endTime+" is not a valid end time for "+st[0]+" rates\n";
 	    			}
-	    			else if (end < 2) {
+	    			else if (end < 60) {
 	    				cumulativeErrorString += st[i] + ". End time must not be less than 01:00 for "+st[0]+" rates\n";
 	    			}
-	    			if (end > 47) { // Need to wrap into the next day
+	    			if (end >= MINUTES_PER_DAY) { // Need to wrap into the next day
 	    				wrapRateIntoNextDay = true;
 	    			}
 	    		}
@@ -317,21 +354,23 @@ public class NetworkParameter {
 	    			}
 	    			//Adjust end if we have have to wrap because endtime was 24:00;
 	    			if (wrapRateIntoNextDay) {
-	    				// Don't overrun the rate array - it only goes from 0 to 47
-	    				end = 47;
+	    				// Don't overrun the rate array - stop at 23:30 and carry the last 30 minutes into the next day
+	    				end = MINUTES_PER_DAY - 30;
 	    			}
 	    			// Provided all days and times are valid we can update the rate array
 	    			if (firstday != NetworkParameter.INVALID_DAY && lastday != NetworkParameter.INVALID_DAY
 	    					&& firstday <= lastday
-	    					&& start < end && start >= 0 && start < 48 && end >=0 && end <48) {
+	    					&& start < end && start >= 0 && start < MINUTES_PER_DAY && end >=0 && end <MINUTES_PER_DAY) {
 		    			// Set all the elements in the rate array for the affected days to the passed in rate type (PEAK, SHOULDER, OFFPEAK)
 		   				for(int k=firstday; k<=lastday;k++) {
 		   					for(int l=start; l<end; l++) {
 		   						rate[k][l]=rateType;
 		   					}
 		   	    			if (wrapRateIntoNextDay) {
-		   	    				//Set the first time period of the next day to the rateType
-		   	    				rate[(k+1)%7][0]=rateType;
+		   	    				//Set the first 30 minutes of the next day to the rateType
+		   	    				for (int l=0; l<30; l++) {
+		   	    					rate[(k+1)%7][l]=rateType;
+		   	    				}
 		   	    			}
 		   				}
 	    			}
@@ -341,6 +380,25 @@ public class NetworkParameter {
     	return cumulativeErrorString;
     }
 
+    /**
+     * Convert a time of day in H:mm (or just H) to an index into the rate array.
+     * 
+     * @param time Time of day.
+     * 
+     * @throws NumberFormatException If the hours or minutes are not numbers.
+     * 
+     * @return Minutes since midnight, -1 if the minutes are not 0 to 59.
+     */
+    private static int parseMinuteOfDay(String time) {
+    	String[] timeString = time.split(":");
+    	int hour = Integer.parseInt(timeString[0].trim());
+    	int minute = timeString.length > 1 ? Integer.parseInt(timeString[1].trim()) : 0;
+    	if (hour < 0 || minute < 0 || minute > 59 || timeString.length > 2) {
+    		return -1;
+    	}
+    	return hour*60 + minute;
+    }
+
     /**
 	 * Grab the next 13 lines (one header and one line per month) as they contain the per meter per month parameters 
 	 * 
@@ -429,6 +487,38 @@ public class NetworkParameter {
 		return specifiedDistributionList;		
 	}
 
+	/**
+	 * Reorder the distribution meters so they run from the most to the least costly yearly total in the Business as Usual file.
+	 * Distribution meters that are not in the Business as Usual file go at the end, in their original order.
+	 * 
+	 * @param bau Business as Usual bill loaded from file.
+	 */
+	public void orderDistributionMeters(BusinessAsUsual bau) {
+		// Create a Map containing all the meters in the bau file (with total costs) provided those meters are present in the distribution meter list.
+		Map<String, Double> map = new HashMap<>();
+		for (int i=0; i < bau.loadedMeterSummaryArray.length; i++) {
+			if(distributionMeters.contains(bau.loadedMeterSummaryArray[i].meterName)) {
+				map.put(bau.loadedMeterSummaryArray[i].meterName, bau.loadedMeterSummaryArray[i].yearly);
+			}
+		}
+		List<Entry<String, Double>> nlist = new ArrayList<>(map.entrySet());
+		nlist.sort (Entry.comparingByValue(Comparator.reverseOrder()));
+		//Extract the list of meter names (in descending order)
+		ArrayList<String> orderedDistributionMeters = new ArrayList<String>();
+		for (int i = 0; i < nlist.size(); i++) {
+			orderedDistributionMeters.add(nlist.get(i).getKey());
+		}
+		// Now we have a list of real bau meter names in order of descending yearly total costs.  Update the distributionMeters list.
+		// Add any distribution meters that were not in the bau file to the end of that list.
+		for (int i=0; i<distributionMeters.size(); i++) {
+			if(!orderedDistributionMeters.contains(distributionMeters.get(i))) {
+				orderedDistributionMeters.add(distributionMeters.get(i));
+			}
+		}
+		// The sorted list of distribution meters!
+		distributionMeters = orderedDistributionMeters;
+	}
+
 
 }
 
@@ -1,9 +1,7 @@
 package au.org.nifpi.cerei;
 
 import java.text.DecimalFormat;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -30,7 +28,7 @@ public class PEI {
 	private String peiData[][];
 
 	/** Generates a String with two decimal places and commas. Minimum of one whole number and two decimal places. */
-	private static final DecimalFormat df2 = new DecimalFormat("#,###.00"); // Number of decimal places in summary tabs.
+	private final DecimalFormat df2 = new DecimalFormat("#,###.00"); // Number of decimal places in summary tabs.
 
 	/** Months of the year for output of summary information */
 	public static final String[] MONTH_NAMES = { "January", "February", "March", "April", "May", "June", "July",
@@ -87,111 +85,33 @@ public class PEI {
 					break;
 				}
 			}
-		}
-	}
-
-	/**
-	 * Allocate usage energy and generation power contained in a single line (and matched) line of the Energy Usage, Spot Price, Energy Generated 
-	 * and Feed-in Tarrif files to each meter and month. 
-	 * TO DO - Refactor.  Has grown to be difficult to follow with repeated code.
-	 * 
-	 * @param networkParameters Energy charge, Network charge, Spot Energy, Market charge and Other Charge Loss ratios and pricing.
-	 * @param recordDateTime Date and Time of the lines in the Energy Usage, Spot Price, Energy Generated and Feed-in Tarrif files.
-	 * @param usageSt Line from the Energy Usage file.
-	 * @param priceSt Line from the Spot Price file.
-	 * @param generatedSt Line from the Energy Generated file.
-	 * @param feedInSt Line from the Feed-in Tariff file.
-	 * @param generatedMeterMap Maps the column in the Energy Generated file to the right column of the Energy Usage file.
-	 */
-	public void addCharges(NetworkParameter networkParameters, LocalDateTime recordDateTime, String[] usageSt,
-			String[] priceSt, String[] generatedSt, String[] feedInSt, HashMap<Integer, Integer> generatedMeterMap) {
-
-		double usedEnergy = 0, generatedEnergy = 0;
-		// Get the month the usage date stamp.
-		int month = recordDateTime.getMonthValue() - 1; // Minus 1 to turn month into our array index
-
-		// If we are redistributing generated energy charges across mulitple meters we have to make adjustments to usageSt and generatedSt
-		if (networkParameters.distributeGeneration && usageSt != null && generatedSt != null) {
-			double adjustedUsageSt[] = new double[usageSt.length-1]; // -1 because usageSt has an additional datestamp at
-																	// the start.
-			// Load adjustedUsageSt[] from usageSt. Needs to be done so that when generatedEnergy is exhausted,
-			// meters that have not been adjusted still have their initial values.
-			for (int i = 0; i < usageSt.length - 1; i++) {
-				adjustedUsageSt[i] = Double.parseDouble(usageSt[i + 1]); // +1 as first entry in usageSt is the datestamp
-			}
-			double adjustedGeneratedSt[] = new double[usageSt.length - 1]; // -1 because usageSt has an additional datestamp at the start.
-			// first determine the total amount of generated energy to distributed
-			for (int i = 1; i < generatedSt.length; i++) { // i=1 as first entry in generatedSt is the datestamp
-				generatedEnergy += Double.parseDouble(generatedSt[i]) / 2;  //Divide by 2 because generated energy is in kW - not kWh
-			}
-
-			// Use the list of distribution meters to adjust that meter's usageSt
-			for (int i = 0; i < networkParameters.distributionMeters.size(); i++) {
-				// find the index of the usageSt meter
-				int meterNameIndex = meterNames.indexOf(networkParameters.distributionMeters.get(i));
-				if (meterNameIndex != -1) {
-					double initialUsage = Double.parseDouble(usageSt[meterNameIndex + 1]); // +1 as first entry in
-					// generatedSt is the
-					// datestamp
-					double deduction = Math.min(generatedEnergy, initialUsage);
-					// overwrite original usageSt value.
-					adjustedUsageSt[meterNameIndex] = initialUsage - deduction;
-					generatedEnergy -= deduction;
-					if (generatedEnergy <= 0) {
-						break; // break out of for loop - we've used up all the generated energy
-					}
-				}
-			}
-
-			// If there is any generated energy left add it to the adjustedGeneratedSt of the first meter in the network Parameters distribution list
-			if (generatedEnergy > 0) {
-				adjustedGeneratedSt[meterNames.indexOf(networkParameters.distributionMeters.get(0))] = generatedEnergy;
-			}
-			// Now iterate over meters calling peisPerMonth[i][month].addUnitOfCharges.
-			for (int i = 0; i < meterNames.size(); i++) {
-				peisPerMonth[i][month].addUnitOfCharges(networkParameters, recordDateTime, adjustedUsageSt[i],
-						priceSt == null ? 0.0 : Double.parseDouble(priceSt[1]), adjustedGeneratedSt[i],
-						feedInSt == null ? 0.0 : Double.parseDouble(feedInSt[1]));
-			}
-
-		} else {// No distribution over multiple meters.
-				// Now process each meter in turn.
-			for (int i = 0; i < meterNames.size(); i++) {
-				// If the meter index (i) is bigger than the number of meter tokens in generated
-				// string, it means
-				// that this meter does not have a corresponding usage meter, so usage is zero.
-				// -1 because the first token in usageSt is the date.
-				if (usageSt == null || i >= usageSt.length - 1) {
-					usedEnergy = 0;
-				} else {
-					usedEnergy = Double.parseDouble(usageSt[i + 1]);
-				}
-				// Find the relevant generated energy meter reading (if any) for this meter
-				// If this meter has a generated energy component
-				if (generatedMeterMap != null && generatedMeterMap.containsKey(i)) {
-					generatedEnergy = Double.parseDouble(generatedSt[generatedMeterMap.get(i)]) / 2;
-				}
-				else  {// the generated energy will be zero
-					generatedEnergy=0;
-				}
-				// Spot Price and Feed in tariff always second item in priceSt and feedInSt
-				peisPerMonth[i][month].addUnitOfCharges(networkParameters, recordDateTime, usedEnergy,
-						priceSt == null ? 0.0 : Double.parseDouble(priceSt[1]), generatedEnergy,
-						feedInSt == null ? 0.0 : Double.parseDouble(feedInSt[1]));
+			// Work out the charges that are the same for the whole month once, rather than for every reading
+			for (int k = 0; k < 12; k++) {
+				this.peisPerMonth[i][k].calculateRates(networkParameters.parameters[k]);
 			}
 		}
 	}
 
 	/**
-	 * Calculate the per month PEIs once all the data has been read in from the usage and price files and processed
+	 * Calculate the per month PEIs once all the data has been read in from the usage and price files and processed.  Each meter is
+	 * recorded as a MeterTotalsEvent when Java Flight Recorder is running.
 	 * 
 	 * @throws Exception Rethrows an exception from any called method. 
 	 */
 	public void calculatePEIs() throws Exception {
-		for (int i = 0; i < 12; i++) { // Month by month
-			for (int j = 0; j < meterNames.size(); j++) { // Meter by meter
+		for (int j = 0; j < meterNames.size(); j++) { // Meter by meter
+			MeterTotalsEvent event = new MeterTotalsEvent();
+			event.begin();
+			for (int i = 0; i < 12; i++) { // Month by month
 				peisPerMonth[j][i].calcuateCharges();
 			}
+			event.end();
+			if (event.shouldCommit()) {
+				event.calculation = "PEI";
+				event.meter = meterNames.get(j);
+				event.months = 12;
+				event.commit();
+			}
 		}
 	}
 
@@ -227,6 +147,18 @@ public class PEI {
 	 * @return Table model containing PEIs
 	 */
 	public CEREITableModel createSummaryPEITableModel() throws Exception {
+		createPEISummaries();
+
+		return (createSummaryTableModel(allMeterPeiSummaries));
+
+	}
+
+	/**
+	 * Summarise the PEIs meter by meter, without creating a table model.  Sets up the column names and data used by the .csv files.
+	 * 
+	 * @throws Exception Rethrows exceptions from called methods - most likely divide by zero exception when calculating PEIs
+	 */
+	public void createPEISummaries() throws Exception {
 		// Trawl through the per Month data and generate the summary information.
 		realMeterPeiSummaries = createRealMeterPEISummaries();
 		// Client no longer want a Total PEI displayed
@@ -241,8 +173,8 @@ public class PEI {
 		// Client no longer want a Total PEI displayed
 		// allMeterPeiSummaries.add(totalPeiMeter);
 
-		return (createSummaryTableModel(allMeterPeiSummaries));
-
+		columnNames = createColumnNames(allMeterPeiSummaries);
+		peiData = createSummaryOutput(allMeterPeiSummaries);
 	}
 
 	/**
@@ -254,18 +186,7 @@ public class PEI {
 	 */
 	public CEREITableModel createSummaryTableModel(List<MeterSummary> allMeterSummaries) {
 		// Create the column names for the JTable.
-		columnNames = new String[allMeterSummaries.size() + 3]; // Add three for extra columns for year, quarter and
-																// month
-
-		// First three column names are fixed
-		columnNames[0] = "Year";
-		columnNames[1] = "Quarter";
-		columnNames[2] = "Month";
-
-		// Then the names of the meters
-		for (int i = 0; i < allMeterSummaries.size(); i++) {
-			columnNames[i + 3] = allMeterSummaries.get(i).meterName;
-		}
+		columnNames = createColumnNames(allMeterSummaries);
 
 		// Now the data for the JTable
 		peiData = createSummaryOutput(allMeterSummaries);
@@ -275,6 +196,29 @@ public class PEI {
 		return peiTableModel;
 	}
 
+	/**
+	 * Column names for the summary table - year, quarter, month and then the names of the meters.
+	 * 
+	 * @param allMeterSummaries PEIs in MeterSummary Form.
+	 * 
+	 * @return Names of the columns.
+	 */
+	private String[] createColumnNames(List<MeterSummary> allMeterSummaries) {
+		String[] names = new String[allMeterSummaries.size() + 3]; // Add three for extra columns for year, quarter and
+																	// month
+
+		// First three column names are fixed
+		names[0] = "Year";
+		names[1] = "Quarter";
+		names[2] = "Month";
+
+		// Then the names of the meters
+		for (int i = 0; i < allMeterSummaries.size(); i++) {
+			names[i + 3] = allMeterSummaries.get(i).meterName;
+		}
+		return names;
+	}
+
 	/**
 	 * Create a summary of the monthly PEI data that can be eventually displayed on the PEI Summary pane of the UI
 	 * 
@@ -1,6 +1,5 @@
 package au.org.nifpi.cerei;
 
-import java.time.LocalDateTime;
 import java.time.Year;
 
 /**
@@ -15,6 +14,16 @@ public class PEIPerMonth {
 	protected double spotPriceLossRatio = 0;
 	/** Feed In Tariff Loss ratio per meter per month.  Loaded from General Parameter file */
 	protected double feedInLossRatio = 0;
+
+	// 30 minute charges that are the same for every reading in the month - see calculateRates
+	/** Sum of the VEET, SRES, LRET, AEMO Pool/RERT and Ancillary Services 30 minute charges including losses */
+	protected double marketCharge30min = 0;
+	/** Peak 30 minute charge */
+	protected double peakCharge30min = 0;
+	/** Shoulder 30 minute charge */
+	protected double shoulderCharge30min = 0;
+	/** Offpeak 30 minute charge */
+	protected double offpeakCharge30min = 0;
 	
 	// Usage 
 	/** Accumulate power use for the month in kWh */
@@ -100,49 +109,14 @@ public class PEIPerMonth {
 	}
 	
 	/**
-	 * Inner loop that processes each 30 minute spot price and usage to accumulate overall usage and 30 minute PEI accumulators
-	 * The PEI calculations can be optimised by removing them from this inner loop.  However, that would make understanding the code more difficult.  For now, inner loop left as inefficient
-	 *  
-	 * @param networkParameters Complete Energy charge, Network charge, Spot Energy, Market charge and Other Charge Loss ratios and pricing.
-	 * @param recordDateTime Timestamp for this particular reading
-	 * @param usage energy used from grid
-	 * @param spotPrice Spot price that applies to this particular reading
-	 * @param generated energy generated
-	 * @param feedInTariff Feed in tarrif that applies to this particular reading
+	 * Work out the 30 minute charges that are the same for every reading in the month, so that ChargeAccumulator only has to add the 
+	 * spot price.  The charges are added up in exactly the same order as they were for each reading, so the PEIs are unchanged to
+	 * the last bit.
+	 * 
+	 * @param parameter Energy, Network and Market rates and loss ratios for the month from the Network Tariff.
 	 */
-	// Used to add up the total usage, aggregate usages and spot price charges.
-	protected void addUnitOfCharges(NetworkParameter networkParameters, LocalDateTime recordDateTime, double usage, double spotPrice, double generated, double feedInTariff) {
+	protected void calculateRates(Parameter parameter) {
 		double veetCharge30min, sresCharge30min, lretCharge30min, aemoPoolRertCharge30min,ancillaryServicesCharge30min;
-		double SpotPriceIncLossCharge30min;
-		double totalCharge30min=0;
-		double nett;
-		int usageType;
-		
-		// Get the month and hour and minute from the usage date stamp.
-		int hour = recordDateTime.getHour(); //Already in the range 0 - 23
-		int minute = recordDateTime.getMinute(); // In the range 0 - 59
-		int dayOfWeek = recordDateTime.getDayOfWeek().getValue()-1; //Minus 1 to turn day into our array index
-
-		// Get the rates from the tariff structure
-		double veetRate = networkParameters.parameters[this.month].veetRate;
-		double sresRate = networkParameters.parameters[this.month].sresRate;
-		double lretRate = networkParameters.parameters[this.month].lretRate;
-		double aemoPoolRertRate = networkParameters.parameters[this.month].aemoPoolRertRate;
-		double ancilliaryServicesRate = networkParameters.parameters[this.month].ancilliaryServicesRate;
-		double peakRate = networkParameters.parameters[this.month].peakRate;
-		double shoulderRate = networkParameters.parameters[this.month].shoulderRate;
-		double offpeakRate = networkParameters.parameters[this.month].offpeakRate;
-		
-		// Start processing this 30 minutes' data
-		 
-		// Calculate net usage for the month
-		nett = usage - generated;
-		if ( nett <  0) {
-			nett = 0;
-		}
-		monthlyUsage += usage;
-		monthlyGenerated += generated;
-		monthlyNett += nett;
 
 		//determine the 30min charges for EEI calculations
 		// Client insists on the "divide by 2".  Implemented as per client requirements but
@@ -155,58 +129,26 @@ public class PEIPerMonth {
 		// divide by two for most of their components, so the divide by 2 will mostly cancel out.
 		// Not performing the "divide by 2" typically results in a reduction of the PEI in the 
 		// order 0.1 - 0.3.
-		
-		// A lot of this could be moved out of this inner loop, but left in here to be consistent with documentation 
-		// and easer to understand.
-		veetCharge30min = (veetRate + veetRate*networkParameters.parameters[this.month].veetLossRatio)/2;
-		sresCharge30min = (sresRate + sresRate*networkParameters.parameters[this.month].sresLossRatio)/2;
-		lretCharge30min = (lretRate + lretRate*networkParameters.parameters[this.month].lretLossRatio)/2;
-		aemoPoolRertCharge30min =(aemoPoolRertRate + aemoPoolRertRate*networkParameters.parameters[this.month].aemoPoolRertLossRatio)/2;
-		ancillaryServicesCharge30min = (ancilliaryServicesRate + ancilliaryServicesRate*networkParameters.parameters[this.month].ancilliaryServicesLossRatio)/2;
-		SpotPriceIncLossCharge30min = spotPrice + (spotPrice * this.spotPriceLossRatio/2);
+		veetCharge30min = (parameter.veetRate + parameter.veetRate*parameter.veetLossRatio)/2;
+		sresCharge30min = (parameter.sresRate + parameter.sresRate*parameter.sresLossRatio)/2;
+		lretCharge30min = (parameter.lretRate + parameter.lretRate*parameter.lretLossRatio)/2;
+		aemoPoolRertCharge30min =(parameter.aemoPoolRertRate + parameter.aemoPoolRertRate*parameter.aemoPoolRertLossRatio)/2;
+		ancillaryServicesCharge30min = (parameter.ancilliaryServicesRate + parameter.ancilliaryServicesRate*parameter.ancilliaryServicesLossRatio)/2;
 
-		// Add up all the 30 minute charges (except peak, shoulder and offpeak charges) for EEI
-		totalCharge30min = 
+		// Add up all the 30 minute market charges for EEI.  The spot price is added per reading.
+		marketCharge30min = 
 				veetCharge30min + 
 				sresCharge30min + 
 				lretCharge30min + 
 				aemoPoolRertCharge30min +
-				ancillaryServicesCharge30min +
-				SpotPriceIncLossCharge30min;  //EQ 23
-		
-		// Find out whether the applicable rate is PEAK, SHOULDER or OFFPEAK
-		int tariffRateIndex = 2*hour + 2*minute/60;
-		usageType = networkParameters.rate[dayOfWeek][tariffRateIndex];
-		
-		// Accumulate the PEAK, SHOULDER or OFFPEAK as appropriate and also add charge to EEI 
+				ancillaryServicesCharge30min;
+
 		// Look out - more divide by two's here!
-		switch (usageType) {
-		case NetworkParameter.PEAK:
-			peakUsage += nett;
-			totalCharge30min += peakRate/2;
-			//totalCharge30min += peakRate;
-			break;
-		case NetworkParameter.SHOULDER:
-			shoulderUsage += nett;
-			totalCharge30min += shoulderRate/2;
-			//totalCharge30min += shoulderRate;
-			break;
-		default:
-			offpeakUsage += nett;
-			totalCharge30min += offpeakRate/2;
-			//totalCharge30min += offpeakRate;
-		}
-		
-		//Accumulate (totalcharge30min and (totalcharge30min x usage30min) in preparation for EQ24, EQ25 and EQ26.
-		sumMonthlyTotalCharge += totalCharge30min;
-		// Divide by 2 as required by client.
-		sumMonthlyTotalChargeUsage += totalCharge30min*nett;
-		
-		// Count up the number of measurements taken in a month
-		numberOfMeasurements++;
-		
+		peakCharge30min = parameter.peakRate/2;
+		shoulderCharge30min = parameter.shoulderRate/2;
+		offpeakCharge30min = parameter.offpeakRate/2;
 	}
-	
+
 	/**
 	 * Calculate all charges once usage and price files for that meter and month processed.
 	 * 
@@ -0,0 +1,89 @@
+package au.org.nifpi.cerei;
+
+/**
+ * Shares generated energy across the distribution meters in proportion to what each meter is using in the interval, so every meter
+ * has the same fraction of its usage covered.  Meters that are not using anything (or are exporting) get no share.  If there is
+ * more generated energy than the distribution meters are using, all their usage is covered and the rest is left over.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class ProRataDistribution implements DistributionStrategy {
+	/** Index of each distribution meter in distribution order */
+	private int[] distributionOrder;
+
+	/**
+	 * Default constructor - the strategy is set up for a cost by setUp.
+	 */
+	public ProRataDistribution() {
+		
+	}
+
+	/**
+	 * Name of the strategy.
+	 *
+	 * @return PRO_RATA.
+	 */
+	@Override
+	public String getName() {
+		return PRO_RATA;
+	}
+
+	/**
+	 * Remember the distribution order - nothing else is needed.
+	 *
+	 * @param distributionOrder Index of each distribution meter in distribution order.
+	 * @param numberOfMeters Number of meters in the cost.
+	 * @param spotPriceLossRatio Spot Price Loss ratio of each meter for each month, indexed by month * numberOfMeters + meter.
+	 */
+	@Override
+	public void setUp(int[] distributionOrder, int numberOfMeters, double[] spotPriceLossRatio) {
+		this.distributionOrder = distributionOrder;
+	}
+
+	/**
+	 * Cover the same fraction of each distribution meter's usage.
+	 *
+	 * @param month Month (0 - 11) of the interval.
+	 * @param usageType PEAK, SHOULDER or OFFPEAK rate that applies to the interval.
+	 * @param spotPrice Spot price for the interval.
+	 * @param usage Energy used by each meter in the interval.
+	 * @param generatedEnergy Total energy generated in the interval.
+	 * @param adjustedUsage Copy of usage - overwritten for the meters that get some generated energy.
+	 *
+	 * @return Generated energy left over once the meters' usage has been covered.
+	 */
+	@Override
+	public double distribute(int month, int usageType, double spotPrice, double[] usage, double generatedEnergy,
+			double[] adjustedUsage) {
+		if (generatedEnergy <= 0) {
+			return generatedEnergy;
+		}
+		double totalUsage = 0;
+		for (int i = 0; i < distributionOrder.length; i++) {
+			if (usage[distributionOrder[i]] > 0) {
+				totalUsage += usage[distributionOrder[i]];
+			}
+		}
+		if (totalUsage <= 0) {
+			return generatedEnergy;
+		}
+		// Everything is covered.  Meters that are exporting are left alone, the same as when only part is covered.
+		if (generatedEnergy >= totalUsage) {
+			for (int i = 0; i < distributionOrder.length; i++) {
+				int meterNameIndex = distributionOrder[i];
+				if (usage[meterNameIndex] > 0) {
+					adjustedUsage[meterNameIndex] = 0;
+				}
+			}
+			return generatedEnergy - totalUsage;
+		}
+		double fraction = generatedEnergy / totalUsage;
+		for (int i = 0; i < distributionOrder.length; i++) {
+			int meterNameIndex = distributionOrder[i];
+			if (usage[meterNameIndex] > 0) {
+				adjustedUsage[meterNameIndex] = usage[meterNameIndex] - usage[meterNameIndex] * fraction;
+			}
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,754 @@
+package au.org.nifpi.cerei;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the results of the calculations to .csv files.  Used by the "Save" buttons on the GUI and by the batch runner,
+ * so does not use any GUI components.  DecimalFormat is not thread safe, so each method creates its own formats so that several sites
+ * can be written at the same time.
+ * 
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class ResultWriter {
+
+	/**
+	 * Default constructor
+	 */
+	public ResultWriter() {
+		
+	}
+
+	/**
+	 * Default name of the Energy Bill Summary file.
+	 * 
+	 * @param cost Costs for all meters and all months.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * 
+	 * @return File name.
+	 */
+	public static String costSummaryFileName(Cost cost, NetworkParameter networkParameters) {
+		return "Energy Bill Summary "+cost.costsPerMonth[0][0].year + " "+networkParameters.tariffName+".csv";
+	}
+
+	/**
+	 * Write the Energy Bill Summary - the same information as the Cost summary JTable.
+	 * 
+	 * @param fw Where to write the summary.
+	 * @param cost Costs for all meters and all months.  The cost summaries must already have been created.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	public static void writeCostSummary(BufferedWriter fw, Cost cost, NetworkParameter networkParameters) throws IOException {
+		fw.write("Energy Bill Summary for "+cost.costsPerMonth[0][0].year + " using tariff "+networkParameters.tariffName);
+		fw.newLine();
+		fw.newLine();
+		String[] summaryHeader = cost.getColumnNames();
+		fw.write(summaryHeader[0]);
+		for (int i=1;i<summaryHeader.length; i++ ) {
+			fw.write(",");
+			fw.write(summaryHeader[i]);
+		}
+		fw.newLine();
+
+		//Get the JTable data
+		String[][] priceData = cost.createSummaryOutput(cost.allMeterCostSummaries);
+
+		//Get the JTable data
+		for (int i=0; i<priceData.length; i++) {
+			// Remove any extraneous ","'s
+			fw.write(priceData[i][0].replaceAll(",", ""));
+			// Column by column, removing any extraneous ","'s
+			for (int j=1; j<priceData[i].length; j++) {
+				fw.write(",");
+				fw.write(priceData[i][j].replaceAll(",", ""));
+			}
+			// New row.
+			fw.newLine();
+		}
+	}
+
+	/**
+	 * Default name of the Energy Bill Details file.
+	 * 
+	 * @param cost Costs for all meters and all months.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * 
+	 * @return File name.
+	 */
+	public static String costDetailsFileName(Cost cost, NetworkParameter networkParameters) {
+		return "Energy Bill Details "+cost.costsPerMonth[0][0].year + " "+networkParameters.tariffName+".csv";
+	}
+
+	/**
+	 * Write the Energy Bill Details - every charge, meter by meter and month by month.
+	 * 
+	 * @param fw Where to write the details.
+	 * @param cost Costs for all meters and all months.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	public static void writeCostDetails(BufferedWriter fw, Cost cost, NetworkParameter networkParameters) throws IOException {
+		// Format values to the required number of decimal places
+		DecimalFormat df = new DecimalFormat("#.00");
+
+		fw.write("Energy Bill Details for "+cost.costsPerMonth[0][0].year + " using tariff "+networkParameters.tariffName);
+		fw.newLine();
+		fw.newLine();
+
+		int numberOfMeters = cost.meterNames.size();
+		//Dump details meter by meter
+		for (int i=0; i<numberOfMeters; i++) {
+			fw.newLine();
+			fw.write("Details for meter "+cost.meterNames.get(i));
+			fw.newLine();
+			// 12 months in a year
+			for (int j=0;j<12;j++) {
+				fw.newLine();
+				fw.write( Cost.MONTH_NAMES[cost.costsPerMonth[i][j].month] + " " +cost.costsPerMonth[i][j].year + " for meter "+ cost.meterNames.get(i));
+				fw.newLine();
+				fw.write("Energy Charges,Rate,Rate (Inc. Loss),Unit,Usage,Unit,Loss ratio,Loss ratio (%),Price($)");
+				fw.newLine();
+				fw.write("Pool Pass Through Charges import to site,Spot Price,Spot price + (Spot price x Loss ratio),c/kWh,"
+					+ df.format(cost.costsPerMonth[i][j].monthlyNettGridUsed)+",kWh,"
+					+ df.format(cost.costsPerMonth[i][j].spotPriceLossRatio) +","
+					+ df.format(cost.costsPerMonth[i][j].spotPriceLossRatio*100) +","
+					+ df.format(cost.costsPerMonth[i][j].poolPassThroughCharge));
+				fw.newLine();
+				fw.write("Feed-in Charges from energy generated,Feed-in Tariff Rate,Feed-in Tariff Rate + (Feed-in Tariff Rate x Loss ratio),c/kWh,"
+					+ df.format(cost.costsPerMonth[i][j].monthlyNettExported)+",kWh,"
+					+ df.format(cost.costsPerMonth[i][j].feedInLossRatio) +","
+					+ df.format(cost.costsPerMonth[i][j].feedInLossRatio*100) +","
+					+ df.format(cost.costsPerMonth[i][j].feedInCharge));
+				fw.newLine();
+				fw.write("Service and Admin Charge,,"+ df.format(networkParameters.parameters[j].serviceAdminRate)+",$/Day,"
+					+ cost.costsPerMonth[i][j].daysInMonth + ",days,,,"
+					+ df.format(cost.costsPerMonth[i][j].serviceAdminCharge));
+				fw.newLine();
+				fw.write("Network Charges");
+				fw.newLine();
+				fw.write("Standing Charge,,"+df.format(networkParameters.parameters[j].standingRate)+",$/Yr,"
+					+ cost.costsPerMonth[i][j].daysInMonth + ",days,,,"
+					+ df.format(cost.costsPerMonth[i][j].standingCharge));
+				fw.newLine();
+				if (networkParameters.parameters[j].peakRate != 0) {
+					fw.write("Peak Energy,,"+df.format(networkParameters.parameters[j].peakRate)+",c/kWh,"
+						+ df.format(cost.costsPerMonth[i][j].peakUsage) + ",kWh,,,"
+						+ df.format(cost.costsPerMonth[i][j].peakEnergyCharge));
+					fw.newLine();
+				}
+				if (networkParameters.parameters[j].shoulderRate != 0) {
+					fw.write("Shoulder Energy,,"+df.format(networkParameters.parameters[j].shoulderRate)+",c/kWh,"
+						+ df.format(cost.costsPerMonth[i][j].shoulderUsage) + ",kWh,,,"
+						+ df.format(cost.costsPerMonth[i][j].shoulderEnergyCharge));
+					fw.newLine();
+				}
+				if (networkParameters.parameters[j].offpeakRate != 0) {
+					fw.write("Off Peak Energy,,"+df.format(networkParameters.parameters[j].offpeakRate)+",c/kWh,"
+						+ df.format(cost.costsPerMonth[i][j].offpeakUsage) + ",kWh,,,"
+						+ df.format(cost.costsPerMonth[i][j].offpeakEnergyCharge));
+					fw.newLine();
+				}
+				fw.write("Demand Critical Peak,,"
+					+ df.format(networkParameters.parameters[j].demandCriticalPeakRate)
+					+ ",$/kVA/Mth,"
+					+ df.format(cost.costsPerMonth[i][j].demandCriticalPeakUsage)+",kVA,,,"
+					+ df.format(cost.costsPerMonth[i][j].demandCriticalPeakCharge));
+				fw.newLine();
+				fw.write("Demand Capacity,,"
+					+ df.format(networkParameters.parameters[j].demandCapacityRate)
+					+ ",$/kVA/Mth,"
+					+ df.format(cost.costsPerMonth[i][j].demandCapacityUsage)+",kVA,,,"
+					+ df.format(cost.costsPerMonth[i][j].demandCapacityCharge));
+				fw.newLine();
+				fw.write("Market Charges");
+				fw.newLine();
+				fw.write("VEET Charge,"+df.format(networkParameters.parameters[j].veetRate)+","
+					+ df.format(networkParameters.parameters[j].veetRate + networkParameters.parameters[j].veetLossRatio*networkParameters.parameters[j].veetRate)+ ",c/kWh,"
+					+ df.format(cost.costsPerMonth[i][j].monthlyNettGridUsed) + ",kWh,"
+					+ df.format(networkParameters.parameters[j].veetLossRatio) + ','
+					+ df.format(networkParameters.parameters[j].veetLossRatio*100) + ','
+					+ df.format(cost.costsPerMonth[i][j].veetCharge));
+				fw.newLine();
+				fw.write("SRES Charge,"+df.format(networkParameters.parameters[j].sresRate)+","
+					+ df.format(networkParameters.parameters[j].sresRate + networkParameters.parameters[j].sresLossRatio*networkParameters.parameters[j].sresRate)+ ",c/kWh,"
+					+ df.format(cost.costsPerMonth[i][j].monthlyNettGridUsed) + ",kWh,"
+					+ df.format(networkParameters.parameters[j].sresLossRatio) + ','
+					+ df.format(networkParameters.parameters[j].sresLossRatio*100) + ','
+					+ df.format(cost.costsPerMonth[i][j].sresCharge));
+				fw.newLine();
+				fw.write("LRET Charge,"+df.format(networkParameters.parameters[j].lretRate)+","
+					+ df.format(networkParameters.parameters[j].lretRate + networkParameters.parameters[j].lretLossRatio*networkParameters.parameters[j].lretRate)+ ",c/kWh,"
+					+ df.format(cost.costsPerMonth[i][j].monthlyNettGridUsed) + ",kWh,"
+					+ df.format(networkParameters.parameters[j].lretLossRatio) + ','
+					+ df.format(networkParameters.parameters[j].lretLossRatio*100) + ','
+					+ df.format(cost.costsPerMonth[i][j].lretCharge));
+				fw.newLine();
+				fw.write("AEMO Pool Charge (GST Exempt)+AEMO RERT,"+df.format(networkParameters.parameters[j].aemoPoolRertRate)+","
+					+ df.format(networkParameters.parameters[j].aemoPoolRertRate + networkParameters.parameters[j].aemoPoolRertLossRatio*networkParameters.parameters[j].aemoPoolRertRate)+ ",c/kWh,"
+					+ df.format(cost.costsPerMonth[i][j].monthlyNettGridUsed) + ",kWh,"
+					+ df.format(networkParameters.parameters[j].aemoPoolRertLossRatio) + ','
+					+ df.format(networkParameters.parameters[j].aemoPoolRertLossRatio*100) + ','
+					+ df.format(cost.costsPerMonth[i][j].aemoPoolRertCharge));
+				fw.newLine();
+				fw.write("Ancillary Services,"+df.format(networkParameters.parameters[j].ancilliaryServicesRate)+","
+					+ df.format(networkParameters.parameters[j].ancilliaryServicesRate + networkParameters.parameters[j].ancilliaryServicesLossRatio*networkParameters.parameters[j].ancilliaryServicesRate)+ ",c/kWh,"
+					+ df.format(cost.costsPerMonth[i][j].monthlyNettGridUsed) + ",kWh,"
+					+ df.format(networkParameters.parameters[j].ancilliaryServicesLossRatio) + ','
+					+ df.format(networkParameters.parameters[j].ancilliaryServicesLossRatio*100) + ','
+					+ df.format(cost.costsPerMonth[i][j].ancilliaryServicesCharge));
+				fw.newLine();
+				fw.write("Other Charges");
+				fw.newLine();
+				fw.write("Meter Charge,,"+df.format(networkParameters.parameters[j].meterRate)+",$/Yr,"
+					+ cost.costsPerMonth[i][j].daysInMonth + ",days,,,"
+					+ df.format(cost.costsPerMonth[i][j].meterCharge));
+				fw.newLine();
+				fw.write("CT Compliance Testing Levy,,"+df.format(networkParameters.parameters[j].ctComplianceTestingRate)+",$/Yr,"
+					+ cost.costsPerMonth[i][j].daysInMonth + ",days,,,"
+					+ df.format(cost.costsPerMonth[i][j].ctComplianceTestingLevy));
+				fw.newLine();
+				fw.write("Total (Ex GST),,,,,,,,"
+					+ df.format(cost.costsPerMonth[i][j].totalChargeExGST));
+				fw.newLine();
+				fw.write("GST,,,,,,,,"
+					+ df.format(cost.costsPerMonth[i][j].gst));
+				fw.newLine();
+				fw.write("Total (Inc GST),,,,,,,,"
+					+ df.format(cost.costsPerMonth[i][j].totalChargeIncGST));
+				fw.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Default name of the PEI Summary file.
+	 * 
+	 * @param cost Costs for all meters and all months.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * 
+	 * @return File name.
+	 */
+	public static String peiSummaryFileName(Cost cost, NetworkParameter networkParameters) {
+		return "PEI Summary "+cost.costsPerMonth[0][0].year + " "+networkParameters.tariffName+".csv";
+	}
+
+	/**
+	 * Write the PEI Summary - the same information as the PEI summary JTable.
+	 * 
+	 * @param fw Where to write the summary.
+	 * @param cost Costs for all meters and all months.
+	 * @param pei PEIs for all meters and all months.  The PEI summaries must already have been created.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	public static void writePeiSummary(BufferedWriter fw, Cost cost, PEI pei, NetworkParameter networkParameters) throws IOException {
+		fw.write("Summary for "+cost.costsPerMonth[0][0].year + " using tariff "+networkParameters.tariffName);
+		fw.newLine();
+		fw.newLine();
+		String[] summaryHeader = pei.getColumnNames();
+		fw.write(summaryHeader[0]);
+		for (int i=1;i<summaryHeader.length; i++ ) {
+			fw.write(",");
+			fw.write(summaryHeader[i]);
+		}
+		fw.newLine();
+		//Get the JTable data
+		String[][] peiData = pei.getPeiData();
+
+		//Row by Row
+		for (int i=0; i<peiData.length; i++) {
+			// Remove any extraneous ","'s
+			fw.write(peiData[i][0].replaceAll(",", ""));
+			// Column by column, removing any extraneous ","'s
+			for (int j=1; j<peiData[i].length; j++) {
+				fw.write(",");
+				fw.write(peiData[i][j].replaceAll(",", ""));
+			}
+			// New row.
+			fw.newLine();
+		}
+	}
+
+	/**
+	 * Default name of the Savings Summary file.
+	 * 
+	 * @param bau Business as usual costs and savings.
+	 * @param networkParameters Tariff used to calculate the costs - may be null.
+	 * 
+	 * @return File name.
+	 */
+	public static String savingsSummaryFileName(BusinessAsUsual bau, NetworkParameter networkParameters) {
+		if (networkParameters == null) {
+			return "Savings Summary "+bau.year+".csv";
+		}
+		return "Savings Summary "+bau.year+" "+networkParameters.tariffName+".csv";
+	}
+
+	/**
+	 * Write the Savings Summary - the same information as the Potential Savings JTable.
+	 * 
+	 * @param fw Where to write the summary.
+	 * @param cost Costs for all meters and all months.
+	 * @param bau Business as usual costs and savings.  The savings must already have been calculated.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	public static void writeSavingsSummary(BufferedWriter fw, Cost cost, BusinessAsUsual bau, NetworkParameter networkParameters) throws IOException {
+		fw.write("Savings Summary for "+bau.loadedMeterSummaryArray[0].year + " using tariff "+networkParameters.tariffName);
+		fw.newLine();
+		fw.newLine();
+		//Output the Meter names
+		String[] summaryHeader = cost.getColumnNames();
+		fw.write(summaryHeader[0]);
+		for (int i=1;i<summaryHeader.length; i++ ) {
+			fw.write(",");
+			fw.write(summaryHeader[i]);
+		}
+		fw.newLine();
+
+		//Get the JTable data
+		String[][] priceData = cost.createSummaryOutput(bau.allbauSavings);
+
+		//Get the JTable data
+		for (int i=0; i<priceData.length; i++) {
+			// Remove any extraneous ","'s
+			fw.write(priceData[i][0].replaceAll(",", ""));
+			// Column by column, removing any extraneous ","'s
+			for (int j=1; j<priceData[i].length; j++) {
+				fw.write(",");
+				fw.write(priceData[i][j].replaceAll(",", ""));
+			}
+			// New row.
+			fw.newLine();
+		}
+	}
+
+	/**
+	 * Describe the Lifecycle Cost Analysis as well as possible - investment, tariff and year.  Used in the file names and the
+	 * first line of the Lifecycle Cost Analysis files.
+	 * 
+	 * @param lifecycle Lifecycle Cost Analysis.
+	 * @param networkParameters Tariff used to calculate the costs - may be null.
+	 * @param bau Business as usual costs and savings - may be null.
+	 * @param cost Costs for all meters and all months - may be null.
+	 * 
+	 * @return Description of the Lifecycle Cost Analysis.
+	 */
+	public static String lifecycleName(LifecycleCostAnalysis lifecycle, NetworkParameter networkParameters, BusinessAsUsual bau, Cost cost) {
+		String name = lifecycle.investmentName;
+		// Add the tariff to the filename if it can be determined.
+		if (networkParameters != null) {
+			name = name.concat(" and "+ networkParameters.tariffName);
+		}
+
+		// Add the year to the filename if it can be determined.  Year from bau file takes precedence over
+		// year from usage and generated files.
+		if (bau != null) {
+			name = name.concat(" for "+bau.year);
+		}
+		else if (cost != null) {
+			name = name.concat(" for "+cost.costsPerMonth[0][0].year);
+		}
+		return name;
+	}
+
+	/**
+	 * Write the Lifecycle Cost Analysis Summary.
+	 * 
+	 * @param fw Where to write the summary.
+	 * @param lifecycle Lifecycle Cost Analysis.
+	 * @param name Description of the Lifecycle Cost Analysis - see lifecycleName.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	public static void writeLifecycleSummary(BufferedWriter fw, LifecycleCostAnalysis lifecycle, String name) throws IOException {
+		// Format values to the required number of decimal places
+		DecimalFormat df = new DecimalFormat("#.00");
+
+		fw.write("Summary for "+name);
+		fw.newLine();
+		fw.newLine();
+		fw.write("Number of Components," + lifecycle.lifecycleCostComponents.length);
+		fw.newLine();
+		fw.write("Period of Analysis (years)," + lifecycle.lifetimeString);
+		fw.newLine();
+		fw.write("Initial Cost of Investment ($)," + df.format(-1*lifecycle.costOfInvestment));
+		fw.newLine();
+		fw.write("Present Value of All Costs ($)," + df.format(lifecycle.npvCost));
+		fw.newLine();
+		fw.write("Present Value of Total Saving ($)," + df.format(lifecycle.npvRevenue));
+		fw.newLine();
+		fw.write("Net Present Value (NPV) ($)," + df.format(lifecycle.npvCost + lifecycle.npvRevenue));
+		fw.newLine();
+		fw.write("Annual Life-cycle Cost ($/year)," + df.format(lifecycle.totalATLCC));
+		fw.newLine();
+		fw.write("Annual Life-cycle Saving ($/year)," + df.format(lifecycle.npvRevenue/lifecycle.lifetime));
+		fw.newLine();
+		fw.write("Annual Worth (AW) ($/year)," + df.format(lifecycle.totalATLCC + lifecycle.annualTotalSavings));
+		fw.newLine();
+		fw.write("Annual Energy Demand (kWh/year)," + df.format(lifecycle.totalEnergyDemand));
+		fw.newLine();
+		fw.write("Total Life-cycle Energy Generated (kWh)," + df.format(lifecycle.sumALCCEnergyGenerated));
+		fw.newLine();
+		fw.write("Annual Energy Generated (kWh/year)," + df.format(lifecycle.totalAnnualEnergyGenerated));
+		fw.newLine();
+		fw.write("Annual Energy Used On-site from the DER (kWh/year)," + df.format(lifecycle.totalAnnualEnergyGenerated - lifecycle.totalAnnualEnergyExportedToGrid));
+		fw.newLine();
+		fw.write("Annual Energy Exported to the Grid (kWh/year)," + df.format(lifecycle.totalAnnualEnergyExportedToGrid));
+		fw.newLine();
+		fw.write("Annual Energy Imported from the Grid (kWh/year)," + df.format(lifecycle.totalEnergyDemand-(lifecycle.totalAnnualEnergyGenerated-lifecycle.totalAnnualEnergyExportedToGrid)));
+		fw.newLine();
+
+		if (lifecycle.annualTotalSavings == 0) {
+			fw.write("Payback Period (Years),n/a");
+		}
+		else {
+			fw.write("Payback Period (Years)," + df.format(lifecycle.paybackPeriod));
+		}
+		fw.newLine();
+		if (lifecycle.lcoe == -1) {
+			fw.write("Levelized Cost of Energy (LCOE) ($/kWh),n/a");
+		}
+		else {
+			fw.write("Levelized Cost of Energy (LCOE) ($/kWh)," + df.format(lifecycle.lcoe));
+		}
+		fw.newLine();
+	}
+
+	/**
+	 * Write the Lifecycle Cost Analysis Details - component by component.
+	 * 
+	 * @param fw Where to write the details.
+	 * @param lifecycle Lifecycle Cost Analysis.
+	 * @param name Description of the Lifecycle Cost Analysis - see lifecycleName.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	public static void writeLifecycleDetails(BufferedWriter fw, LifecycleCostAnalysis lifecycle, String name) throws IOException {
+		// No decimal places
+		DecimalFormat df0 = new DecimalFormat("0");
+		// Two decimal places, minimum of one whole number
+		DecimalFormat df2 = new DecimalFormat("0.00");
+		// Up to two decimal places, minimum of one whole number
+		DecimalFormat df2optional = new DecimalFormat("0.##");
+
+		fw.write("Details for "+name);
+		fw.newLine();
+		fw.newLine();
+		// Table Header
+		fw.write("Cost Code,Component,Unit Cost (AUD),Unit,No of Units,Payment (Years),Year of Analysis (Years),Total Cost,Discount Rate (%),Inflation Rate,"+
+				"Inflation adjusted discount rate (j) (%),NPV (AUD),ATLCC (AUD)");
+		fw.newLine();
+		for (int i=0; i< lifecycle.lifecycleCostComponents.length; i++) {
+			fw.write(lifecycle.lifecycleCostComponents[i].costCode+",");
+			fw.write(lifecycle.lifecycleCostComponents[i].name+",");
+			fw.newLine();
+			int costSubCode=1;
+			if(lifecycle.lifecycleCostComponents[i].captialCost != 0) {
+				fw.write(lifecycle.lifecycleCostComponents[i].costCode+"."+ costSubCode++ + ",");
+				fw.write("Captial Cost,");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].captialCost) +",");
+				fw.write("AUD/Unit,");
+				fw.write(lifecycle.lifecycleCostComponents[i].qtyString + ",");
+				fw.write("0,");
+				fw.write(lifecycle.lifecycleCostComponents[i].lifetimeString +",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].totalCapitalCost)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].discountRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].inflationRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].j)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].npvCapital)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].atlccCapital));
+				fw.newLine();
+			}
+			if(lifecycle.lifecycleCostComponents[i].installationCost != 0) {
+				fw.write(lifecycle.lifecycleCostComponents[i].costCode+"."+ costSubCode++ + ",");
+				fw.write("Installation Cost,");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].installationCost) +",");
+				fw.write("AUD/Unit,");
+				fw.write(lifecycle.lifecycleCostComponents[i].qtyString + ",");
+				fw.write("0,");
+				fw.write(lifecycle.lifecycleCostComponents[i].lifetimeString +",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].totalInstallationCost)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].discountRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].inflationRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].j)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].npvInstallation)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].atlccInstallation));
+				fw.newLine();
+			}
+			if(lifecycle.lifecycleCostComponents[i].fixedOMCost != 0) {
+				fw.write(lifecycle.lifecycleCostComponents[i].costCode+"."+ costSubCode++ + ",");
+				fw.write("Fixed O&M Costs,");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].fixedOMCost) +",");
+				fw.write("AUD/Unit,");
+				fw.write(lifecycle.lifecycleCostComponents[i].qtyString + ",");
+				fw.write("1 ... "+df2optional.format(lifecycle.lifecycleCostComponents[i].lifetime - 1)+",");
+				fw.write(lifecycle.lifecycleCostComponents[i].lifetimeString +",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].totalFixedOMCost)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].discountRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].inflationRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].j)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].npvFixedOM)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].atlccfixedOMCost));
+				fw.newLine();
+			}
+			if(lifecycle.lifecycleCostComponents[i].replacementCost != 0) {
+				fw.write(lifecycle.lifecycleCostComponents[i].costCode+"."+ costSubCode++ + ",");
+				fw.write("Replacement Cost,");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].replacementCost) +",");
+				fw.write("AUD/Unit,");
+				fw.write(lifecycle.lifecycleCostComponents[i].qtyString + ",");
+				fw.write(lifecycle.lifecycleCostComponents[i].replacementPayments+",");
+				fw.write(lifecycle.lifecycleCostComponents[i].lifetimeString +",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].totalReplacementCost)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].discountRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].inflationRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].j)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].npvReplacement)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].atlccReplacement));
+				fw.newLine();
+			}
+			if(lifecycle.lifecycleCostComponents[i].futureCost != 0) {
+				fw.write(lifecycle.lifecycleCostComponents[i].costCode+"."+ costSubCode++ + ",");
+				fw.write("Future Cost,");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].futureCost) +",");
+				fw.write("AUD/Unit,");
+				fw.write(lifecycle.lifecycleCostComponents[i].qtyString + ",");
+				fw.write(lifecycle.lifecycleCostComponents[i].futurePayments+",");
+				fw.write(lifecycle.lifecycleCostComponents[i].lifetimeString +",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].totalFutureCost)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].discountRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].inflationRate)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].j)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].npvFuture)+",");
+				fw.write(df2.format(lifecycle.lifecycleCostComponents[i].atlccFuture));
+				fw.newLine();
+			}
+		}
+		fw.write(df0.format(lifecycle.lifecycleCostComponents.length+1)+",Scenario Equipment Totals,,,,,,,,,,"+df2.format(lifecycle.npvCost)+","+df2.format(lifecycle.totalATLCC));
+		fw.newLine();
+	}
+
+	/**
+	 * Default name of the Rolling 12 Month Energy Bill file.
+	 * 
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * 
+	 * @return File name.
+	 */
+	public static String rollingCostsFileName(NetworkParameter networkParameters) {
+		return "Rolling 12 Month Energy Bill "+networkParameters.tariffName+".csv";
+	}
+
+	/**
+	 * Write the Rolling 12 Month Energy Bill - the energy bill of every meter for each 12 months in a row covered by the data, one
+	 * line per 12 month window.  Nothing but the heading is written if the data covers less than 12 months.
+	 * 
+	 * @param fw Where to write the bills.
+	 * @param cost Costs for all meters and all months of every year of the data.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	public static void writeRollingCosts(BufferedWriter fw, Cost cost, NetworkParameter networkParameters) throws IOException {
+		DecimalFormat df = new DecimalFormat("#.00");
+
+		fw.write("Rolling 12 Month Energy Bill ($) using tariff "+networkParameters.tariffName);
+		fw.newLine();
+		fw.newLine();
+		writeRangeHeader(fw, "12 Months", cost);
+		for (int first = cost.firstDataPeriod; first + 11 <= cost.lastDataPeriod; first++) {
+			fw.write(cost.getPeriodName(first) + " - " + cost.getPeriodName(first + 11));
+			writeRangeTotals(fw, df, cost.calculateRangeTotals(first, first + 11));
+		}
+	}
+
+	/**
+	 * Default name of the Energy Bill file for a range of months.
+	 * 
+	 * @param cost Costs for all meters and all months of every year of the data.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * @param firstPeriod First month of the range.
+	 * @param lastPeriod Last month of the range.
+	 * 
+	 * @return File name.
+	 */
+	public static String rangeCostsFileName(Cost cost, NetworkParameter networkParameters, int firstPeriod, int lastPeriod) {
+		return "Energy Bill "+cost.getPeriodName(firstPeriod)+" to "+cost.getPeriodName(lastPeriod)+" "+networkParameters.tariffName+".csv";
+	}
+
+	/**
+	 * Write the Energy Bill for a range of months - the bill of every meter month by month, then the total for the range.
+	 * 
+	 * @param fw Where to write the bill.
+	 * @param cost Costs for all meters and all months of every year of the data.
+	 * @param networkParameters Tariff used to calculate the costs.
+	 * @param firstPeriod First month of the range - must be covered by the data.
+	 * @param lastPeriod Last month of the range - must be covered by the data.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	public static void writeRangeCosts(BufferedWriter fw, Cost cost, NetworkParameter networkParameters, int firstPeriod,
+			int lastPeriod) throws IOException {
+		DecimalFormat df = new DecimalFormat("#.00");
+
+		fw.write("Energy Bill ($) for "+cost.getPeriodName(firstPeriod)+" to "+cost.getPeriodName(lastPeriod)
+				+" using tariff "+networkParameters.tariffName);
+		fw.newLine();
+		fw.newLine();
+		writeRangeHeader(fw, "Month", cost);
+		for (int period = firstPeriod; period <= lastPeriod; period++) {
+			fw.write(cost.getPeriodName(period));
+			writeRangeTotals(fw, df, cost.calculateRangeTotals(period, period));
+		}
+		fw.write("Total");
+		writeRangeTotals(fw, df, cost.calculateRangeTotals(firstPeriod, lastPeriod));
+	}
+
+	/**
+	 * Write the column headings of a range of months - one column per meter and a total.
+	 * 
+	 * @param fw Where to write the headings.
+	 * @param firstHeading Heading of the first column.
+	 * @param cost Costs for all meters.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	private static void writeRangeHeader(BufferedWriter fw, String firstHeading, Cost cost) throws IOException {
+		fw.write(firstHeading);
+		for (String meterName : cost.meterNames) {
+			fw.write("," + meterName.replaceAll(",", ""));
+		}
+		fw.write(",Total");
+		fw.newLine();
+	}
+
+	/**
+	 * Write the rest of a line of a range of months.
+	 * 
+	 * @param fw Where to write the totals.
+	 * @param df Format for the totals.
+	 * @param totals Total of each meter followed by the grand total - see Cost.calculateRangeTotals.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	private static void writeRangeTotals(BufferedWriter fw, DecimalFormat df, double[] totals) throws IOException {
+		for (double total : totals) {
+			fw.write("," + df.format(total));
+		}
+		fw.newLine();
+	}
+
+	/**
+	 * Default name of the Tariff Comparison file.
+	 * 
+	 * @param comparison Completed tariff comparison.
+	 * 
+	 * @return File name.
+	 */
+	public static String tariffComparisonFileName(TariffComparison comparison) {
+		return "Tariff Comparison " + comparison.getYear() + ".csv";
+	}
+
+	/**
+	 * Write the Tariff Comparison - the annual energy bill of every meter and the monthly total energy bill, one column per tariff,
+	 * followed by any tariffs that could not be compared and why.
+	 * 
+	 * @param fw Where to write the comparison.
+	 * @param comparison Completed tariff comparison.
+	 * 
+	 * @throws IOException If there is a problem writing the file.
+	 */
+	public static void writeTariffComparison(BufferedWriter fw, TariffComparison comparison) throws IOException {
+		DecimalFormat df = new DecimalFormat("#.00");
+		List<Calculation> calculations = comparison.calculations;
+
+		fw.write("Tariff Comparison for " + comparison.getYear());
+		fw.newLine();
+		fw.newLine();
+
+		// Annual bill for each meter.  All tariffs are calculated from the same usage, but a tariff that distributes generated energy
+		// has no virtual meter for the energy exported, so meters are matched by name and left blank for a tariff without them.
+		fw.write("Annual Energy Bill ($)");
+		for (Calculation calculation : calculations) {
+			fw.write("," + calculation.networkParameters.tariffName.replaceAll(",", ""));
+		}
+		fw.newLine();
+		List<String> meterNames = new ArrayList<String>();
+		for (Calculation calculation : calculations) {
+			List<MeterSummary> meters = calculation.cost.allMeterCostSummaries;
+			// The grand total goes last
+			for (MeterSummary meter : meters.subList(0, meters.size() - 1)) {
+				if (!meterNames.contains(meter.meterName)) {
+					meterNames.add(meter.meterName);
+				}
+			}
+		}
+		for (String meterName : meterNames) {
+			fw.write(meterName.replaceAll(",", ""));
+			for (Calculation calculation : calculations) {
+				fw.write(",");
+				for (MeterSummary meter : calculation.cost.allMeterCostSummaries) {
+					if (meter.meterName.equals(meterName)) {
+						fw.write(df.format(meter.yearly));
+						break;
+					}
+				}
+			}
+			fw.newLine();
+		}
+		fw.write(TariffComparison.getTotal(calculations.get(0)).meterName.replaceAll(",", ""));
+		for (Calculation calculation : calculations) {
+			fw.write("," + df.format(TariffComparison.getTotal(calculation).yearly));
+		}
+		fw.newLine();
+		fw.newLine();
+
+		// Monthly bill for all meters
+		fw.write("Monthly Energy Bill ($)");
+		for (Calculation calculation : calculations) {
+			fw.write("," + calculation.networkParameters.tariffName.replaceAll(",", ""));
+		}
+		fw.newLine();
+		for (int month = 0; month < Cost.MONTH_NAMES.length; month++) {
+			fw.write(Cost.MONTH_NAMES[month]);
+			for (Calculation calculation : calculations) {
+				fw.write("," + df.format(TariffComparison.getTotal(calculation).monthly[month]));
+			}
+			fw.newLine();
+		}
+		fw.newLine();
+
+		// Difference from the site's own tariff - negative is cheaper
+		MeterSummary baseTotal = TariffComparison.getTotal(calculations.get(0));
+		fw.write("Difference from " + calculations.get(0).networkParameters.tariffName.replaceAll(",", "") + " ($)");
+		for (Calculation calculation : calculations) {
+			fw.write("," + df.format(TariffComparison.getTotal(calculation).yearly - baseTotal.yearly));
+		}
+		fw.newLine();
+		Calculation cheapest = comparison.getCheapest();
+		fw.write("Cheapest Tariff," + cheapest.networkParameters.tariffName.replaceAll(",", "") + ","
+				+ df.format(TariffComparison.getTotal(cheapest).yearly));
+		fw.newLine();
+
+		// Tariffs that couldn't be used with this site
+		if (!comparison.failures.isEmpty()) {
+			fw.newLine();
+			fw.write("Tariffs Not Compared");
+			fw.newLine();
+			for (Map.Entry<String, String> failure : comparison.failures.entrySet()) {
+				fw.write(failure.getKey().replaceAll(",", "") + "," + failure.getValue().replaceAll("[,\\r\\n]+", " "));
+				fw.newLine();
+			}
+		}
+	}
+}
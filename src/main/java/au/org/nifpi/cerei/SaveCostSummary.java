@@ -47,7 +47,7 @@ public class SaveCostSummary extends JButton implements ActionListener {
         chooser.setAcceptAllFileFilterUsed(false);
 
         // Default file name
-        chooser.setSelectedFile(new File("Energy Bill Summary "+UI.cost.costsPerMonth[0][0].year + " "+UI.networkParameters.tariffName+".csv"));
+        chooser.setSelectedFile(new File(ResultWriter.costSummaryFileName(UI.cost, UI.networkParameters)));
         
 	    int retrival = chooser.showSaveDialog(null);
 	    //Only proceed if user clicks on "Save"
@@ -67,33 +67,8 @@ public class SaveCostSummary extends JButton implements ActionListener {
 	    	
 	    	// Output the contents of the Cost Summary JTable data structure.
 	    	try(BufferedWriter fw = new BufferedWriter(new FileWriter(summaryFile))) {
-	            fw.write("Energy Bill Summary for "+UI.cost.costsPerMonth[0][0].year + " using tariff "+UI.networkParameters.tariffName);
-	            fw.newLine();
-	            fw.newLine();
-	            String[] summaryHeader = UI.cost.getColumnNames();
-	            fw.write(summaryHeader[0]);
-	            for (int i=1;i<summaryHeader.length; i++ ) {
-	            	fw.write(",");
-	            	fw.write(summaryHeader[i]);
-	            }
-	            fw.newLine();
-	            
-	            //Get the JTable data
-	            String[][] priceData = UI.cost.createSummaryOutput(UI.cost.allMeterCostSummaries);
-
-	            //Get the JTable data
-	            for (int i=0; i<priceData.length; i++) {
-	            	// Remove any extraneous ","'s
-	            	fw.write(priceData[i][0].replaceAll(",", ""));
-	            	// Column by column, removing any extraneous ","'s 
-	            	for (int j=1; j<priceData[i].length; j++) {
-		            	fw.write(",");
-		            	fw.write(priceData[i][j].replaceAll(",", ""));
-	            	}
-	            	// New row.
-	            	fw.newLine();
-	            }
-	        } catch (Exception ex) {
+	    		ResultWriter.writeCostSummary(fw, UI.cost, UI.networkParameters);
+	    	} catch (Exception ex) {
 		    	//Need to display a warning dialog with the error.
 		    	JOptionPane.showMessageDialog(UI,ex.getMessage(),"CEREI Error",JOptionPane.ERROR_MESSAGE); //
 	        }
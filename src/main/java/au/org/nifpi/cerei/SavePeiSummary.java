@@ -49,7 +49,7 @@ public class SavePeiSummary extends JButton implements ActionListener {
         chooser.setAcceptAllFileFilterUsed(false);
         
         // Default file name
-        chooser.setSelectedFile(new File("PEI Summary "+UI.cost.costsPerMonth[0][0].year + " "+UI.networkParameters.tariffName+".csv"));
+        chooser.setSelectedFile(new File(ResultWriter.peiSummaryFileName(UI.cost, UI.networkParameters)));
         
 	    int retrival = chooser.showSaveDialog(null);
 	    //Only proceed if user clicks on "Save"
@@ -70,31 +70,7 @@ public class SavePeiSummary extends JButton implements ActionListener {
 	    	
 	    	// Output the contents of the PEI Summary JTable data structure.
 	        try(BufferedWriter fw = new BufferedWriter(new FileWriter(summaryFile))) {
-	            fw.write("Summary for "+UI.cost.costsPerMonth[0][0].year + " using tariff "+UI.networkParameters.tariffName);
-	            fw.newLine();
-	            fw.newLine();
-	            String[] summaryHeader = UI.pei.getColumnNames();
-	            fw.write(summaryHeader[0]);
-	            for (int i=1;i<summaryHeader.length; i++ ) {
-	            	fw.write(",");
-	            	fw.write(summaryHeader[i]);
-	            }
-	            fw.newLine();
-	            //Get the JTable data
-	            String[][] peiData = UI.pei.getPeiData();
-	            
-	            //Row by Row
-	            for (int i=0; i<peiData.length; i++) {
-	            	// Remove any extraneous ","'s
-	            	fw.write(peiData[i][0].replaceAll(",", ""));
-	            	// Column by column, removing any extraneous ","'s 
-	            	for (int j=1; j<peiData[i].length; j++) {
-		            	fw.write(",");
-		            	fw.write(peiData[i][j].replaceAll(",", ""));
-	            	}
-	            	// New row.
-	            	fw.newLine();
-	            }
+	        	ResultWriter.writePeiSummary(fw, UI.cost, UI.pei, UI.networkParameters);
 	        } catch (Exception ex) {
 		    	//Need to display a warning dialog with the error.
 		    	JOptionPane.showMessageDialog(UI,ex.getMessage(),"CEREI Error",JOptionPane.ERROR_MESSAGE); //
@@ -47,13 +47,7 @@ public class SaveSavingsSummary extends JButton implements ActionListener {
         chooser.setAcceptAllFileFilterUsed(false);
 
         // Default file name
-        String defaultFileName;
-        if (UI.networkParameters == null) {
-        	defaultFileName = "Savings Summary "+UI.bau.year+".csv";
-        }
-        else {
-        	defaultFileName = "Savings Summary "+UI.bau.year+" "+UI.networkParameters.tariffName+".csv";
-        }
+        String defaultFileName = ResultWriter.savingsSummaryFileName(UI.bau, UI.networkParameters);
 
         chooser.setSelectedFile(new File(defaultFileName));
         
@@ -75,34 +69,8 @@ public class SaveSavingsSummary extends JButton implements ActionListener {
 	    	
 	    	// Output the contents of the Cost Summary JTable data structure.
 	    	try(BufferedWriter fw = new BufferedWriter(new FileWriter(summaryFile))) {
-	            fw.write("Savings Summary for "+UI.bau.loadedMeterSummaryArray[0].year + " using tariff "+UI.networkParameters.tariffName);
-	            fw.newLine();
-	            fw.newLine();
-	            //Output the Meter names
-	            String[] summaryHeader = UI.cost.getColumnNames();
-	            fw.write(summaryHeader[0]);
-	            for (int i=1;i<summaryHeader.length; i++ ) {
-	            	fw.write(",");
-	            	fw.write(summaryHeader[i]);
-	            }
-	            fw.newLine();
-	            
-	           //Get the JTable data
-	            String[][] priceData = UI.cost.createSummaryOutput(UI.bau.allbauSavings);
-
-	            //Get the JTable data
-	            for (int i=0; i<priceData.length; i++) {
-	            	// Remove any extraneous ","'s
-	            	fw.write(priceData[i][0].replaceAll(",", ""));
-	            	// Column by column, removing any extraneous ","'s 
-	            	for (int j=1; j<priceData[i].length; j++) {
-		            	fw.write(",");
-		            	fw.write(priceData[i][j].replaceAll(",", ""));
-	            	}
-	            	// New row.
-	            	fw.newLine();
-	            }
-	        } catch (Exception ex) {
+	    		ResultWriter.writeSavingsSummary(fw, UI.cost, UI.bau, UI.networkParameters);
+	    	} catch (Exception ex) {
 		    	//Need to display a warning dialog with the error.
 		    	JOptionPane.showMessageDialog(UI,ex.getMessage(),"CEREI Error",JOptionPane.ERROR_MESSAGE); //
 	        }
@@ -0,0 +1,40 @@
+package au.org.nifpi.cerei;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for each stage of a calculation, with the same figures as StageMetrics.  The duration of the event is
+ * the wall clock time of the stage.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+@Name("au.org.nifpi.cerei.Stage")
+@Label("Calculation Stage")
+@Category({ "CEREI", "Calculation" })
+@Description("One stage of a calculation, e.g. reading the interval files or calculating costs")
+@StackTrace(false)
+class StageEvent extends Event {
+	/** Description of the stage */
+	@Label("Stage")
+	String stage;
+
+	/** Lines read or intervals processed */
+	@Label("Rows")
+	long rows;
+
+	/** Bytes read from the input files, or from the interval data cache */
+	@Label("Bytes Read")
+	@DataAmount
+	long bytesRead;
+
+	/** Memory allocated by the thread running the calculation, -1 if the JVM can't measure it */
+	@Label("Allocated")
+	@DataAmount
+	long allocated;
+}
@@ -0,0 +1,229 @@
+package au.org.nifpi.cerei;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times each stage of a calculation as it runs.  Sits between the calculation and whatever is receiving its progress, passing
+ * every report on, and records the wall clock time, rows, bytes read and memory allocated from the start of each stage to the
+ * start of the next.
+ * <p>
+ * A Calculation wraps the progress it is given in one of these, unless it is given one already - so the tariffs of a
+ * TariffComparison, or the calculation and writing of results of a batch site, can all be timed together.  Whoever creates the
+ * metrics calls finish once the work is done, which adds the stages to the totals published over JMX by CalculationMetrics.
+ * <p>
+ * Memory allocated is only measured for the thread running the calculation, not the fork/join threads parsing large files.
+ * <p>
+ * Each stage is also recorded as a StageEvent when Java Flight Recorder is running.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class StageMetrics implements CalculationProgress {
+	/** Measures the memory allocated by each thread - null if the JVM can't */
+	private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+	/** Receives the progress reports */
+	private CalculationProgress progress;
+	/** Every stage run so far, in the order they were started */
+	private List<StageStatistics> stages = new ArrayList<StageStatistics>();
+	/** The stage running now, null before the first stage and once finished */
+	private StageStatistics current = null;
+	/** When the current stage started, from System.nanoTime */
+	private long stageStart;
+	/** Memory allocated by the thread before the current stage started, -1 if it can't be measured */
+	private long stageAllocated;
+	/** Flight Recorder event for the current stage */
+	private StageEvent stageEvent = null;
+	/** Set once the stages have been added to the totals */
+	private boolean finished = false;
+
+	/**
+	 * Time the stages of a calculation.
+	 *
+	 * @param progress Receives the progress reports.
+	 */
+	public StageMetrics(CalculationProgress progress) {
+		this.progress = progress;
+	}
+
+	/**
+	 * Finds the JVM's measure of the memory allocated by each thread, if it has one.
+	 *
+	 * @return The thread bean, null if it can't measure allocations.
+	 */
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+			if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+				return bean;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Memory allocated by the current thread so far.
+	 *
+	 * @return Bytes allocated since the thread started, -1 if it can't be measured.
+	 */
+	private static long allocatedBytes() {
+		return ALLOCATION == null ? -1 : ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * End the current stage and start timing the next one.
+	 *
+	 * @param stageName Description of the stage, e.g. "Calculating costs".
+	 */
+	@Override
+	public void stageStarted(String stageName) {
+		endStage();
+		current = new StageStatistics(stageName);
+		current.count = 1;
+		stages.add(current);
+		stageAllocated = allocatedBytes();
+		stageEvent = new StageEvent();
+		stageEvent.begin();
+		stageStart = System.nanoTime();
+		progress.stageStarted(stageName);
+	}
+
+	/**
+	 * Record how many rows the current stage has processed.  Only the rows processed by this run count, so an incremental
+	 * calculation records the intervals it added to the saved totals, not every interval up to the end of the data.
+	 *
+	 * @param rowsProcessed Number of lines (or intervals) processed so far.
+	 * @param bytesRead Number of bytes of the (first) file read so far, or the number of intervals up to the one being processed.
+	 * @param totalBytes Size of the (first) file, or the total number of intervals.
+	 */
+	@Override
+	public void rowsProcessed(int rowsProcessed, long bytesRead, long totalBytes) {
+		if (current != null) {
+			current.rows = rowsProcessed;
+		}
+		progress.rowsProcessed(rowsProcessed, bytesRead, totalBytes);
+	}
+
+	/**
+	 * Add to the bytes read by the current stage.
+	 *
+	 * @param bytes Number of bytes read.
+	 */
+	@Override
+	public void bytesRead(long bytes) {
+		if (current != null) {
+			current.bytesRead += bytes;
+		}
+		progress.bytesRead(bytes);
+	}
+
+	/**
+	 * Pass on whether the calculation should give up early.
+	 *
+	 * @return true if the calculation should stop as soon as possible.
+	 */
+	@Override
+	public boolean isCancelRequested() {
+		return progress.isCancelRequested();
+	}
+
+	/**
+	 * Finish timing the current stage.
+	 */
+	private void endStage() {
+		if (current != null) {
+			current.elapsedNanos = System.nanoTime() - stageStart;
+			long allocated = allocatedBytes();
+			current.allocatedBytes = allocated < 0 || stageAllocated < 0 ? -1 : allocated - stageAllocated;
+			stageEvent.end();
+			if (stageEvent.shouldCommit()) {
+				stageEvent.stage = current.name;
+				stageEvent.rows = current.rows;
+				stageEvent.bytesRead = current.bytesRead;
+				stageEvent.allocated = current.allocatedBytes;
+				stageEvent.commit();
+			}
+			stageEvent = null;
+			current = null;
+		}
+	}
+
+	/**
+	 * Finish timing the last stage and add all the stages to the totals for the JVM.  Only the first call has any effect.
+	 */
+	public void finish() {
+		endStage();
+		if (!finished) {
+			finished = true;
+			CalculationMetrics.getInstance().record(this);
+		}
+	}
+
+	/**
+	 * The stages timed so far, each run separately.
+	 *
+	 * @return Every stage run, in the order they were started.  A stage run more than once, e.g. for each tariff of a comparison,
+	 * appears each time.
+	 */
+	public List<StageStatistics> getStages() {
+		return Collections.unmodifiableList(stages);
+	}
+
+	/**
+	 * Combine the runs of each stage.
+	 *
+	 * @return One set of statistics per stage name, in the order each stage first started.
+	 */
+	public List<StageStatistics> getTotals() {
+		return totals(stages);
+	}
+
+	/**
+	 * Combine the runs of each stage.
+	 *
+	 * @param stages Runs of the stages.
+	 *
+	 * @return One set of statistics per stage name, in the order each stage first appears.
+	 */
+	static List<StageStatistics> totals(List<StageStatistics> stages) {
+		Map<String, StageStatistics> totals = new LinkedHashMap<String, StageStatistics>();
+		for (StageStatistics stage : stages) {
+			totals.computeIfAbsent(stage.name, StageStatistics::new).add(stage);
+		}
+		return new ArrayList<StageStatistics>(totals.values());
+	}
+
+	/**
+	 * The stages as a table, with the runs of each stage combined.
+	 *
+	 * @param title Line written above the table, e.g. the name of the site.
+	 *
+	 * @return One line per stage, each ending with a new line.
+	 */
+	public String summary(String title) {
+		return summary(title, getTotals());
+	}
+
+	/**
+	 * Statistics of stages as a table.
+	 *
+	 * @param title Line written above the table.
+	 * @param stages Statistics, one line each.
+	 *
+	 * @return The table, each line ending with a new line.
+	 */
+	static String summary(String title, List<StageStatistics> stages) {
+		StringBuilder summary = new StringBuilder(title).append(System.lineSeparator());
+		summary.append("  ").append(StageStatistics.heading()).append(System.lineSeparator());
+		for (StageStatistics stage : stages) {
+			summary.append("  ").append(stage).append(System.lineSeparator());
+		}
+		return summary.toString();
+	}
+}
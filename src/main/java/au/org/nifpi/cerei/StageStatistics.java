@@ -0,0 +1,134 @@
+package au.org.nifpi.cerei;
+
+import java.util.Locale;
+
+/**
+ * What one stage of a calculation cost - the wall clock time, the number of rows (lines or intervals) it got through, the bytes it
+ * read from the input files and the memory it allocated.  Either a single run of the stage or the totals of every run of a stage
+ * with the same name, e.g. "Calculating costs" for every site in a batch.
+ * <p>
+ * The getters make it an open type, so a list of them can be returned as a JMX attribute - see CalculationMetricsMXBean.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class StageStatistics {
+	/** Description of the stage, e.g. "Calculating costs" */
+	protected String name;
+	/** Number of times the stage has run */
+	protected long count = 0;
+	/** Wall clock time the stage took in nanoseconds */
+	protected long elapsedNanos = 0;
+	/** Lines read or intervals processed */
+	protected long rows = 0;
+	/** Bytes read from the input files, or from the interval data cache */
+	protected long bytesRead = 0;
+	/** Bytes of memory allocated by the thread running the calculation, -1 if the JVM can't measure it */
+	protected long allocatedBytes = 0;
+
+	/**
+	 * Statistics for a stage that has not run yet.
+	 *
+	 * @param name Description of the stage.
+	 */
+	public StageStatistics(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Add another run of the stage to the totals.
+	 *
+	 * @param other Statistics of the other run (or runs).
+	 */
+	public void add(StageStatistics other) {
+		count += other.count;
+		elapsedNanos += other.elapsedNanos;
+		rows += other.rows;
+		bytesRead += other.bytesRead;
+		allocatedBytes = allocatedBytes < 0 || other.allocatedBytes < 0 ? -1 : allocatedBytes + other.allocatedBytes;
+	}
+
+	/**
+	 * The name the stage was started with, e.g. "Calculating costs".
+	 *
+	 * @return Description of the stage.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * How many runs of the stage these statistics cover - more than one once the runs of a stage are combined.
+	 *
+	 * @return Number of times the stage has run.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * How long the stage took, from its start to the start of the next stage.
+	 *
+	 * @return Wall clock time the stage took in milliseconds.
+	 */
+	public double getElapsedMillis() {
+		return elapsedNanos / 1e6;
+	}
+
+	/**
+	 * How many rows the stage went through.  A stage that doesn't go through the interval data has none.
+	 *
+	 * @return Lines read or intervals processed by this run.
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * How quickly the stage went through its rows.
+	 *
+	 * @return Rows per second of wall clock time, 0 if the stage doesn't go through rows.
+	 */
+	public double getRowsPerSecond() {
+		return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * How much the stage read from disk.
+	 *
+	 * @return Bytes read from the input files, or from the interval data cache.
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * How much memory the stage allocated.
+	 *
+	 * @return Bytes of memory allocated by the thread running the calculation, -1 if the JVM can't measure it.  Memory allocated by
+	 * the threads parsing a large file in parallel is not included.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Heading for the table written by toString.
+	 *
+	 * @return Column headings lined up with the values.
+	 */
+	public static String heading() {
+		return String.format(Locale.ENGLISH, "%-40s %6s %12s %12s %12s %12s %14s", "Stage", "Runs", "Time (ms)", "Rows", "Rows/s",
+				"Read (KB)", "Allocated (KB)");
+	}
+
+	/**
+	 * The statistics as one line of a table.
+	 *
+	 * @return The values lined up under heading.
+	 */
+	@Override
+	public String toString() {
+		return String.format(Locale.ENGLISH, "%-40s %6d %12.1f %12d %12.0f %12d %14s", name, count, getElapsedMillis(), rows,
+				getRowsPerSecond(), bytesRead / 1024, allocatedBytes < 0 ? "n/a" : Long.toString(allocatedBytes / 1024));
+	}
+}
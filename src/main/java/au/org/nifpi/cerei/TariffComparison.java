@@ -0,0 +1,173 @@
+package au.org.nifpi.cerei;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Compares the energy bill of a site under several network tariffs.  The site is first calculated as usual with its own tariff, then
+ * the same interval data is priced against each of the other tariffs.  The interval files are only read once - every tariff's costs
+ * are calculated from the columns already loaded for the first one, and the tariffs are calculated at the same time on the
+ * fork/join pool.
+ * <p>
+ * A tariff that can't be used with the site, e.g. one missing a meter, is left out of the comparison and listed in failures rather
+ * than stopping the others.
+ * <p>
+ * Does not use any GUI components.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+public class TariffComparison {
+
+	/** Completed calculation for the site's own tariff */
+	protected Calculation baseCalculation;
+	/** Other tariffs to compare */
+	protected List<File> tariffFiles;
+	/** One completed calculation per tariff, starting with the site's own tariff.  Tariffs that failed are left out */
+	protected List<Calculation> calculations = new ArrayList<Calculation>();
+	/** Why each tariff that could not be compared failed, by the name of its Network Tariff file */
+	protected Map<String, String> failures = new LinkedHashMap<String, String>();
+
+	/**
+	 * Passes on only whether to stop, so the tariffs calculated at the same time can share it.  Nothing else is passed on, as the
+	 * progress of the comparison isn't made to be called from several threads at once.
+	 */
+	private static class CancelOnly implements CalculationProgress {
+		/** Progress of the comparison */
+		private CalculationProgress progress;
+
+		/**
+		 * Pass on whether to stop.
+		 *
+		 * @param progress Progress of the comparison.
+		 */
+		CancelOnly(CalculationProgress progress) {
+			this.progress = progress;
+		}
+
+		/**
+		 * Stages of each tariff are not reported.
+		 *
+		 * @param stageName Description of the stage.
+		 */
+		@Override
+		public void stageStarted(String stageName) {
+		}
+
+		/**
+		 * Progress through the intervals of each tariff is not reported.
+		 *
+		 * @param rowsProcessed Number of intervals processed so far.
+		 * @param bytesRead Number of intervals processed so far.
+		 * @param totalBytes Total number of intervals.
+		 */
+		@Override
+		public void rowsProcessed(int rowsProcessed, long bytesRead, long totalBytes) {
+		}
+
+		/**
+		 * Ask the comparison's progress whether to stop.
+		 *
+		 * @return true if the comparison should stop as soon as possible.
+		 */
+		@Override
+		public boolean isCancelRequested() {
+			return progress.isCancelRequested();
+		}
+	}
+
+	/**
+	 * Set up a comparison.  Nothing is calculated until compare is called.
+	 *
+	 * @param baseCalculation Completed calculation for the site with its own tariff.  Its interval data is used for all the other
+	 * tariffs.
+	 * @param tariffFiles Network Tariff files to compare against the site's own tariff.
+	 */
+	public TariffComparison(Calculation baseCalculation, List<File> tariffFiles) {
+		this.baseCalculation = baseCalculation;
+		this.tariffFiles = tariffFiles;
+	}
+
+	/**
+	 * Calculate the costs for each of the other tariffs, all at the same time.  Each tariff goes through exactly the same cost
+	 * calculations as a normal run (including the ordering of distribution meters from the Business as Usual bill) so the costs
+	 * match what each tariff would give on its own.  Any tariff that fails is added to failures and the rest are still compared.
+	 *
+	 * @param progress Receives the start of the comparison and the bytes read, and can cancel it.
+	 *
+	 * @throws Exception If the comparison is cancelled.
+	 */
+	public void compare(CalculationProgress progress) throws Exception {
+		progress.stageStarted("Comparing tariffs");
+		calculations.clear();
+		failures.clear();
+		CalculationProgress cancel = new CancelOnly(progress);
+		List<Calculation> tariffCalculations = new ArrayList<Calculation>();
+		String[] errors = new String[tariffFiles.size()];
+		List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+		for (int i = 0; i < tariffFiles.size(); i++) {
+			Calculation calculation = baseCalculation.forTariff(tariffFiles.get(i));
+			tariffCalculations.add(calculation);
+			int tariff = i;
+			tasks.add(ForkJoinTask.adapt(() -> {
+				try {
+					calculation.calculateCosts(cancel);
+				} catch (Exception e) {
+					errors[tariff] = (calculation.errorTitle == null ? "Error" : calculation.errorTitle) + ": " + e.getMessage();
+				}
+			}));
+		}
+		ForkJoinTask.invokeAll(tasks);
+		Calculation.checkCancelled(progress);
+
+		calculations.add(baseCalculation);
+		for (int i = 0; i < tariffFiles.size(); i++) {
+			File tariffFile = tariffFiles.get(i);
+			progress.bytesRead(tariffFile.length());
+			if (errors[i] == null) {
+				calculations.add(tariffCalculations.get(i));
+			} else {
+				failures.put(tariffFile.getName(), errors[i]);
+				ValidationFailureEvent.report("Error comparing tariff " + tariffFile.getName(), errors[i]);
+			}
+		}
+	}
+
+	/**
+	 * Year of the comparison - the year of the interval data.
+	 *
+	 * @return Year.
+	 */
+	public int getYear() {
+		return baseCalculation.cost.costsPerMonth[0][0].year;
+	}
+
+	/**
+	 * Find the tariff with the lowest total annual energy bill.
+	 *
+	 * @return Calculation for the cheapest tariff - the site's own tariff if there is a tie.
+	 */
+	public Calculation getCheapest() {
+		Calculation cheapest = calculations.get(0);
+		for (Calculation calculation : calculations) {
+			if (getTotal(calculation).yearly < getTotal(cheapest).yearly) {
+				cheapest = calculation;
+			}
+		}
+		return cheapest;
+	}
+
+	/**
+	 * Total costs of all meters for one tariff.
+	 *
+	 * @param calculation Completed calculation for the tariff.
+	 *
+	 * @return The grand total MeterSummary - the last of the cost summaries.
+	 */
+	public static MeterSummary getTotal(Calculation calculation) {
+		return calculation.cost.allMeterCostSummaries.get(calculation.cost.allMeterCostSummaries.size() - 1);
+	}
+}
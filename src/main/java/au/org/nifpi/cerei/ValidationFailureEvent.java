@@ -0,0 +1,42 @@
+package au.org.nifpi.cerei;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for each problem with the input files that stops a calculation, or stops its Savings or Lifecycle
+ * results - the same problems the GUI shows in its error dialogs and the batch runner reports for each site.
+ *
+ * @author Copyright (c) 2023 University of Technology Sydney and Federation University under MIT License.
+ */
+@Name("au.org.nifpi.cerei.ValidationFailure")
+@Label("Validation Failure")
+@Category({ "CEREI", "Input" })
+@Description("A problem with the input files reported by a calculation")
+class ValidationFailureEvent extends Event {
+	/** What went wrong, e.g. "Error reading Network Parameter file" */
+	@Label("Title")
+	String title;
+
+	/** Details, usually including the file and line */
+	@Label("Message")
+	String message;
+
+	/**
+	 * Record a problem, if a recording is running.
+	 *
+	 * @param title What went wrong.
+	 * @param message Details.
+	 */
+	static void report(String title, String message) {
+		ValidationFailureEvent event = new ValidationFailureEvent();
+		if (event.shouldCommit()) {
+			event.title = title;
+			event.message = message;
+			event.commit();
+		}
+	}
+}
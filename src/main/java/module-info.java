@@ -1,4 +1,6 @@
 module cerei {
 	exports au.org.nifpi.cerei;
 	requires transitive java.desktop;
+	requires jdk.jfr;
+	requires jdk.management;
 }
\ No newline at end of file